@@ -23,6 +23,7 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import Feat.FeatureMe.Dto.CursorPageDTO;
 import Feat.FeatureMe.Dto.PostsDTO;
 import Feat.FeatureMe.Dto.ViewsDTO;
 import Feat.FeatureMe.Dto.CommentDTO;
@@ -288,6 +289,36 @@ public class PostsController {
         return postsService.getAllPagedPosts(page, size);
     }
 
+    // Cursor-paged feed: pass back nextCursor from the previous response to get the next page
+    @GetMapping("/get/cursor")
+    public ResponseEntity<CursorPageDTO<PostsDTO>> getAllPostsByCursor(@RequestParam(required = false) String cursor,
+    @RequestParam( defaultValue = "6") int size) {
+        try {
+            return ResponseEntity.ok(postsService.getAllPostsByCursor(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Posts from the accounts the signed-in user follows, newest first; cursor-paged like /get/cursor
+    @GetMapping("/timeline")
+    public ResponseEntity<CursorPageDTO<PostsDTO>> getTimeline(@RequestParam(required = false) String cursor,
+    @RequestParam( defaultValue = "6") int size) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(401).build();
+        }
+        User user = userService.findByUsernameOrEmail(authentication.getName()).orElse(null);
+        if (user == null) {
+            return ResponseEntity.status(401).build();
+        }
+        try {
+            return ResponseEntity.ok(postsService.getTimeline(user.getUserName(), cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/get/search")
     public PagedModel<PostsDTO> getSearchedPosts(@RequestParam( defaultValue = "0") int page,
     @RequestParam( defaultValue = "6") int size, @RequestParam String search) {
@@ -313,6 +344,26 @@ public class PostsController {
         return postsService.searchPosts(search, genreList, sortBy, page, size);
     }
     
+    @GetMapping("/get/advanced-search/cursor")
+    public ResponseEntity<CursorPageDTO<PostsDTO>> advancedSearchByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "6") int size,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String genres,
+            @RequestParam(defaultValue = "time") String sortBy) {
+        
+        List<String> genreList = null;
+        if (genres != null && !genres.trim().isEmpty()) {
+            genreList = Arrays.asList(genres.split(","));
+        }
+        
+        try {
+            return ResponseEntity.ok(postsService.searchPostsByCursor(search, genreList, sortBy, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
 
     @GetMapping("/get/id/{id}")
     public PostsDTO getPostById(@PathVariable String id, Posts posts) {
@@ -330,6 +381,22 @@ public class PostsController {
         return postsService.findByLikesDesc(page,size);
     }
     
+    @GetMapping("/get/trending")
+    public PagedModel<PostsDTO> getTrendingPosts(@RequestParam( defaultValue = "0") int page,
+    @RequestParam( defaultValue = "6") int size) {
+        return postsService.getTrendingPosts(page, size);
+    }
+    
+    @GetMapping("/get/likesdesc/cursor")
+    public ResponseEntity<CursorPageDTO<PostsDTO>> getPostsByLikesDescByCursor(@RequestParam(required = false) String cursor,
+    @RequestParam( defaultValue = "5") int size) {
+        try {
+            return ResponseEntity.ok(postsService.findByLikesDescByCursor(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     @GetMapping("/get/likesdesc/role/{role}")
     public PagedModel<PostsDTO> getPostsByLikesDescFilteredByRole(@PathVariable String role,
     @RequestParam( defaultValue = "0") int page,
@@ -485,6 +552,35 @@ public class PostsController {
         return postsService.getPendingFeatureRequests(user.getUserName());
     }
     
+    @GetMapping("/pending-features/paged")
+    public PagedModel<PostsDTO> getPendingFeatureRequestsPaged(@RequestParam( defaultValue = "0") int page,
+    @RequestParam( defaultValue = "10") int size) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new RuntimeException("User not authenticated");
+        }
+        
+        String email = authentication.getName();
+        User user = userService.findByUsernameOrEmail(email)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        
+        return postsService.getPendingFeatureRequests(user.getUserName(), page, size);
+    }
+    
+    @GetMapping("/pending-features/count")
+    public long getPendingFeatureRequestCount() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new RuntimeException("User not authenticated");
+        }
+        
+        String email = authentication.getName();
+        User user = userService.findByUsernameOrEmail(email)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        
+        return postsService.countPendingFeatureRequests(user.getUserName());
+    }
+    
     /**
      * Validates file type based on user role
      * USER: only .mp3 files
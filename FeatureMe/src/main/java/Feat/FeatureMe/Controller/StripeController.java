@@ -84,7 +84,7 @@ public class StripeController {
             
             // Save customer ID to user
             user.setStripeCustomerId(customerId);
-            userService.saveUser(user);
+            userService.saveSubscription(user);
         }
         
         SessionCreateParams sessionParams = SessionCreateParams.builder()
@@ -152,7 +152,7 @@ public class StripeController {
             
             // Save customer ID to user
             user.setStripeCustomerId(customerId);
-            userService.saveUser(user);
+            userService.saveSubscription(user);
         }
         
         SessionCreateParams sessionParams = SessionCreateParams.builder()
@@ -220,7 +220,7 @@ public class StripeController {
                             // Update user role to USERPLUS
                             user.setRole("USERPLUS");
                             user.setSubscriptionStatus("active");
-                            userService.saveUser(user);
+                            userService.saveSubscription(user);
                             
                             System.out.println("✅ User " + user.getEmail() + " upgraded to USERPLUS! Invoice ID: " + invoice.getId());
                         } else {
@@ -260,7 +260,7 @@ public class StripeController {
                                 System.out.println("✅ User " + user.getEmail() + " subscription reactivated! Subscription ID: " + subscription.getId());
                             }
                             
-                            userService.saveUser(user);
+                            userService.saveSubscription(user);
                         }
                     }
                 }
@@ -280,7 +280,7 @@ public class StripeController {
                             // Downgrade user to free plan
                             user.setRole("USER");
                             user.setSubscriptionStatus("canceled");
-                            userService.saveUser(user);
+                            userService.saveSubscription(user);
                             
                             System.out.println("❌ User " + user.getEmail() + " downgraded to free plan! Subscription ID: " + subscription.getId());
                         }
@@ -304,7 +304,7 @@ public class StripeController {
                             user.setRole("USERPLUS");
                             user.setSubscriptionStatus("active");
                             user.setStripeSubscriptionId(subscriptionId);
-                            userService.saveUser(user);
+                            userService.saveSubscription(user);
                             
                             System.out.println("✅ User " + user.getEmail() + " subscription created! Session ID: " + session.getId());
                         }
@@ -501,7 +501,7 @@ public class StripeController {
                     // Subscription expired - downgrade user
                     user.setRole("USER");
                     user.setSubscriptionStatus("expired");
-                    userService.saveUser(user);
+                    userService.saveSubscription(user);
                     
                     Map<String, Object> result = new HashMap<>();
                     result.put("success", false);
@@ -522,7 +522,7 @@ public class StripeController {
                         }
                     }
                     
-                    userService.saveUser(user);
+                    userService.saveSubscription(user);
                     
                     Map<String, Object> result = new HashMap<>();
                     result.put("success", true);
@@ -788,7 +788,7 @@ public class StripeController {
                     // Subscription is active
                     user.setRole("USERPLUS");
                     user.setSubscriptionStatus("active");
-                    userService.saveUser(user);
+                    userService.saveSubscription(user);
                     System.out.println("✅ User " + user.getEmail() + " subscription active/renewed! Notification: " + notificationType);
                     break;
                     
@@ -796,14 +796,14 @@ public class StripeController {
                     // Subscription failed to renew (payment issue)
                     // Keep USERPLUS until expiration, but mark status
                     user.setSubscriptionStatus("payment_failed");
-                    userService.saveUser(user);
+                    userService.saveSubscription(user);
                     System.out.println("⚠️ User " + user.getEmail() + " subscription payment failed! Notification: " + notificationType);
                     break;
                     
                 case "DID_CANCEL":
                     // User canceled subscription - will expire at period end
                     user.setSubscriptionStatus("cancel_at_period_end");
-                    userService.saveUser(user);
+                    userService.saveSubscription(user);
                     System.out.println("⚠️ User " + user.getEmail() + " subscription canceled (will expire at period end)! Notification: " + notificationType);
                     break;
                     
@@ -811,7 +811,7 @@ public class StripeController {
                     // Subscription expired - downgrade user
                     user.setRole("USER");
                     user.setSubscriptionStatus("expired");
-                    userService.saveUser(user);
+                    userService.saveSubscription(user);
                     System.out.println("❌ User " + user.getEmail() + " subscription expired! Downgraded to USER. Notification: " + notificationType);
                     break;
                     
@@ -819,7 +819,7 @@ public class StripeController {
                     // Subscription refunded - downgrade immediately
                     user.setRole("USER");
                     user.setSubscriptionStatus("refunded");
-                    userService.saveUser(user);
+                    userService.saveSubscription(user);
                     System.out.println("❌ User " + user.getEmail() + " subscription refunded! Downgraded to USER. Notification: " + notificationType);
                     break;
                     
@@ -827,7 +827,7 @@ public class StripeController {
                     // Subscription revoked (family sharing removed, etc.) - downgrade
                     user.setRole("USER");
                     user.setSubscriptionStatus("revoked");
-                    userService.saveUser(user);
+                    userService.saveSubscription(user);
                     System.out.println("❌ User " + user.getEmail() + " subscription revoked! Downgraded to USER. Notification: " + notificationType);
                     break;
                     
@@ -835,14 +835,14 @@ public class StripeController {
                     // Grace period expired - downgrade
                     user.setRole("USER");
                     user.setSubscriptionStatus("grace_period_expired");
-                    userService.saveUser(user);
+                    userService.saveSubscription(user);
                     System.out.println("❌ User " + user.getEmail() + " grace period expired! Downgraded to USER. Notification: " + notificationType);
                     break;
                     
                 case "PRICE_INCREASE":
                     // Price increase - user needs to consent
                     user.setSubscriptionStatus("price_increase_consent_required");
-                    userService.saveUser(user);
+                    userService.saveSubscription(user);
                     System.out.println("⚠️ User " + user.getEmail() + " needs to consent to price increase! Notification: " + notificationType);
                     break;
                     
@@ -850,7 +850,7 @@ public class StripeController {
                     // Refund declined - reactivate subscription
                     user.setRole("USERPLUS");
                     user.setSubscriptionStatus("active");
-                    userService.saveUser(user);
+                    userService.saveSubscription(user);
                     System.out.println("✅ User " + user.getEmail() + " refund declined - subscription reactivated! Notification: " + notificationType);
                     break;
                     
@@ -6,10 +6,15 @@ import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
+import Feat.FeatureMe.Dto.CommentedOnDTO;
+import Feat.FeatureMe.Dto.CursorPageDTO;
 import Feat.FeatureMe.Dto.LoginDTO;
 import Feat.FeatureMe.Dto.NotificationsDTO;
+import Feat.FeatureMe.Dto.PostsDTO;
+import Feat.FeatureMe.Dto.UserAutocompleteDTO;
 import Feat.FeatureMe.Dto.UserDTO;
 import Feat.FeatureMe.Dto.UserPostsDTO;
+import Feat.FeatureMe.Dto.UserProfileDTO;
 import Feat.FeatureMe.Dto.UserSearchDTO;
 import Feat.FeatureMe.Entity.User;
 import Feat.FeatureMe.Service.JwtService;
@@ -356,7 +361,9 @@ public class UserController {
             // If no file upload but URL provided, use the URL
             userr.setBanner(userUpdateData.getBanner());
         }
-        userService.saveUser(userr);
+        // Uploaded (or provided) images go through the same partial update as the other fields
+        userUpdateData.setProfilePic(userr.getProfilePic());
+        userUpdateData.setBanner(userr.getBanner());
         userService.updateUser(userr.getId(), userUpdateData);
     }
     
@@ -375,6 +382,11 @@ public class UserController {
        return userService.getUserByNameEnhanced(userName, page, size);
     }
 
+    @GetMapping("/autocomplete")
+    public List<UserAutocompleteDTO> autocompleteUsers(@RequestParam String q, @RequestParam(defaultValue = "8") int limit) {
+        return userService.autocompleteUsers(q, Math.max(1, Math.min(limit, 20)));
+    }
+
     @GetMapping("/get/{userName}")
     public UserDTO getUserByUserName(@PathVariable String userName) {
         return userService.getAUser(userName);
@@ -383,6 +395,57 @@ public class UserController {
         public UserDTO getUserById(@PathVariable String id){
             return userService.getUserById(id);
         }
+
+    // Slim profile (header + counts); the lists are paged below
+    @GetMapping("/profile/{userName}")
+    public ResponseEntity<UserProfileDTO> getProfile(@PathVariable String userName) {
+        try {
+            return ResponseEntity.ok(userService.getProfile(userName));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Cursor-paged profile lists: pass back nextCursor from the previous response to get the next page
+    @GetMapping("/profile/{userName}/posts")
+    public ResponseEntity<CursorPageDTO<PostsDTO>> getProfilePosts(@PathVariable String userName,
+    @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "6") int size) {
+        try {
+            return ResponseEntity.ok(userService.getProfilePosts(userName, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/profile/{userName}/featured-on")
+    public ResponseEntity<CursorPageDTO<PostsDTO>> getProfileFeaturedOn(@PathVariable String userName,
+    @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "6") int size) {
+        try {
+            return ResponseEntity.ok(userService.getProfileFeaturedOn(userName, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/profile/{userName}/likes")
+    public ResponseEntity<CursorPageDTO<PostsDTO>> getProfileLikes(@PathVariable String userName,
+    @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "6") int size) {
+        try {
+            return ResponseEntity.ok(userService.getProfileLikes(userName, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/profile/{userName}/comments")
+    public ResponseEntity<CursorPageDTO<CommentedOnDTO>> getProfileComments(@PathVariable String userName,
+    @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(userService.getProfileComments(userName, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
     
     @DeleteMapping("/delete/{id}")
     public ResponseEntity<?> deleteUser(@PathVariable String id) {
@@ -443,11 +506,19 @@ public class UserController {
         
     }
 
+    // Catch-up on page load; new notifications are pushed to /user/queue/notifications after that
     @GetMapping("/get/notifications/{userName}")
     public List<NotificationsDTO> getMethodName(@PathVariable String userName) {
         return userService.getNoti(userName);
     }
 
+    @GetMapping("/get/notifications/{userName}/paged")
+    public PagedModel<NotificationsDTO> getNotificationsPaged(@PathVariable String userName,
+                                                              @RequestParam(defaultValue = "0") int page,
+                                                              @RequestParam(defaultValue = "20") int size) {
+        return userService.getNotiPaged(userName, page, size);
+    }
+
     @PostMapping("/notifications/clear")
     public ResponseEntity<?> clearMyNotifications() {
         try {
@@ -466,6 +537,43 @@ public class UserController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to clear notifications");
         }
     }
+
+    @GetMapping("/notifications/unread-count")
+    public ResponseEntity<?> getMyUnreadNotificationCount() {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication == null || !authentication.isAuthenticated()) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not authenticated");
+            }
+
+            String email = authentication.getName();
+            User user = userService.findByUsernameOrEmail(email)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+            return ResponseEntity.ok(Map.of("unread", userService.getUnreadNotificationCount(user.getUserName())));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to count notifications");
+        }
+    }
+
+    @PostMapping("/notifications/read")
+    public ResponseEntity<?> markMyNotificationsRead() {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication == null || !authentication.isAuthenticated()) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Not authenticated");
+            }
+
+            String email = authentication.getName();
+            User user = userService.findByUsernameOrEmail(email)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+            userService.markNotificationsRead(user.getUserName());
+            return ResponseEntity.ok().body("Notifications marked as read");
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to mark notifications as read");
+        }
+    }
     @PostMapping("/follow/{follower}/{following}")
     public String postMethodName(@PathVariable String follower, @PathVariable String following) {
         
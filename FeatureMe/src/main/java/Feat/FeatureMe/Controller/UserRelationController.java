@@ -1,5 +1,6 @@
 package Feat.FeatureMe.Controller;
 
+import Feat.FeatureMe.Dto.FriendSuggestionDTO;
 import Feat.FeatureMe.Dto.UserRelationDTO;
 import Feat.FeatureMe.Dto.UserRelationSummaryDTO;
 import Feat.FeatureMe.Entity.User;
@@ -132,7 +133,7 @@ public class UserRelationController {
      * Get friend suggestions for current user
      */
     @GetMapping("/suggestions")
-    public ResponseEntity<List<UserRelationDTO>> getFriendSuggestions(
+    public ResponseEntity<List<FriendSuggestionDTO>> getFriendSuggestions(
             @RequestParam(defaultValue = "10") int limit) {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -144,7 +145,7 @@ public class UserRelationController {
             User currentUser = userService.findByUsernameOrEmail(email)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
             
-            List<UserRelationDTO> suggestions = userRelationService.getFriendSuggestions(currentUser.getUserName(), limit);
+            List<FriendSuggestionDTO> suggestions = userRelationService.getFriendSuggestions(currentUser.getUserName(), limit);
             return ResponseEntity.ok(suggestions);
             
         } catch (Exception e) {
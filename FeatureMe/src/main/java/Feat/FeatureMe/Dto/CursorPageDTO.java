@@ -0,0 +1,11 @@
+package Feat.FeatureMe.Dto;
+
+import java.util.List;
+
+public record CursorPageDTO<T>(
+    List<T> content,
+    String nextCursor,   // Opaque token for the next page, null when there are no more results
+    boolean hasNext
+) {
+    
+}
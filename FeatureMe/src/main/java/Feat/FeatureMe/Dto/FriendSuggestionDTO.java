@@ -0,0 +1,10 @@
+package Feat.FeatureMe.Dto;
+
+public record FriendSuggestionDTO(
+    String id,           // The suggested user's id
+    String userName,
+    String profilePic,
+    int mutualCount      // How many of the people you follow already follow them
+) {
+
+}
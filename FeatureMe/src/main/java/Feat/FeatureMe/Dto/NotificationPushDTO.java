@@ -0,0 +1,14 @@
+package Feat.FeatureMe.Dto;
+
+import java.util.List;
+
+/**
+ * Pushed to /user/queue/notifications after a change: the recipient's newest notifications
+ * (same as /get/notifications) and their unread count
+ */
+public record NotificationPushDTO(
+        List<NotificationsDTO> notifications,
+        long unread
+) {
+
+}
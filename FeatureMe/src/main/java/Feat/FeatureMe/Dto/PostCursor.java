@@ -0,0 +1,49 @@
+package Feat.FeatureMe.Dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import Feat.FeatureMe.Entity.Posts;
+
+/**
+ * Keyset position in a post feed: (time, _id) for time-sorted feeds or
+ * (totalLikes, time, _id) for likes-sorted feeds.
+ * Sent to clients as an opaque base64url token.
+ */
+public record PostCursor(
+    Integer totalLikes,  // null for time-sorted feeds
+    Instant time,
+    String id
+) {
+
+    public static PostCursor of(Posts post, boolean byLikes) {
+        return new PostCursor(byLikes ? post.getTotalLikes() : null, post.getTime(), post.getId());
+    }
+
+    public String encode() {
+        String raw = (totalLikes != null ? totalLikes.toString() : "") + "|" + time.toEpochMilli() + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a client token; returns null for a missing token (first page)
+     */
+    public static PostCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            if (parts.length != 3 || parts[2].isEmpty()) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            Integer likes = parts[0].isEmpty() ? null : Integer.valueOf(parts[0]);
+            return new PostCursor(likes, Instant.ofEpochMilli(Long.parseLong(parts[1])), parts[2]);
+        } catch (IllegalArgumentException e) {
+            // Covers bad base64 and NumberFormatException
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
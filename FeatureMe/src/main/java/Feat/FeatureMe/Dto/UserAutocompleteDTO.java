@@ -0,0 +1,11 @@
+package Feat.FeatureMe.Dto;
+
+public record UserAutocompleteDTO(
+    String id,
+    String userName,
+    String profilePic,
+    String role,
+    int followersCount
+) {
+
+}
@@ -25,4 +25,8 @@ public record UserDTO(
         
 ) {
 
+    public UserDTO withNotifications(List<NotificationsDTO> notifications) {
+        return new UserDTO(id, userName, profilePic, banner, role, bio, about, demo, location, socialMedia,
+            badges, featuredOn, posts, chats, likedPosts, comments, notifications, followersCount, followingCount);
+    }
 }
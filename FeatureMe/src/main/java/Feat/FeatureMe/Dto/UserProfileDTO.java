@@ -0,0 +1,29 @@
+package Feat.FeatureMe.Dto;
+
+import java.util.List;
+
+/**
+ * Profile header: everything about the user that doesn't grow with their history, plus the
+ * sizes of the lists that do. The lists themselves are paged separately (/api/user/profile/{userName}/...).
+ */
+public record UserProfileDTO(
+        String id,
+        String userName,
+        String profilePic,
+        String banner,
+        String role,
+        String bio,
+        String about,
+        List<String> demo,
+        String location,
+        List<String> socialMedia,
+        List<String> badges,
+        int followersCount,
+        int followingCount,
+        long postsCount,
+        long featuredOnCount,
+        long likedPostsCount,
+        long commentsCount
+) {
+
+}
@@ -0,0 +1,97 @@
+package Feat.FeatureMe.Entity;
+
+/**
+ * Denormalized copy of the author's public profile fields, embedded in each post
+ * so feed reads never need to resolve the author DBRef.
+ * Kept in sync by AuthorSnapshotService when the author's profile changes.
+ */
+public class AuthorSnapshot {
+
+    private String id;
+    private String userName;
+    private String profilePic;
+    private String banner;
+    private String role;
+    private String location;
+    private String bio;
+
+    public AuthorSnapshot() { }
+
+    public AuthorSnapshot(String id, String userName, String profilePic, String banner, String role, String location, String bio) {
+        this.id = id;
+        this.userName = userName;
+        this.profilePic = profilePic;
+        this.banner = banner;
+        this.role = role;
+        this.location = location;
+        this.bio = bio;
+    }
+
+    public static AuthorSnapshot from(User user) {
+        return new AuthorSnapshot(
+            user.getId(),
+            user.getUserName(),
+            user.getProfilePic(),
+            user.getBanner(),
+            user.getRole(),
+            user.getLocation(),
+            user.getBio()
+        );
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public void setUserName(String userName) {
+        this.userName = userName;
+    }
+
+    public String getProfilePic() {
+        return profilePic;
+    }
+
+    public void setProfilePic(String profilePic) {
+        this.profilePic = profilePic;
+    }
+
+    public String getBanner() {
+        return banner;
+    }
+
+    public void setBanner(String banner) {
+        this.banner = banner;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public String getBio() {
+        return bio;
+    }
+
+    public void setBio(String bio) {
+        this.bio = bio;
+    }
+}
@@ -0,0 +1,169 @@
+package Feat.FeatureMe.Entity;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import Feat.FeatureMe.Dto.NotificationsDTO;
+
+@Document(collection = "notifications")
+@CompoundIndexes({
+    @CompoundIndex(name = "recipient_time_idx", def = "{'recipient': 1, 'time': -1}"),
+    @CompoundIndex(name = "recipient_ref_idx", def = "{'recipient': 1, 'refId': 1}"),
+    @CompoundIndex(name = "aggregate_bucket_idx", def = "{'recipient': 1, 'refId': 1, 'noti': 1, 'bucket': 1}",
+                   unique = true, partialFilter = "{'bucket': {'$exists': true}}")
+})
+public class Notification {
+
+    @Id
+    private String id;
+
+    private String recipient;     // User the notification is for
+    private String refId;         // Post or chat the notification is about
+    private String actor;         // User who triggered it ("System" for automatic ones)
+    private String noti;
+    private Instant time;
+    private NotificationsDTO.NotiType notiType;
+    private boolean read;         // Set once the recipient has opened their notifications
+    private List<String> actors;  // Aggregates only: the most recent likers/commenters in the window, in order (capped)
+    private Integer actorCount;   // Aggregates only: likes/comments in the window, including those no longer in actors
+    private List<String> recentEventIds; // Aggregates only: events merged in lately, so a retried batch isn't counted twice
+    private Instant windowStart;  // Aggregates only: when the coalescing window opened
+    private Long bucket;          // Aggregates only: time / coalescing window, unique per (recipient, refId, noti)
+
+    public Notification() {}
+
+    public Notification(String recipient, String refId, String actor, String noti, Instant time, NotificationsDTO.NotiType notiType) {
+        this.recipient = recipient;
+        this.refId = refId;
+        this.actor = actor;
+        this.noti = noti;
+        this.time = time;
+        this.notiType = notiType;
+    }
+
+    public NotificationsDTO toDTO() {
+        int count = actorCount != null ? actorCount : (actors != null ? actors.size() : 0);
+        if (actors == null || actors.isEmpty()) {
+            if (count > 0) {
+                // Everyone still listed took their like/comment back, but older ones remain
+                return new NotificationsDTO(refId, null, count + (count == 1 ? " person " : " people ") + noti.toLowerCase(Locale.ROOT), time, notiType);
+            }
+            return new NotificationsDTO(refId, actor, noti, time, notiType);
+        }
+        // Newest actor first: "alice" + "and 14 others liked your post!"
+        int others = Math.max(count, actors.size()) - 1;
+        String text = others == 0 ? noti
+            : "and " + others + (others == 1 ? " other " : " others ") + noti.toLowerCase(Locale.ROOT);
+        return new NotificationsDTO(refId, actors.get(actors.size() - 1), text, time, notiType);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public void setRecipient(String recipient) {
+        this.recipient = recipient;
+    }
+
+    public String getRefId() {
+        return refId;
+    }
+
+    public void setRefId(String refId) {
+        this.refId = refId;
+    }
+
+    public String getActor() {
+        return actor;
+    }
+
+    public void setActor(String actor) {
+        this.actor = actor;
+    }
+
+    public String getNoti() {
+        return noti;
+    }
+
+    public void setNoti(String noti) {
+        this.noti = noti;
+    }
+
+    public Instant getTime() {
+        return time;
+    }
+
+    public void setTime(Instant time) {
+        this.time = time;
+    }
+
+    public NotificationsDTO.NotiType getNotiType() {
+        return notiType;
+    }
+
+    public void setNotiType(NotificationsDTO.NotiType notiType) {
+        this.notiType = notiType;
+    }
+
+    public boolean isRead() {
+        return read;
+    }
+
+    public void setRead(boolean read) {
+        this.read = read;
+    }
+
+    public List<String> getActors() {
+        return actors;
+    }
+
+    public void setActors(List<String> actors) {
+        this.actors = actors;
+    }
+
+    public Integer getActorCount() {
+        return actorCount;
+    }
+
+    public void setActorCount(Integer actorCount) {
+        this.actorCount = actorCount;
+    }
+
+    public List<String> getRecentEventIds() {
+        return recentEventIds;
+    }
+
+    public void setRecentEventIds(List<String> recentEventIds) {
+        this.recentEventIds = recentEventIds;
+    }
+
+    public Instant getWindowStart() {
+        return windowStart;
+    }
+
+    public void setWindowStart(Instant windowStart) {
+        this.windowStart = windowStart;
+    }
+
+    public Long getBucket() {
+        return bucket;
+    }
+
+    public void setBucket(Long bucket) {
+        this.bucket = bucket;
+    }
+}
@@ -11,7 +11,7 @@ import org.springframework.data.mongodb.core.index.CompoundIndexes;
 @Document(collection = "post_comments")
 @CompoundIndexes({
     @CompoundIndex(name = "post_time_idx", def = "{'postId': 1, 'time': -1}"),
-    @CompoundIndex(name = "user_time_idx", def = "{'userName': 1, 'time': -1}")
+    @CompoundIndex(name = "user_time_id_idx", def = "{'userName': 1, 'time': -1, '_id': -1}")
 })
 public class PostComment {
     
@@ -6,9 +6,13 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 
 @Document(collection = "post_likes")
-@CompoundIndex(def = "{'postId': 1, 'userName': 1}", unique = true)
+@CompoundIndexes({
+    @CompoundIndex(def = "{'postId': 1, 'userName': 1}", unique = true),
+    @CompoundIndex(name = "user_liked_time_id_idx", def = "{'userName': 1, 'likedAt': -1, '_id': -1}")
+})
 public class PostLike {
     
     @Id
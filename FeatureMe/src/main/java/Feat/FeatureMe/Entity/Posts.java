@@ -17,8 +17,14 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 @CompoundIndexes({
     @CompoundIndex(name = "status_time_idx", def = "{'status': 1, 'time': -1}"),
     @CompoundIndex(name = "status_likes_time_idx", def = "{'status': 1, 'totalLikes': -1, 'time': -1}"),
+    @CompoundIndex(name = "status_time_id_idx", def = "{'status': 1, 'time': -1, '_id': -1}"),
+    @CompoundIndex(name = "status_likes_time_id_idx", def = "{'status': 1, 'totalLikes': -1, 'time': -1, '_id': -1}"),
+    @CompoundIndex(name = "status_role_likes_time_idx", def = "{'status': 1, 'authorSnapshot.role': 1, 'totalLikes': -1, 'time': -1}"),
+    @CompoundIndex(name = "status_trending_idx", def = "{'status': 1, 'trendingScore': -1}"),
     @CompoundIndex(name = "genre_status_time_idx", def = "{'genre': 1, 'status': 1, 'time': -1}"),
-    @CompoundIndex(name = "author_status_time_idx", def = "{'author.$id': 1, 'status': 1, 'time': -1}")
+    @CompoundIndex(name = "author_status_time_idx", def = "{'author.$id': 1, 'status': 1, 'time': -1}"),
+    @CompoundIndex(name = "author_time_id_idx", def = "{'author.$id': 1, 'time': -1, '_id': -1}"),
+    @CompoundIndex(name = "features_time_id_idx", def = "{'features': 1, 'time': -1, '_id': -1}")
 })
 public class Posts {
 
@@ -29,6 +35,9 @@ public class Posts {
     @JsonIgnore
     private User author;
     
+    // Embedded copy of the author's profile fields so feed reads don't resolve the DBRef
+    private AuthorSnapshot authorSnapshot;
+    
     private String title;
     private String description;
     @Indexed
@@ -57,12 +66,17 @@ public class Posts {
     private int totalComments = 0;
     // Keep totalDownloads as cached field for performance (will be calculated from PostDownload collection)
     private int totalDownloads = 0;
+    // Time-decayed engagement score for the trending feed (maintained by TrendingScoreService)
+    private double trendingScore = 0;
+    // Epoch (epoch millis) that trendingScore is relative to
+    private Long trendingEpoch;
 
     public Posts() { }
 
     public Posts(String id, User author, String title, String description, List<String> features, double price, List<String> genre, String music, Instant time, int totalViews, boolean freeDownload) {
         this.id = id;
         this.author = author;
+        this.authorSnapshot = author != null ? AuthorSnapshot.from(author) : null;
         this.title = title;
         this.description = description;
         this.features = features;
@@ -81,6 +95,7 @@ public class Posts {
     public Posts(String id, User author, String title, String description, List<String> features, double price, List<String> genre, String music, Instant time, int totalViews, int totalLikes, boolean freeDownload) {
         this.id = id;
         this.author = author;
+        this.authorSnapshot = author != null ? AuthorSnapshot.from(author) : null;
         this.title = title;
         this.description = description;
         this.features = features;
@@ -112,6 +127,14 @@ public class Posts {
         this.author = author;
     }
 
+    public AuthorSnapshot getAuthorSnapshot() {
+        return authorSnapshot;
+    }
+
+    public void setAuthorSnapshot(AuthorSnapshot authorSnapshot) {
+        this.authorSnapshot = authorSnapshot;
+    }
+
     public String getTitle() {
         return title;
     }
@@ -200,6 +223,22 @@ public class Posts {
     public void setTotalDownloads(int totalDownloads) {
         this.totalDownloads = totalDownloads;
     }
+
+    public double getTrendingScore() {
+        return trendingScore;
+    }
+
+    public void setTrendingScore(double trendingScore) {
+        this.trendingScore = trendingScore;
+    }
+
+    public Long getTrendingEpoch() {
+        return trendingEpoch;
+    }
+
+    public void setTrendingEpoch(Long trendingEpoch) {
+        this.trendingEpoch = trendingEpoch;
+    }
     
     public List<String> getPendingFeatures() {
         return pendingFeatures;
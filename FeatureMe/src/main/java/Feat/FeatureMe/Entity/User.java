@@ -6,6 +6,7 @@ import java.util.List;
 
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.ReadOnlyProperty;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.CompoundIndexes;
@@ -60,15 +61,21 @@ public class User implements UserDetails{
     private List<String> badges;
     private List<String> demo;
     
-    @Indexed
+    // Legacy: posts, features, likes, comments and chat membership are read from their own
+    // collections (UserActivityService), which strips these arrays at startup. Never written back.
+    @ReadOnlyProperty
     private List<String> featuredOn;
-    @Indexed
+    @ReadOnlyProperty
     private List<String> likedPosts;
-    @Indexed
+    @ReadOnlyProperty
     private List<String> posts;
-    @Indexed
+    @ReadOnlyProperty
     private List<String> chats;
+    // Legacy: notifications now live in the notifications collection. Only read by the
+    // startup migration in NotificationService, never written back.
+    @ReadOnlyProperty
     private List<NotificationsDTO> notifications;
+    @ReadOnlyProperty
     private List<CommentedOnDTO> comments;
     @CreatedDate
     @Indexed
@@ -16,6 +16,9 @@ public interface ChatsRepository extends MongoRepository<Chats, String> {
     
     List<Chats> findAllByChatRoomIdIn(List<String> ids);
     
+    // Chat rooms a user is a member of (users index)
+    List<Chats> findByUsers(String userName);
+    
     // Remove a user from all chat rooms they're part of
     @Query("{ 'users': ?0 }")
     @Update("{ $pull: { 'users': ?0 } }")
@@ -0,0 +1,26 @@
+package Feat.FeatureMe.Repository;
+
+import Feat.FeatureMe.Entity.Notification;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface NotificationRepository extends MongoRepository<Notification, String> {
+
+    // A user's notifications, newest first (recipient_time_idx)
+    Page<Notification> findByRecipientOrderByTimeDesc(String recipient, Pageable pageable);
+
+    List<Notification> findTop30ByRecipientOrderByTimeDesc(String recipient);
+
+    // Undo a notification (unlike, deleted comment, unfollow)
+    void deleteByRecipientAndRefIdAndActorAndNoti(String recipient, String refId, String actor, String noti);
+
+    // Drop everything a user was notified about for a post (e.g. the post was deleted)
+    void deleteByRecipientAndRefId(String recipient, String refId);
+
+    void deleteByRecipient(String recipient);
+}
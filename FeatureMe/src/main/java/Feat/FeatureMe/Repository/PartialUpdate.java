@@ -0,0 +1,122 @@
+package Feat.FeatureMe.Repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+
+import Feat.FeatureMe.Entity.Posts;
+import Feat.FeatureMe.Entity.User;
+
+/**
+ * Field-level changes to one document ($set, $inc, $push, $addToSet, $pull), applied as a
+ * single MongoTemplate update instead of loading the whole document, changing it and saving it back.
+ *
+ * Only the touched fields go over the wire, and concurrent updates to different fields
+ * (or list operations on the same list) no longer overwrite each other.
+ * Fields are declared with their value type in UserFields / PostFields, so
+ * push(UserFields.DEMO, someComment) doesn't compile.
+ *
+ * Optional preconditions (requireContains, requireEmpty, ...) make the update conditional;
+ * the repository reports whether a document matched.
+ */
+public final class PartialUpdate<E> {
+
+    // A scalar field of E holding a V
+    public record Field<E, V>(String path) { }
+
+    // A list field of E whose elements are V
+    public record ListField<E, V>(String path) { }
+
+    // A numeric field of E
+    public record Counter<E>(String path) { }
+
+    private final Update update = new Update();
+    private final List<Criteria> conditions = new ArrayList<>();
+    private final Set<String> paths = new LinkedHashSet<>();
+
+    private PartialUpdate() { }
+
+    public static PartialUpdate<User> user() {
+        return new PartialUpdate<>();
+    }
+
+    public static PartialUpdate<Posts> post() {
+        return new PartialUpdate<>();
+    }
+
+    public <V> PartialUpdate<E> set(Field<E, V> field, V value) {
+        update.set(touch(field.path()), value);
+        return this;
+    }
+
+    // Replace the whole list
+    public <V> PartialUpdate<E> setAll(ListField<E, V> field, List<V> values) {
+        update.set(touch(field.path()), values);
+        return this;
+    }
+
+    public PartialUpdate<E> inc(Counter<E> field, Number delta) {
+        update.inc(touch(field.path()), delta);
+        return this;
+    }
+
+    public <V> PartialUpdate<E> push(ListField<E, V> field, V value) {
+        update.push(touch(field.path()), value);
+        return this;
+    }
+
+    public <V> PartialUpdate<E> addToSet(ListField<E, V> field, V value) {
+        update.addToSet(touch(field.path()), value);
+        return this;
+    }
+
+    public <V> PartialUpdate<E> pull(ListField<E, V> field, V value) {
+        update.pull(touch(field.path()), value);
+        return this;
+    }
+
+    public <V> PartialUpdate<E> requireContains(ListField<E, V> field, V value) {
+        conditions.add(Criteria.where(field.path()).is(value));
+        return this;
+    }
+
+    public PartialUpdate<E> requireEmpty(ListField<E, ?> field) {
+        conditions.add(Criteria.where(field.path()).size(0));
+        return this;
+    }
+
+    public <V> PartialUpdate<E> requireNot(Field<E, V> field, V value) {
+        conditions.add(Criteria.where(field.path()).ne(value));
+        return this;
+    }
+
+    public PartialUpdate<E> requireAtLeast(Counter<E> field, Number min) {
+        conditions.add(Criteria.where(field.path()).gte(min));
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return paths.isEmpty();
+    }
+
+    public boolean touches(Field<E, ?> field) {
+        return paths.contains(field.path());
+    }
+
+    public Update toUpdate() {
+        return update;
+    }
+
+    public List<Criteria> conditions() {
+        return conditions;
+    }
+
+    private String touch(String path) {
+        paths.add(path);
+        return path;
+    }
+}
@@ -0,0 +1,26 @@
+package Feat.FeatureMe.Repository;
+
+import java.time.Instant;
+
+import Feat.FeatureMe.Entity.Posts;
+import Feat.FeatureMe.Repository.PartialUpdate.Field;
+import Feat.FeatureMe.Repository.PartialUpdate.ListField;
+
+/**
+ * Posts fields that are changed with PartialUpdate
+ */
+public final class PostFields {
+
+    public static final Field<Posts, String> TITLE = new Field<>("title");
+    public static final Field<Posts, String> DESCRIPTION = new Field<>("description");
+    public static final Field<Posts, Double> PRICE = new Field<>("price");
+    public static final Field<Posts, String> MUSIC = new Field<>("music");
+    public static final Field<Posts, Instant> TIME = new Field<>("time");
+    public static final Field<Posts, String> STATUS = new Field<>("status");
+
+    public static final ListField<Posts, String> FEATURES = new ListField<>("features");
+    public static final ListField<Posts, String> PENDING_FEATURES = new ListField<>("pendingFeatures");
+    public static final ListField<Posts, String> GENRE = new ListField<>("genre");
+
+    private PostFields() { }
+}
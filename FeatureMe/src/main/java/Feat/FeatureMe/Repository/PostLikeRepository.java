@@ -40,6 +40,9 @@ public interface PostLikeRepository extends MongoRepository<PostLike, String> {
     // Delete a specific like (for unlike functionality)
     void deleteByPostIdAndUserName(String postId, String userName);
     
+    // Delete all of a user's likes (account deletion)
+    void deleteByUserName(String userName);
+    
     // Check if a user has already liked a post
     boolean existsByPostIdAndUserName(String postId, String userName);
 }
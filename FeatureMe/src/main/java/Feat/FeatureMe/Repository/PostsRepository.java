@@ -14,7 +14,7 @@ import org.springframework.data.mongodb.repository.Update;
 
 
 
-public interface PostsRepository extends MongoRepository<Posts, String> {
+public interface PostsRepository extends MongoRepository<Posts, String>, PostsRepositoryCustom {
     
     List<PostsDTO> findByTitleStartingWithIgnoreCase(String title);
     List<Posts>  findByFeatures(String features);
@@ -25,7 +25,6 @@ public interface PostsRepository extends MongoRepository<Posts, String> {
     List<Posts> findAllByFeatures(String features);
     Page<Posts> findAllByOrderByTimeDesc(Pageable pageable);
     Page<Posts> findAllById(Pageable pageable);
-    Page<Posts> findAllByIdIn(List<String> ids, Pageable pageable);
     
     // Method to find posts by ID list sorted by time descending
     @Query("{ '_id': { $in: ?0 } }")
@@ -64,24 +63,33 @@ public interface PostsRepository extends MongoRepository<Posts, String> {
     @Query("{ 'genre': { $all: ?0 } }")
     Page<Posts> findMostRecentPostsByGenre(List<String> genres, Pageable pageable);
     
+    // Feature requests awaiting a user's approval (matches the pendingFeatures array via pending_features_idx)
+    List<Posts> findByPendingFeaturesOrderByTimeDesc(String userName);
+    Page<Posts> findByPendingFeaturesOrderByTimeDesc(String userName, Pageable pageable);
+    long countByPendingFeatures(String userName);
+    
     // Methods to filter by status (for feature approval system)
     Page<Posts> findByStatusOrderByTimeDesc(String status, Pageable pageable);
     List<Posts> findByStatus(String status);
     
-    // Search methods with status filter
-    @Query("{ $and: [ { 'status': ?1 }, { $or: [ { 'title': { $regex: ?0, $options: 'i' } }, { 'description': { $regex: ?0, $options: 'i' } } ] } ] }")
-    Page<Posts> findByTitleOrDescriptionContainingIgnoreCaseAndStatus(String searchTerm, String status, Pageable pageable);
-    
+    // Search methods with status filter (text search lives in PostsRepositoryCustom.searchPublished)
     @Query("{ $and: [ { 'status': ?1 }, { 'genre': { $in: ?0 } } ] }")
     Page<Posts> findByGenreInAndStatus(List<String> genres, String status, Pageable pageable);
     
-    @Query("{ $and: [ { 'status': ?2 }, { $and: [ { $or: [ { 'title': { $regex: ?0, $options: 'i' } }, { 'description': { $regex: ?0, $options: 'i' } } ] }, { 'genre': { $all: ?1 } } ] } ] }")
-    Page<Posts> findByTitleOrDescriptionAndGenreInAndStatus(String searchTerm, List<String> genres, String status, Pageable pageable);
-    
     // Most liked posts with status filter
     @Query("{ 'status': ?0 }")
     Page<Posts> findByStatusOrderByTotalLikesDescTimeDesc(String status, Pageable pageable);
     
+    // Most liked posts by author role (role is denormalized in the embedded author snapshot)
+    Page<Posts> findByStatusAndAuthorSnapshotRoleOrderByTotalLikesDescTimeDesc(String status, String role, Pageable pageable);
+    
+    // Trending feed (time-decayed engagement score, see TrendingScoreService)
+    Page<Posts> findByStatusOrderByTrendingScoreDesc(String status, Pageable pageable);
+    
+    // Ids of the posts a user is featured on
+    @Query(value = "{ 'features': ?0 }", fields = "{ '_id': 1 }")
+    List<Posts> findIdsByFeatures(String userName);
+    
     // Remove a user from all posts' features lists
     @Query("{ 'features': ?0 }")
     @Update("{ $pull: { 'features': ?0 } }")
@@ -0,0 +1,31 @@
+package Feat.FeatureMe.Repository;
+
+import java.util.List;
+
+import org.bson.Document;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import Feat.FeatureMe.Dto.PostCursor;
+import Feat.FeatureMe.Entity.Posts;
+
+public interface PostsRepositoryCustom {
+    
+    // Keyset (cursor) page of posts with optional text/genre filters, sorted by time or by likes
+    List<Posts> findByStatusAfterCursor(String status, String searchTerm, List<String> genres,
+                                        boolean sortByLikes, PostCursor after, int limit);
+    
+    // Full-text search over published posts (posts_text_idx); sortBy is "time", "likes" or "relevance"
+    Page<Posts> searchPublished(String searchTerm, List<String> genres, String sortBy, Pageable pageable);
+    
+    // Atomic increment of a cached counter (totalLikes, totalComments, ...) and the trending score, given as
+    // TrendingScoreService.increment fields; returns the updated post (null if it doesn't exist)
+    Posts incrementCounter(String postId, String counterField, int delta, Document trendingIncrement);
+    
+    // Atomic increment of the trending score alone; returns the updated post (null if it doesn't exist)
+    Posts addTrendingScore(String postId, Document trendingIncrement);
+    
+    // Field-level changes to one post; returns the updated post (null if none matched: missing, or a precondition failed)
+    Posts updatePost(String postId, PartialUpdate<Posts> update);
+}
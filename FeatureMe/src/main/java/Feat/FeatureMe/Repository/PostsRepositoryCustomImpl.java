@@ -0,0 +1,155 @@
+package Feat.FeatureMe.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+
+import Feat.FeatureMe.Dto.PostCursor;
+import Feat.FeatureMe.Entity.Posts;
+
+/**
+ * Custom post queries: keyset pagination, full-text search, atomic counters and partial updates.
+ *
+ * Keyset pagination:
+ * Instead of skipping over (page * size) entries, each page seeks directly past the
+ * last post of the previous page using the status_time_id_idx / status_likes_time_id_idx
+ * indexes, so the cost per page stays constant however deep the client scrolls.
+ */
+public class PostsRepositoryCustomImpl implements PostsRepositoryCustom {
+    
+    private final MongoTemplate mongoTemplate;
+    
+    public PostsRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+    
+    @Override
+    public List<Posts> findByStatusAfterCursor(String status, String searchTerm, List<String> genres,
+                                               boolean sortByLikes, PostCursor after, int limit) {
+        List<Criteria> filters = searchFilters(status, searchTerm, genres);
+        if (after != null) {
+            filters.add(sortByLikes ? afterLikesCursor(after) : afterTimeCursor(after));
+        }
+        
+        Query query = textQuery(searchTerm);
+        query.addCriteria(new Criteria().andOperator(filters));
+        query.with(sortByLikes
+            ? Sort.by(Sort.Direction.DESC, "totalLikes", "time", "_id")
+            : Sort.by(Sort.Direction.DESC, "time", "_id"));
+        query.limit(limit);
+        
+        return mongoTemplate.find(query, Posts.class);
+    }
+    
+    @Override
+    public Page<Posts> searchPublished(String searchTerm, List<String> genres, String sortBy, Pageable pageable) {
+        boolean hasSearch = searchTerm != null && !searchTerm.trim().isEmpty();
+        
+        Query query = textQuery(searchTerm);
+        query.addCriteria(new Criteria().andOperator(searchFilters("PUBLISHED", searchTerm, genres)));
+        // Count before paging/sorting is applied
+        long total = mongoTemplate.count(query, Posts.class);
+        
+        if ("likes".equalsIgnoreCase(sortBy)) {
+            query.with(Sort.by(Sort.Direction.DESC, "totalLikes", "time"));
+        } else if ("relevance".equalsIgnoreCase(sortBy) && hasSearch) {
+            ((TextQuery) query).sortByScore();
+            query.with(Sort.by(Sort.Direction.DESC, "time"));
+        } else {
+            query.with(Sort.by(Sort.Direction.DESC, "time"));
+        }
+        query.with(pageable);
+        
+        return new PageImpl<>(mongoTemplate.find(query, Posts.class), pageable, total);
+    }
+    
+    @Override
+    public Posts incrementCounter(String postId, String counterField, int delta, Document trendingIncrement) {
+        Document fields = new Document(counterField, new Document("$add", List.of(new Document("$ifNull", List.of("$" + counterField, 0)), delta)));
+        fields.putAll(trendingIncrement);
+        return setWithPipeline(postId, fields);
+    }
+    
+    @Override
+    public Posts addTrendingScore(String postId, Document trendingIncrement) {
+        return setWithPipeline(postId, new Document(trendingIncrement));
+    }
+    
+    // The trending increment reads the post's own trendingEpoch, so these are pipeline updates rather than $inc
+    private Posts setWithPipeline(String postId, Document fields) {
+        AggregationOperation set = context -> new Document("$set", fields);
+        return mongoTemplate.findAndModify(
+            new Query(Criteria.where("_id").is(postId)),
+            AggregationUpdate.from(List.of(set)),
+            FindAndModifyOptions.options().returnNew(true),
+            Posts.class
+        );
+    }
+    
+    @Override
+    public Posts updatePost(String postId, PartialUpdate<Posts> update) {
+        Query query = new Query(Criteria.where("_id").is(postId));
+        update.conditions().forEach(query::addCriteria);
+        return mongoTemplate.findAndModify(query, update.toUpdate(), FindAndModifyOptions.options().returnNew(true), Posts.class);
+    }
+    
+    /**
+     * $text query over the weighted posts_text_idx (title, description), or a plain query when there is no term
+     */
+    private Query textQuery(String searchTerm) {
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            return new Query();
+        }
+        return TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(searchTerm.trim()));
+    }
+    
+    // Status and genre filters, same semantics as PostsService.searchPosts: ALL genres with a term, ANY genre without
+    private List<Criteria> searchFilters(String status, String searchTerm, List<String> genres) {
+        List<Criteria> filters = new ArrayList<>();
+        filters.add(Criteria.where("status").is(status));
+        
+        boolean hasSearch = searchTerm != null && !searchTerm.trim().isEmpty();
+        if (genres != null && !genres.isEmpty()) {
+            filters.add(hasSearch ? Criteria.where("genre").all(genres) : Criteria.where("genre").in(genres));
+        }
+        return filters;
+    }
+    
+    // (time, _id) < (cursor.time, cursor.id)
+    private Criteria afterTimeCursor(PostCursor after) {
+        return new Criteria().orOperator(
+            Criteria.where("time").lt(after.time()),
+            Criteria.where("time").is(after.time()).and("_id").lt(toId(after.id()))
+        );
+    }
+    
+    // (totalLikes, time, _id) < (cursor.totalLikes, cursor.time, cursor.id)
+    private Criteria afterLikesCursor(PostCursor after) {
+        if (after.totalLikes() == null) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return new Criteria().orOperator(
+            Criteria.where("totalLikes").lt(after.totalLikes()),
+            Criteria.where("totalLikes").is(after.totalLikes()).and("time").lt(after.time()),
+            Criteria.where("totalLikes").is(after.totalLikes()).and("time").is(after.time()).and("_id").lt(toId(after.id()))
+        );
+    }
+    
+    private Object toId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
@@ -0,0 +1,36 @@
+package Feat.FeatureMe.Repository;
+
+import Feat.FeatureMe.Entity.User;
+import Feat.FeatureMe.Repository.PartialUpdate.Counter;
+import Feat.FeatureMe.Repository.PartialUpdate.Field;
+import Feat.FeatureMe.Repository.PartialUpdate.ListField;
+
+/**
+ * User fields that are changed with PartialUpdate
+ */
+public final class UserFields {
+
+    public static final ListField<User, String> DEMO = new ListField<>("demo");
+
+    public static final Counter<User> FOLLOWERS_COUNT = new Counter<>("followersCount");
+    public static final Counter<User> FOLLOWING_COUNT = new Counter<>("followingCount");
+
+    public static final Field<User, String> USER_NAME = new Field<>("userName");
+    public static final Field<User, String> PASSWORD = new Field<>("password");
+    public static final Field<User, String> EMAIL = new Field<>("email");
+    public static final Field<User, String> BIO = new Field<>("bio");
+    public static final Field<User, String> ABOUT = new Field<>("about");
+    public static final Field<User, String> PROFILE_PIC = new Field<>("profilePic");
+    public static final Field<User, String> BANNER = new Field<>("banner");
+    public static final Field<User, String> LOCATION = new Field<>("location");
+    public static final ListField<User, String> SOCIAL_MEDIA = new ListField<>("socialMedia");
+    public static final ListField<User, String> BADGES = new ListField<>("badges");
+
+    public static final Field<User, String> ROLE = new Field<>("role");
+    public static final Field<User, String> SUBSCRIPTION_STATUS = new Field<>("subscriptionStatus");
+    public static final Field<User, String> STRIPE_CUSTOMER_ID = new Field<>("stripeCustomerId");
+    public static final Field<User, String> STRIPE_SUBSCRIPTION_ID = new Field<>("stripeSubscriptionId");
+    public static final Field<User, String> APPLE_ORIGINAL_TRANSACTION_ID = new Field<>("appleOriginalTransactionId");
+
+    private UserFields() { }
+}
@@ -9,7 +9,7 @@ import org.springframework.data.mongodb.repository.Query;
 import java.util.List;
 import java.util.Optional;
 
-public interface UserRelationRepository extends MongoRepository<UserRelation, String> {
+public interface UserRelationRepository extends MongoRepository<UserRelation, String>, UserRelationRepositoryCustom {
     
     // Check if a follow relationship exists
     boolean existsByFollowerUserNameAndFollowingUserNameAndStatus(
@@ -64,16 +64,6 @@ public interface UserRelationRepository extends MongoRepository<UserRelation, St
     List<UserRelation> findTop10ByFollowingUserNameAndStatusOrderByCreatedAtDesc(
         String followingUserName, UserRelation.RelationStatus status);
     
-    // Find potential friend suggestions based on mutual connections
-    @Query("{ $and: [ " +
-           "  { 'followerUserName': { $in: ?0 } }, " +  // People followed by user's connections
-           "  { 'followingUserName': { $ne: ?1 } }, " +   // Exclude the user themselves from suggestions
-           "  { 'followingUserName': { $nin: ?2 } }, " + // Exclude people user already follows
-           "  { 'status': ?3 } " +
-           "] }")
-    List<UserRelation> findFriendSuggestions(List<String> userConnections, String currentUser, 
-                                           List<String> alreadyFollowing, UserRelation.RelationStatus status);
-    
     // Delete all relations where user is either follower or following
     void deleteByFollowerUserNameOrFollowingUserName(String followerUserName, String followingUserName);
 }
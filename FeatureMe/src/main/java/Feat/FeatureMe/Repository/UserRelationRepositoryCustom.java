@@ -0,0 +1,11 @@
+package Feat.FeatureMe.Repository;
+
+import java.util.List;
+
+import Feat.FeatureMe.Dto.FriendSuggestionDTO;
+
+public interface UserRelationRepositoryCustom {
+
+    // People followed by the accounts in `following`, excluding userName and anyone in `following`, most mutual connections first
+    List<FriendSuggestionDTO> findFriendSuggestions(String userName, List<String> following, int limit);
+}
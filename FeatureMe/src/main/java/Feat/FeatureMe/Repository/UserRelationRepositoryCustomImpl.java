@@ -0,0 +1,65 @@
+package Feat.FeatureMe.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.LookupOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import Feat.FeatureMe.Dto.FriendSuggestionDTO;
+import Feat.FeatureMe.Entity.UserRelation;
+
+/**
+ * Friend suggestions as one aggregation over user_relations:
+ * the relations of everyone the user follows (follower_created_idx), grouped by the account
+ * they follow, counted, ranked by that count and joined with the user collection for the
+ * current profile picture. Only `limit` candidates reach the join.
+ */
+public class UserRelationRepositoryCustomImpl implements UserRelationRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public UserRelationRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<FriendSuggestionDTO> findFriendSuggestions(String userName, List<String> following, int limit) {
+        List<String> excluded = new ArrayList<>(following);
+        excluded.add(userName);
+
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.match(Criteria.where("followerUserName").in(following)
+                .and("status").is(UserRelation.RelationStatus.ACTIVE)
+                .and("followingUserName").nin(excluded)),
+            Aggregation.group("followingUserName").count().as("mutualCount"),
+            Aggregation.sort(Sort.by(Sort.Direction.DESC, "mutualCount").and(Sort.by(Sort.Direction.ASC, "_id"))),
+            Aggregation.limit(limit),
+            LookupOperation.newLookup()
+                .from("user")
+                .localField("_id")
+                .foreignField("userName")
+                .pipeline(Aggregation.project("profilePic"))
+                .as("user")
+        );
+
+        List<FriendSuggestionDTO> suggestions = new ArrayList<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, UserRelation.class, Document.class)) {
+            List<Document> user = row.getList("user", Document.class);
+            if (user == null || user.isEmpty()) {
+                continue; // Relation left behind by a deleted account
+            }
+            suggestions.add(new FriendSuggestionDTO(
+                String.valueOf(user.get(0).get("_id")),
+                row.getString("_id"),
+                user.get(0).getString("profilePic"),
+                ((Number) row.get("mutualCount")).intValue()
+            ));
+        }
+        return suggestions;
+    }
+}
@@ -1,5 +1,6 @@
 package Feat.FeatureMe.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -8,8 +9,9 @@ import Feat.FeatureMe.Entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
-public interface UserRepository extends MongoRepository<User, String> {
+public interface UserRepository extends MongoRepository<User, String>, UserRepositoryCustom {
     
         
         
@@ -21,9 +23,17 @@ public interface UserRepository extends MongoRepository<User, String> {
     boolean existsByEmail(String email);
     Optional<User> findByEmail(String email);
 
+    // userName only, for resolving the email in a JWT subject without loading the user
+    @Query(value = "{ 'email': ?0 }", fields = "{ 'userName': 1 }")
+    Optional<User> findUserNameByEmail(String email);
+
 
     List<User> findByUserNameIn(List<String> usernames);
     
+    // Profile pictures only (for batch DTO enrichment without loading full user documents)
+    @Query(value = "{ 'userName': { $in: ?0 } }", fields = "{ 'userName': 1, 'profilePic': 1 }")
+    List<User> findProfilePicsByUserNameIn(Collection<String> usernames);
+    
     Optional<User> findByStripeCustomerId(String stripeCustomerId);
     
     Optional<User> findByAppleOriginalTransactionId(String appleOriginalTransactionId);
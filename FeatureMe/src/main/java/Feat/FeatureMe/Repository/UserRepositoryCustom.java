@@ -0,0 +1,11 @@
+package Feat.FeatureMe.Repository;
+
+import Feat.FeatureMe.Entity.User;
+
+public interface UserRepositoryCustom {
+
+    // Apply field-level changes to one user; false if no user matched (missing, or a precondition failed)
+    boolean updateUser(String userName, PartialUpdate<User> update);
+
+    boolean updateUserById(String userId, PartialUpdate<User> update);
+}
@@ -0,0 +1,57 @@
+package Feat.FeatureMe.Repository;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import Feat.FeatureMe.Entity.User;
+
+/**
+ * Partial updates of user documents.
+ *
+ * MongoTemplate updates don't fire the mapping events that save() does, so the listeners that
+ * keep the profile cache and the username index fresh are told through a UserUpdatedEvent
+ * carrying the fields they need (projected from the updated document).
+ */
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public UserRepositoryCustomImpl(MongoTemplate mongoTemplate, ApplicationEventPublisher eventPublisher) {
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public boolean updateUser(String userName, PartialUpdate<User> update) {
+        return updateOne(Criteria.where("userName").is(userName), update);
+    }
+
+    @Override
+    public boolean updateUserById(String userId, PartialUpdate<User> update) {
+        return updateOne(Criteria.where("_id").is(userId), update);
+    }
+
+    private boolean updateOne(Criteria target, PartialUpdate<User> update) {
+        if (update.isEmpty()) {
+            return false;
+        }
+        Query query = query(target, update);
+        query.fields().include("userName", "profilePic", "role", "followersCount");
+        User changed = mongoTemplate.findAndModify(query, update.toUpdate(), FindAndModifyOptions.options().returnNew(true), User.class);
+        if (changed == null) {
+            return false;
+        }
+        eventPublisher.publishEvent(new UserUpdatedEvent(changed));
+        return true;
+    }
+
+    private static Query query(Criteria target, PartialUpdate<User> update) {
+        Query query = new Query(target);
+        update.conditions().forEach(query::addCriteria);
+        return query;
+    }
+}
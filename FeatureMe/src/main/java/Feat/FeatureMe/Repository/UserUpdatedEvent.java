@@ -0,0 +1,11 @@
+package Feat.FeatureMe.Repository;
+
+import Feat.FeatureMe.Entity.User;
+
+/**
+ * Published after a partial update of a user. The user holds only userName and, for
+ * single-user updates, id, profilePic, role and followersCount as they are after the update.
+ */
+public record UserUpdatedEvent(User user) {
+
+}
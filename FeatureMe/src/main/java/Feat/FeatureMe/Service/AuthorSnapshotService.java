@@ -0,0 +1,129 @@
+package Feat.FeatureMe.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import com.mongodb.DBRef;
+import com.mongodb.client.result.UpdateResult;
+
+import Feat.FeatureMe.Entity.AuthorSnapshot;
+import Feat.FeatureMe.Entity.Posts;
+import Feat.FeatureMe.Entity.User;
+import Feat.FeatureMe.Repository.UserRepository;
+
+/**
+ * Keeps the embedded author snapshot on posts in sync with the author's profile.
+ */
+@Service
+public class AuthorSnapshotService {
+
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final UserRepository userRepository;
+
+    public AuthorSnapshotService(MongoTemplate mongoTemplate, UserRepository userRepository) {
+        this.mongoTemplate = mongoTemplate;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Refresh the author snapshot on all of a user's posts in the background.
+     * Called after profile edits (name, picture, banner, role, location, bio).
+     * Re-reads the user so overlapping saves always propagate the latest profile.
+     */
+    @Async
+    public void propagateAuthorSnapshot(String userId) {
+        try {
+            User user = userRepository.findById(userId).orElse(null);
+            if (user == null) {
+                return;
+            }
+            UpdateResult result = mongoTemplate.updateMulti(
+                new Query(authorCriteria(user.getId())),
+                Update.update("authorSnapshot", AuthorSnapshot.from(user)),
+                Posts.class
+            );
+            System.out.println("Refreshed author snapshot on " + result.getModifiedCount() + " posts for " + user.getUserName());
+        } catch (Exception e) {
+            System.err.println("Failed to propagate author snapshot for user " + userId + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * One-time backfill for posts created before the snapshot existed.
+     * Runs after startup; once every post has a snapshot this is a single empty query.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillMissingSnapshots() {
+        try {
+            long updated = 0;
+            Set<Object> failedAuthorIds = new LinkedHashSet<>();
+            while (true) {
+                // Read raw author DBRefs so we never resolve the lazy author proxy
+                Criteria criteria = Criteria.where("authorSnapshot").exists(false).and("author").exists(true);
+                if (!failedAuthorIds.isEmpty()) {
+                    criteria = criteria.and("author.$id").nin(failedAuthorIds);
+                }
+                Query missing = new Query(criteria);
+                missing.fields().include("author");
+                missing.limit(BACKFILL_BATCH_SIZE);
+
+                Set<Object> authorIds = new LinkedHashSet<>();
+                for (Document doc : mongoTemplate.find(missing, Document.class, "posts")) {
+                    if (doc.get("author") instanceof DBRef ref) {
+                        authorIds.add(ref.getId());
+                    }
+                }
+                if (authorIds.isEmpty()) {
+                    break;
+                }
+
+                for (Object authorId : authorIds) {
+                    User author = userRepository.findById(authorId.toString()).orElse(null);
+                    if (author == null) {
+                        // Orphaned posts: skip instead of looping on them forever
+                        failedAuthorIds.add(authorId);
+                        continue;
+                    }
+                    updated += mongoTemplate.updateMulti(
+                        new Query(authorCriteria(author.getId()).and("authorSnapshot").exists(false)),
+                        Update.update("authorSnapshot", AuthorSnapshot.from(author)),
+                        Posts.class
+                    ).getModifiedCount();
+                }
+            }
+            if (updated > 0) {
+                System.out.println("Backfilled author snapshot on " + updated + " posts");
+            }
+        } catch (Exception e) {
+            System.err.println("Error backfilling author snapshots: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Match posts by author DBRef id (stored as ObjectId, or as a plain string for legacy ids)
+     */
+    private Criteria authorCriteria(String authorId) {
+        List<Object> ids = new ArrayList<>();
+        ids.add(authorId);
+        if (ObjectId.isValid(authorId)) {
+            ids.add(new ObjectId(authorId));
+        }
+        return Criteria.where("author.$id").in(ids);
+    }
+}
@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.web.PagedModel;
@@ -41,6 +42,10 @@ public class ChatService {
     private FileUploadService fileUploadService;
     @Autowired
     private org.springframework.messaging.simp.SimpMessagingTemplate messagingTemplate;
+    @Autowired
+    private NotificationService notificationService;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     /**
      * Validates chat file uploads with role-based restrictions
@@ -143,28 +148,20 @@ public User validateJwtAndGetUser(String jwtToken) {
         );
         Chats newChat = chatsRepository.insert(chat);
 
-        if(user.getChats() ==null){
-            user.setChats(new ArrayList<>());
-           }
-        user.getChats().add(newChat.getChatRoomId());
-        userRepository.save(user);
+        // Membership lives in chat.users; a user's chats are queried from there
         for(String user2: oUsers){
-           User thisUser = userRepository.findByUserName(user2).orElseThrow(() -> new RuntimeException("User not found: " + user2));
-           if(thisUser.getChats() ==null){
-            thisUser.setChats(new ArrayList<>());
+           if(!userRepository.existsByUserName(user2)){
+            throw new RuntimeException("User not found: " + user2);
            }
-           
-            thisUser.getChats().add(newChat.getChatRoomId());
-            thisUser.getNotifications().add(new NotificationsDTO(
-                newChat.getChatRoomId(), 
-                user.getUserName(), 
-                "Added you to a chat named " + newChat.getChatName(), 
-                Instant.now(),
+            notificationService.notify(
+                user2,
+                newChat.getChatRoomId(),
+                user.getUserName(),
+                "Added you to a chat named " + newChat.getChatName(),
                 NotificationsDTO.NotiType.CHAT
-            ));
-            userRepository.save(thisUser);
+            );
         }
-       // users.getChats().add(newChat.getChatRoomId());
+        eventPublisher.publishEvent(new UserActivityChangedEvent(newChat.getUsers()));
 
         ChatMessage chatMessage = new ChatMessage(
             null,
@@ -187,9 +184,10 @@ return newChat;
 
     public ChatMessage joinChat(String chatRoomId, String addedUserName, String adderUserName){
         try {
-            // Find the user being added
-            User user = userRepository.findByUserName(addedUserName)
-                .orElseThrow(() -> new RuntimeException("User not found: " + addedUserName));
+            // Check the user being added exists
+            if (!userRepository.existsByUserName(addedUserName)) {
+                throw new RuntimeException("User not found: " + addedUserName);
+            }
             
             // Find the chat room
             Chats chat = chatsRepository.findById(chatRoomId)
@@ -203,12 +201,6 @@ return newChat;
             // Add user to chat
             chat.getUsers().add(addedUserName);
             
-            // Add chat to user's chat list
-            if (user.getChats() == null) {
-                user.setChats(new ArrayList<>());
-            }
-            user.getChats().add(chatRoomId);
-            
             // Create join message
             ChatMessage message = new ChatMessage(
                 null,
@@ -220,18 +212,6 @@ return newChat;
             );
             chat.getMessages().add(message);
             
-            // Add notification to the user being added
-            if (user.getNotifications() == null) {
-                user.setNotifications(new ArrayList<>());
-            }
-            user.getNotifications().add(new NotificationsDTO(
-                chat.getChatRoomId(), 
-                adderUserName, 
-                "Added you to chat: " + chat.getChatName(), 
-                Instant.now(),
-                NotificationsDTO.NotiType.CHAT
-            ));
-            
             // Update most recent chat
             chat.setMostRecentChat(new MostRecentChatDTO(
                 chat.getChatRoomId(), 
@@ -243,8 +223,17 @@ return newChat;
             ));
             
             chatMessageRepository.save(message);
-            userRepository.save(user);
             chatsRepository.save(chat);
+            eventPublisher.publishEvent(UserActivityChangedEvent.of(addedUserName));
+
+            // Add notification to the user being added
+            notificationService.notify(
+                addedUserName,
+                chat.getChatRoomId(),
+                adderUserName,
+                "Added you to chat: " + chat.getChatName(),
+                NotificationsDTO.NotiType.CHAT
+            );
             
             return message;
         } catch (Exception e) {
@@ -271,12 +260,7 @@ return newChat;
     }
 
     public ChatMessage leaveChat(String chatRoomId, String addedUserName, String adderUserName){
-        User user =userRepository.findByUserName(addedUserName).get();
         Chats chat = chatsRepository.findById(chatRoomId).get();
-        user.getChats().remove(chatRoomId);
-        if (user.getChats() == null) {
-            user.setChats(new ArrayList<>());
-        }
         chat.getUsers().remove(addedUserName);
         ChatMessage message = new ChatMessage(
             null,
@@ -291,8 +275,8 @@ return newChat;
         chatMessageRepository.save(message);
         chat.setMostRecentChat( new MostRecentChatDTO(chat.getChatRoomId(), chat.getChatName(), chat.getChatPhoto(), chat.getUsers(), message.getMessage(), Instant.now()));
        
-        userRepository.save(user);
         chatsRepository.save(chat);
+        eventPublisher.publishEvent(UserActivityChangedEvent.of(addedUserName));
         
         // Check if chat should be deleted (no users remaining)
         checkAndDeleteIfEmpty(chatRoomId);
@@ -323,11 +307,8 @@ return newChat;
     }
 
     public PagedModel<MostRecentChatDTO> getChats(User user, int page, int size) {
-        // Get all chat IDs for the user
-        List<String> allChatsId = user.getChats();
-        
-        // Fetch all chats without pagination first to sort them
-        List<Chats> allChats = chatsRepository.findAllByChatRoomIdIn(allChatsId);
+        // Fetch all of the user's chats without pagination first to sort them
+        List<Chats> allChats = new ArrayList<>(chatsRepository.findByUsers(user.getUserName()));
         
         // Sort chats by most recent message time (newest first)
         allChats.sort((chat1, chat2) -> {
@@ -384,9 +365,10 @@ return newChat;
                 throw new SecurityException("User " + requester.getUserName() + " is not authorized to add users to chat room " + chatRoomId);
             }
             
-            // Find the user to add
-            User userToAdd = userRepository.findByUserName(username)
-                .orElseThrow(() -> new RuntimeException("User not found: " + username));
+            // Check the user to add exists
+            if (!userRepository.existsByUserName(username)) {
+                throw new RuntimeException("User not found: " + username);
+            }
             
             // Check if user is already in the chat
             if (chat.getUsers().contains(username)) {
@@ -396,24 +378,6 @@ return newChat;
             // Add user to chat
             chat.getUsers().add(username);
             
-            // Add chat to user's chat list
-            if (userToAdd.getChats() == null) {
-                userToAdd.setChats(new ArrayList<>());
-            }
-            userToAdd.getChats().add(chatRoomId);
-            
-            // Add notification to the user being added
-            if (userToAdd.getNotifications() == null) {
-                userToAdd.setNotifications(new ArrayList<>());
-            }
-            userToAdd.getNotifications().add(new NotificationsDTO(
-                chatRoomId, 
-                requester.getUserName(), 
-                "Added you to chat: " + chat.getChatName(), 
-                Instant.now(),
-                NotificationsDTO.NotiType.CHAT
-            ));
-            
             // Create join message
             ChatMessage joinMessage = new ChatMessage(
                 null,
@@ -435,8 +399,17 @@ return newChat;
             ));
             
             chatMessageRepository.save(joinMessage);
-            userRepository.save(userToAdd);
             chatsRepository.save(chat);
+            eventPublisher.publishEvent(UserActivityChangedEvent.of(username));
+
+            // Add notification to the user being added
+            notificationService.notify(
+                username,
+                chatRoomId,
+                requester.getUserName(),
+                "Added you to chat: " + chat.getChatName(),
+                NotificationsDTO.NotiType.CHAT
+            );
             
             return chat;
         } catch (Exception e) {
@@ -457,9 +430,10 @@ return newChat;
                 throw new SecurityException("User " + requester.getUserName() + " is not authorized to remove users from chat room " + chatRoomId);
             }
             
-            // Find the user to remove
-            User userToRemove = userRepository.findByUserName(username)
-                .orElseThrow(() -> new RuntimeException("User not found: " + username));
+            // Check the user to remove exists
+            if (!userRepository.existsByUserName(username)) {
+                throw new RuntimeException("User not found: " + username);
+            }
             
             // Check if user is in the chat
             if (!chat.getUsers().contains(username)) {
@@ -469,11 +443,6 @@ return newChat;
             // Remove user from chat
             chat.getUsers().remove(username);
             
-            // Remove chat from user's chat list
-            if (userToRemove.getChats() != null) {
-                userToRemove.getChats().remove(chatRoomId);
-            }
-            
             // Create leave message
             ChatMessage leaveMessage = new ChatMessage(
                 null,
@@ -495,8 +464,8 @@ return newChat;
             ));
             
             chatMessageRepository.save(leaveMessage);
-            userRepository.save(userToRemove);
             chatsRepository.save(chat);
+            eventPublisher.publishEvent(UserActivityChangedEvent.of(username));
             
             // Check if chat should be deleted (no users remaining)
             checkAndDeleteIfEmpty(chatRoomId);
@@ -685,14 +654,14 @@ return newChat;
             // 1. Delete all AWS files associated with this chat
             deleteChatFilesFromAWS(chat);
             
-            // 2. Remove chat ID from all users' chat lists
-            removeChatFromAllUsers(chat.getUsers(), chatRoomId);
-            
-            // 3. Delete all messages for this chat room
+            // 2. Delete all messages for this chat room
             chatMessageRepository.deleteByChatRoomId(chatRoomId);
             
-            // 4. Delete the chat room itself
+            // 3. Delete the chat room itself (users' chat lists are queried from chat rooms)
             chatsRepository.deleteByChatRoomId(chatRoomId);
+            if (chat.getUsers() != null) {
+                eventPublisher.publishEvent(new UserActivityChangedEvent(chat.getUsers()));
+            }
             
             System.out.println("Successfully deleted chat room: " + chatRoomId);
             return true;
@@ -762,30 +731,6 @@ return newChat;
         }
     }
     
-    /**
-     * Removes a chat ID from all users' chat lists
-     * @param users List of usernames in the chat
-     * @param chatRoomId The chat room ID to remove
-     */
-    private void removeChatFromAllUsers(List<String> users, String chatRoomId) {
-        if (users == null || users.isEmpty()) {
-            return;
-        }
-        
-        for (String username : users) {
-            try {
-                User user = userRepository.findByUserName(username).orElse(null);
-                if (user != null && user.getChats() != null) {
-                    user.getChats().remove(chatRoomId);
-                    userRepository.save(user);
-                    System.out.println("Removed chat " + chatRoomId + " from user " + username);
-                }
-            } catch (Exception e) {
-                System.err.println("Error removing chat " + chatRoomId + " from user " + username + ": " + e.getMessage());
-            }
-        }
-    }
-    
     /**
      * Checks if a chat should be deleted (when no users remain)
      * @param chatRoomId The chat room ID to check
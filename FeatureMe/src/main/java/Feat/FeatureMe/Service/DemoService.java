@@ -3,12 +3,15 @@ package Feat.FeatureMe.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import org.springframework.stereotype.Service;
 
 import Feat.FeatureMe.Entity.Demos;
 import Feat.FeatureMe.Entity.User;
 import Feat.FeatureMe.Repository.DemoRepository;
+import Feat.FeatureMe.Repository.PartialUpdate;
+import Feat.FeatureMe.Repository.UserFields;
 import Feat.FeatureMe.Repository.UserRepository;
 import Feat.FeatureMe.Service.S3Service;
 
@@ -28,14 +31,12 @@ public class DemoService {
     }
 
     public Demos createPost(String userId, Demos demo) {
-    User author = userRepository.findById(userId).get();
+        if (!userRepository.existsById(userId)) {
+            throw new NoSuchElementException("No value present");
+        }
 
         Demos demos = demoRepository.insert(demo);
-        if (author.getDemo() == null) {
-            author.setDemo(new ArrayList<>());
-        }
-        author.getDemo().add(demos.getId());
-        userRepository.save(author);
+        userRepository.updateUserById(userId, PartialUpdate.user().push(UserFields.DEMO, demos.getId()));
 
         return demos;
     
@@ -56,8 +57,7 @@ public class DemoService {
     }
 
     public void deleteDemo(String id, String demoId) {
-        User user = userRepository.findById(id).get();
-        
+                
         // Get the demo before deleting it to access the S3 file URL
         Demos demo = demoRepository.findById(demoId).orElse(null);
         
@@ -78,8 +78,7 @@ public class DemoService {
         }
         
         // Remove demo from user's demo list
-        user.getDemo().remove(demoId);
-        userRepository.save(user);
+        userRepository.updateUserById(id, PartialUpdate.user().pull(UserFields.DEMO, demoId));
         
         // Delete the demo from database
         demoRepository.deleteById(demoId);
@@ -0,0 +1,340 @@
+package Feat.FeatureMe.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import Feat.FeatureMe.Dto.PostsDTO;
+import Feat.FeatureMe.Entity.Posts;
+
+/**
+ * Redis-materialized public feeds.
+ *
+ * Keeps one sorted set of published post IDs per sort order (time, likes) for the whole
+ * feed and for each genre, holding the top FEED_CAPACITY posts, plus a published-post count
+ * per feed. Pre-built post cards (PostsDTO) are cached in the POSTS region of TwoTierCache.
+ * The first pages of the home, most-liked and single-genre feeds are then served from Redis;
+ * anything deeper than SERVE_DEPTH, or any Redis failure, falls through to Mongo.
+ *
+ * Sets are updated incrementally on publish/like/delete and rebuilt periodically, which also
+ * repairs any drift (e.g. an update that raced a rebuild).
+ */
+@Service
+public class FeedCacheService {
+
+    public enum FeedSort { TIME, LIKES }
+
+    private static final String FEED_PREFIX = "feed:";
+    private static final String COUNT_PREFIX = "feed:count:";
+
+    // Top N posts kept per feed; only the first SERVE_DEPTH are served so that
+    // unlikes near the tail can't surface a post that should have been outside the set
+    private static final int FEED_CAPACITY = 200;
+    private static final int SERVE_DEPTH = 120;
+
+    // likes * 1e10 + epoch seconds: sorts by likes then time while staying exact in a double
+    private static final double LIKES_SCORE_FACTOR = 1e10;
+
+    private final StringRedisTemplate redisTemplate;
+    private final MongoTemplate mongoTemplate;
+    private final TwoTierCache twoTierCache;
+
+    public FeedCacheService(StringRedisTemplate redisTemplate, MongoTemplate mongoTemplate, TwoTierCache twoTierCache) {
+        this.redisTemplate = redisTemplate;
+        this.mongoTemplate = mongoTemplate;
+        this.twoTierCache = twoTierCache;
+    }
+
+    // ---- Reads ----
+
+    /**
+     * IDs for a cached feed page, or empty if the page isn't served from Redis
+     * (too deep, feed not warmed yet, or Redis unavailable)
+     */
+    public Optional<List<String>> getPageIds(FeedSort sort, String genre, int page, int size) {
+        if (page < 0 || size <= 0 || (long) (page + 1) * size > SERVE_DEPTH) {
+            return Optional.empty();
+        }
+        try {
+            String key = feedKey(sort, genre);
+            String countValue = redisTemplate.opsForValue().get(countKey(genre));
+            Long cached = redisTemplate.opsForZSet().zCard(key);
+            if (countValue == null || cached == null) {
+                return Optional.empty();
+            }
+            // The set must hold every post up to the end of this page (or the whole feed)
+            long needed = Math.min((long) (page + 1) * size, Long.parseLong(countValue));
+            if (cached < needed) {
+                return Optional.empty();
+            }
+            long start = (long) page * size;
+            Set<String> ids = redisTemplate.opsForZSet().reverseRange(key, start, start + size - 1);
+            return Optional.of(ids != null ? new ArrayList<>(ids) : List.of());
+        } catch (Exception e) {
+            System.err.println("Feed cache read failed, falling back to Mongo: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Published post count for a feed, as maintained alongside the sorted sets
+     */
+    public Optional<Long> getTotal(String genre) {
+        try {
+            String value = redisTemplate.opsForValue().get(countKey(genre));
+            return value != null ? Optional.of(Long.parseLong(value)) : Optional.empty();
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Cached post cards by ID; missing or unreadable entries are simply absent from the map
+     */
+    public Map<String, PostsDTO> getCards(List<String> postIds) {
+        return twoTierCache.getAll(TwoTierCache.Region.POSTS, postIds, PostsDTO.class);
+    }
+
+    /**
+     * Take before loading the cards passed to putCards, so cards evicted during the load aren't cached
+     */
+    public long cardLoadStamp() {
+        return twoTierCache.loadStamp(TwoTierCache.Region.POSTS);
+    }
+
+    public void putCards(Collection<PostsDTO> cards, long loadStamp) {
+        Map<String, PostsDTO> byId = new HashMap<>();
+        cards.forEach(card -> byId.put(card.id(), card));
+        if (!byId.isEmpty()) {
+            twoTierCache.putAll(TwoTierCache.Region.POSTS, byId, loadStamp);
+        }
+    }
+
+    /**
+     * A single post card, loaded at most once at a time across concurrent requests on a miss
+     */
+    public PostsDTO loadCard(String postId, Supplier<PostsDTO> loader) {
+        return twoTierCache.getOrLoad(TwoTierCache.Region.POSTS, postId, PostsDTO.class, loader);
+    }
+
+    /**
+     * Drop a post's card on every instance (likes, comments, edits, deletes)
+     */
+    public void evictCard(String postId) {
+        twoTierCache.evict(TwoTierCache.Region.POSTS, postId);
+    }
+
+    // ---- Incremental maintenance ----
+
+    /**
+     * A post became visible in the public feeds (created as PUBLISHED or all features resolved)
+     */
+    public void onPublished(Posts post) {
+        try {
+            for (String scope : scopes(post)) {
+                String genre = scope.isEmpty() ? null : scope;
+                // Only maintain feeds that have been warmed; others are built by the next rewarm
+                if (Boolean.TRUE.equals(redisTemplate.hasKey(countKey(genre)))) {
+                    redisTemplate.opsForValue().increment(countKey(genre));
+                    addAndTrim(feedKey(FeedSort.TIME, genre), post.getId(), timeScore(post));
+                    addAndTrim(feedKey(FeedSort.LIKES, genre), post.getId(), likesScore(post));
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to add post " + post.getId() + " to feed cache: " + e.getMessage());
+        }
+    }
+
+    /**
+     * A published post's like count changed: re-rank it in the likes feeds and drop its stale card
+     */
+    public void onLikesChanged(Posts post) {
+        evictCard(post.getId());
+        if (!"PUBLISHED".equals(post.getStatus())) {
+            return;
+        }
+        try {
+            for (String scope : scopes(post)) {
+                String genre = scope.isEmpty() ? null : scope;
+                String key = feedKey(FeedSort.LIKES, genre);
+                if (Boolean.TRUE.equals(redisTemplate.hasKey(key))) {
+                    addAndTrim(key, post.getId(), likesScore(post));
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to re-rank post " + post.getId() + " in feed cache: " + e.getMessage());
+        }
+    }
+
+    /**
+     * A post is being deleted; published posts also reduce the feed counts
+     */
+    public void onDeleted(Posts post) {
+        evictCard(post.getId());
+        try {
+            for (String scope : scopes(post)) {
+                String genre = scope.isEmpty() ? null : scope;
+                redisTemplate.opsForZSet().remove(feedKey(FeedSort.TIME, genre), post.getId());
+                redisTemplate.opsForZSet().remove(feedKey(FeedSort.LIKES, genre), post.getId());
+                if ("PUBLISHED".equals(post.getStatus()) && Boolean.TRUE.equals(redisTemplate.hasKey(countKey(genre)))) {
+                    redisTemplate.opsForValue().decrement(countKey(genre));
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to remove post " + post.getId() + " from feed cache: " + e.getMessage());
+        }
+    }
+
+    /**
+     * A post was edited. Genre moves invalidate the affected genre feeds until the next rewarm.
+     */
+    public void onUpdated(Posts before, Posts after) {
+        evictCard(after.getId());
+        try {
+            List<String> oldGenres = before.getGenre() != null ? before.getGenre() : List.of();
+            List<String> newGenres = after.getGenre() != null ? after.getGenre() : List.of();
+            if (!Objects.equals(new LinkedHashSet<>(oldGenres), new LinkedHashSet<>(newGenres))) {
+                Set<String> affected = new LinkedHashSet<>(oldGenres);
+                affected.addAll(newGenres);
+                for (String genre : affected) {
+                    redisTemplate.delete(List.of(countKey(genre), feedKey(FeedSort.TIME, genre), feedKey(FeedSort.LIKES, genre)));
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to update post " + after.getId() + " in feed cache: " + e.getMessage());
+        }
+    }
+
+    // ---- Warming ----
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmOnStartup() {
+        rewarm();
+    }
+
+    @Scheduled(initialDelayString = "${featureme.feeds.rewarm-interval-ms:600000}",
+               fixedDelayString = "${featureme.feeds.rewarm-interval-ms:600000}")
+    public void rewarm() {
+        try {
+            rebuildFeed(null);
+            List<String> genres = mongoTemplate.findDistinct(
+                new Query(Criteria.where("status").is("PUBLISHED")), "genre", Posts.class, String.class);
+            for (String genre : genres) {
+                if (genre != null && !genre.isBlank()) {
+                    rebuildFeed(genre);
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Error warming feed cache: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild one feed's sets from Mongo into temp keys and swap them in with RENAME.
+     * Each set is filled with a single ZADD, and all of the feed's writes go in one pipeline.
+     */
+    private void rebuildFeed(String genre) {
+        Criteria criteria = Criteria.where("status").is("PUBLISHED");
+        if (genre != null) {
+            criteria = criteria.and("genre").is(genre);
+        }
+        long total = mongoTemplate.count(new Query(criteria), Posts.class);
+
+        Map<FeedSort, Set<ZSetOperations.TypedTuple<String>>> members = new HashMap<>();
+        for (FeedSort sort : FeedSort.values()) {
+            Query top = new Query(criteria).limit(FEED_CAPACITY);
+            top.with(sort == FeedSort.LIKES
+                ? Sort.by(Sort.Direction.DESC, "totalLikes", "time", "_id")
+                : Sort.by(Sort.Direction.DESC, "time", "_id"));
+            top.fields().include("_id").include("time").include("totalLikes");
+
+            Set<ZSetOperations.TypedTuple<String>> tuples = new LinkedHashSet<>();
+            for (Posts post : mongoTemplate.find(top, Posts.class)) {
+                tuples.add(new DefaultTypedTuple<>(post.getId(), sort == FeedSort.LIKES ? likesScore(post) : timeScore(post)));
+            }
+            members.put(sort, tuples);
+        }
+
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (FeedSort sort : FeedSort.values()) {
+                    String key = feedKey(sort, genre);
+                    String tmpKey = key + ":rebuild";
+                    Set<ZSetOperations.TypedTuple<String>> tuples = members.get(sort);
+                    operations.delete(tmpKey);
+                    if (tuples.isEmpty()) {
+                        operations.delete(key);
+                    } else {
+                        operations.opsForZSet().add(tmpKey, tuples);
+                        operations.rename(tmpKey, key);
+                    }
+                }
+                operations.opsForValue().set(countKey(genre), Long.toString(total));
+                return null;
+            }
+        });
+    }
+
+    // ---- Helpers ----
+
+    private void addAndTrim(String key, String postId, double score) {
+        redisTemplate.opsForZSet().add(key, postId, score);
+        // Drop everything below the top FEED_CAPACITY (ranks are ascending by score)
+        redisTemplate.opsForZSet().removeRange(key, 0, -(FEED_CAPACITY + 1));
+    }
+
+    /**
+     * "" for the all-posts feed, plus one entry per genre of the post
+     */
+    private List<String> scopes(Posts post) {
+        List<String> scopes = new ArrayList<>();
+        scopes.add("");
+        if (post.getGenre() != null) {
+            post.getGenre().stream().filter(g -> g != null && !g.isBlank()).distinct().forEach(scopes::add);
+        }
+        return scopes;
+    }
+
+    private String feedKey(FeedSort sort, String genre) {
+        return FEED_PREFIX + sort.name().toLowerCase() + (genre == null ? ":all" : ":genre:" + genre);
+    }
+
+    private String countKey(String genre) {
+        return COUNT_PREFIX + (genre == null ? "all" : "genre:" + genre);
+    }
+
+    private double timeScore(Posts post) {
+        return post.getTime() != null ? post.getTime().toEpochMilli() : 0;
+    }
+
+    private double likesScore(Posts post) {
+        long seconds = post.getTime() != null ? post.getTime().getEpochSecond() : 0;
+        return post.getTotalLikes() * LIKES_SCORE_FACTOR + seconds;
+    }
+}
@@ -0,0 +1,217 @@
+package Feat.FeatureMe.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import Feat.FeatureMe.Dto.NotificationPushDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Applies NotificationEvents off the request thread.
+ *
+ * Events go into a bounded queue. One dispatcher thread drains it in batches, groups each
+ * batch by recipient and applies every recipient's events on its own virtual thread, so a
+ * recipient's events stay in publish order while different recipients are written in parallel.
+ * A failed write is retried with backoff before it is dropped and logged. After a recipient's
+ * events are written, their open sessions get a push (NotificationPushService).
+ *
+ * When the queue is full the publishing thread waits briefly for room, which slows callers
+ * down instead of letting the backlog grow without bound; if none frees up the event is shed
+ * and counted (outcome=shed). Publishers never apply events themselves, which would let them
+ * overtake a recipient's queued events and sleep in retry backoff on a request thread. Events
+ * still queued at shutdown are applied before the application context closes; a killed
+ * process loses them.
+ */
+@Service
+public class NotificationDispatcher {
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_BACKOFF_MS = 200;
+
+    private final NotificationService notificationService;
+    private final NotificationPushService notificationPushService;
+    private final BlockingQueue<NotificationEvent> queue;
+    private final int batchSize;
+    private final long offerTimeoutMs;
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter applied;
+    private final Counter retried;
+    private final Counter failed;
+    private final Counter shed;
+    private volatile boolean running;
+    private Thread dispatcher;
+
+    public NotificationDispatcher(NotificationService notificationService,
+                                  NotificationPushService notificationPushService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${featureme.notifications.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${featureme.notifications.batch-size:500}") int batchSize,
+                                  @Value("${featureme.notifications.offer-timeout-ms:50}") long offerTimeoutMs) {
+        this.notificationService = notificationService;
+        this.notificationPushService = notificationPushService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.applied = outcome(meterRegistry, "applied");
+        this.retried = outcome(meterRegistry, "retried");
+        this.failed = outcome(meterRegistry, "failed");
+        this.shed = outcome(meterRegistry, "shed");
+        meterRegistry.gauge("featureme.notifications.queue.size", queue, BlockingQueue::size);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        dispatcher = Thread.ofVirtual().name("notification-dispatcher").start(this::run);
+    }
+
+    @EventListener
+    public void onNotificationEvent(NotificationEvent event) {
+        try {
+            if (queue.offer(event, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        shed.increment();
+        System.err.println("Notification queue full, dropping event for " + event.recipient());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+            try {
+                dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Whatever the dispatcher didn't get to
+        List<NotificationEvent> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            dispatch(remaining);
+        }
+        workers.close();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                NotificationEvent first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<NotificationEvent> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                // stop() interrupts to wake us up; the loop condition decides whether to exit
+            } catch (Exception e) {
+                System.err.println("Error dispatching notifications: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Apply a batch, one virtual thread per recipient, and wait for all of them
+     */
+    private void dispatch(List<NotificationEvent> batch) {
+        Map<String, List<NotificationEvent>> byRecipient = new LinkedHashMap<>();
+        for (NotificationEvent event : batch) {
+            byRecipient.computeIfAbsent(event.recipient(), r -> new ArrayList<>()).add(event);
+        }
+        List<Future<?>> pending = new ArrayList<>(byRecipient.size());
+        byRecipient.forEach((recipient, events) ->
+            pending.add(workers.submit(() -> applyWithRetry(recipient, events))));
+        for (Future<?> future : pending) {
+            awaitUninterruptibly(future);
+        }
+    }
+
+    // Returning early on interrupt would let the next batch race this one for the same recipient
+    private static void awaitUninterruptibly(Future<?> future) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                future.get();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            } catch (ExecutionException e) {
+                break; // Already logged by applyWithRetry
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void applyWithRetry(String recipient, List<NotificationEvent> events) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                notificationService.apply(recipient, events);
+                applied.increment(events.size());
+                push(recipient);
+                return;
+            } catch (Exception e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    failed.increment(events.size());
+                    System.err.println("Dropping " + events.size() + " notification events for " + recipient
+                        + " after " + attempt + " attempts: " + e.getMessage());
+                    return;
+                }
+                retried.increment();
+                try {
+                    Thread.sleep(RETRY_BACKOFF_MS * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * Send the recipient's open sessions their current notifications and unread count. The whole
+     * (capped) list rather than a delta, since aggregates change in place; skipped (no reads, no
+     * publish) when the recipient has no session on any instance.
+     * Best effort: a missed push is caught up by the next fetch of /get/notifications.
+     */
+    private void push(String recipient) {
+        try {
+            if (!notificationPushService.hasSessions(recipient)) {
+                return;
+            }
+            notificationPushService.push(recipient, new NotificationPushDTO(
+                notificationService.getRecent(recipient), notificationService.countUnread(recipient)));
+        } catch (Exception e) {
+            System.err.println("Error pushing notifications to " + recipient + ": " + e.getMessage());
+        }
+    }
+
+    private static Counter outcome(MeterRegistry registry, String outcome) {
+        return Counter.builder("featureme.notifications.events")
+            .tag("outcome", outcome)
+            .register(registry);
+    }
+}
@@ -0,0 +1,44 @@
+package Feat.FeatureMe.Service;
+
+import java.time.Instant;
+
+import org.bson.types.ObjectId;
+
+import Feat.FeatureMe.Dto.NotificationsDTO;
+
+/**
+ * A change to someone's notifications, published by the request thread and applied
+ * asynchronously by NotificationDispatcher.
+ *
+ * Added notifications get their id and time when the event is created, so the time reflects
+ * when the action happened and a retried write replaces the same document instead of duplicating it.
+ */
+public record NotificationEvent(
+        Kind kind,
+        String id,
+        String recipient,
+        String refId,
+        String actor,
+        String noti,
+        Instant time,
+        NotificationsDTO.NotiType notiType
+) {
+
+    public enum Kind {
+        ADD,        // New notification
+        REMOVE,     // One notification that no longer applies (unlike, deleted comment, unfollow)
+        REMOVE_ALL  // Everything about one post or chat
+    }
+
+    public static NotificationEvent added(String recipient, String refId, String actor, String noti, NotificationsDTO.NotiType notiType) {
+        return new NotificationEvent(Kind.ADD, new ObjectId().toHexString(), recipient, refId, actor, noti, Instant.now(), notiType);
+    }
+
+    public static NotificationEvent removed(String recipient, String refId, String actor, String noti) {
+        return new NotificationEvent(Kind.REMOVE, null, recipient, refId, actor, noti, null, null);
+    }
+
+    public static NotificationEvent removedAllAbout(String recipient, String refId) {
+        return new NotificationEvent(Kind.REMOVE_ALL, null, recipient, refId, null, null, null, null);
+    }
+}
@@ -0,0 +1,140 @@
+package Feat.FeatureMe.Service;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.simp.user.SimpSession;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import Feat.FeatureMe.Dto.NotificationPushDTO;
+
+/**
+ * Pushes notification updates to the recipient's STOMP session(s) on /user/queue/notifications.
+ *
+ * The STOMP broker is in-process, so the recipient may be connected to a different instance
+ * than the one that wrote the notification. Pushes are published on a Redis channel and every
+ * instance delivers them to its own sessions; if Redis is unavailable we deliver locally only.
+ *
+ * Open sessions are tracked per user in a Redis set (added on connect, removed on disconnect),
+ * so senders can skip building and publishing pushes for users with no session anywhere. Each
+ * instance re-registers its live sessions periodically and the sets expire, so sessions of an
+ * instance that died without disconnecting drop out on their own.
+ */
+@Service
+public class NotificationPushService implements MessageListener {
+
+    public static final String PUSH_CHANNEL = "notifications:push";
+    public static final String USER_DESTINATION = "/queue/notifications";
+
+    private static final String SESSIONS_PREFIX = "notifications:sessions:";
+    private static final Duration SESSIONS_TTL = Duration.ofMinutes(10);
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SimpUserRegistry userRegistry;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    public NotificationPushService(SimpMessagingTemplate messagingTemplate, SimpUserRegistry userRegistry, StringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+        this.messagingTemplate = messagingTemplate;
+        this.userRegistry = userRegistry;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Whether the user has an open STOMP session on any instance. Assumes so if Redis can't tell.
+     */
+    public boolean hasSessions(String userName) {
+        if (userRegistry.getUser(userName) != null) {
+            return true;
+        }
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(SESSIONS_PREFIX + userName));
+        } catch (Exception e) {
+            System.err.println("Error checking notification sessions for " + userName + ": " + e.getMessage());
+            return true;
+        }
+    }
+
+    @EventListener
+    public void onSessionConnected(SessionConnectedEvent event) {
+        if (event.getUser() != null) {
+            addSessions(event.getUser().getName(), Set.of(StompHeaderAccessor.wrap(event.getMessage()).getSessionId()));
+        }
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        if (event.getUser() == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForSet().remove(SESSIONS_PREFIX + event.getUser().getName(), event.getSessionId());
+        } catch (Exception e) {
+            System.err.println("Error removing notification session: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Re-register this instance's live sessions before their sets expire
+     */
+    @Scheduled(fixedDelay = 300000)
+    public void refreshSessions() {
+        for (SimpUser user : userRegistry.getUsers()) {
+            addSessions(user.getName(), user.getSessions().stream().map(SimpSession::getId).collect(Collectors.toSet()));
+        }
+    }
+
+    private void addSessions(String userName, Set<String> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return;
+        }
+        try {
+            String key = SESSIONS_PREFIX + userName;
+            redisTemplate.opsForSet().add(key, sessionIds.toArray(new String[0]));
+            redisTemplate.expire(key, SESSIONS_TTL);
+        } catch (Exception e) {
+            System.err.println("Error registering notification sessions for " + userName + ": " + e.getMessage());
+        }
+    }
+
+    public void push(String recipient, NotificationPushDTO update) {
+        try {
+            redisTemplate.convertAndSend(PUSH_CHANNEL, objectMapper.writeValueAsString(new Push(recipient, update)));
+        } catch (Exception e) {
+            System.err.println("Error publishing notification push, delivering locally: " + e.getMessage());
+            deliver(recipient, update);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Push push = objectMapper.readValue(message.getBody(), Push.class);
+            deliver(push.recipient(), push.update());
+        } catch (Exception e) {
+            System.err.println("Error delivering notification push: " + e.getMessage());
+        }
+    }
+
+    // No-op when the recipient has no session on this instance
+    private void deliver(String recipient, NotificationPushDTO update) {
+        messagingTemplate.convertAndSendToUser(recipient, USER_DESTINATION, update);
+    }
+
+    private record Push(String recipient, NotificationPushDTO update) { }
+}
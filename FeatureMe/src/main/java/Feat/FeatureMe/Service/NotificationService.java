@@ -0,0 +1,369 @@
+package Feat.FeatureMe.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.web.PagedModel;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import Feat.FeatureMe.Dto.NotificationsDTO;
+import Feat.FeatureMe.Entity.Notification;
+import Feat.FeatureMe.Entity.User;
+import Feat.FeatureMe.Repository.NotificationRepository;
+
+/**
+ * Per-user notifications, stored one document each in the notifications collection
+ * instead of an array on the user document.
+ *
+ * Adding a notification is an insert, not a read-modify-write of the recipient's user,
+ * so concurrent likes/comments/follows no longer overwrite each other. Each user keeps
+ * at most MAX_PER_USER notifications; older ones are trimmed after every write.
+ *
+ * notify/remove/removeAllAbout only publish a NotificationEvent and return; the writes
+ * are done off the request thread by NotificationDispatcher, which calls apply().
+ *
+ * Likes and comments on the same post within the coalescing window share one aggregate
+ * notification that is updated in place, so a hot post costs one entry against the cap
+ * and roughly one write per dispatcher batch instead of one per like.
+ */
+@Service
+public class NotificationService {
+
+    public static final int MAX_PER_USER = 30;
+
+    private static final int MIGRATION_BATCH_SIZE = 500;
+
+    // Per-post notifications that are merged into one "alice and 14 others ..." entry
+    private static final Set<String> COALESCED = Set.of("Liked Your Post!", "Commented on Your Post!");
+    // Actors an aggregate names; older ones only count towards actorCount
+    static final int RECENT_ACTORS = 10;
+    // Event ids an aggregate remembers to recognise a retried batch
+    static final int RECENT_EVENT_IDS = 100;
+
+    private final NotificationRepository notificationRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long coalesceWindowMs;
+
+    public NotificationService(NotificationRepository notificationRepository, MongoTemplate mongoTemplate,
+                               ApplicationEventPublisher eventPublisher,
+                               @Value("${featureme.notifications.coalesce-window-ms:3600000}") long coalesceWindowMs) {
+        this.notificationRepository = notificationRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+        this.coalesceWindowMs = coalesceWindowMs;
+    }
+
+    public void notify(String recipient, String refId, String actor, String noti, NotificationsDTO.NotiType notiType) {
+        if (recipient == null) {
+            return;
+        }
+        eventPublisher.publishEvent(NotificationEvent.added(recipient, refId, actor, noti, notiType));
+    }
+
+    /**
+     * Remove a notification that no longer applies (unlike, deleted comment, unfollow)
+     */
+    public void remove(String recipient, String refId, String actor, String noti) {
+        if (recipient == null) {
+            return;
+        }
+        eventPublisher.publishEvent(NotificationEvent.removed(recipient, refId, actor, noti));
+    }
+
+    /**
+     * Remove everything a user was notified about for one post or chat
+     */
+    public void removeAllAbout(String recipient, String refId) {
+        if (recipient == null) {
+            return;
+        }
+        eventPublisher.publishEvent(NotificationEvent.removedAllAbout(recipient, refId));
+    }
+
+    /**
+     * Apply one recipient's events in the order they were published. Consecutive adds go to Mongo
+     * as a single bulk write, likes/comments on the same post are merged into one aggregate
+     * (see COALESCED) and the recipient is trimmed once at the end.
+     * Safe to retry: adds are upserts by the id assigned when the event was created, and
+     * aggregates skip events whose ids they already recorded (see RECENT_EVENT_IDS).
+     */
+    public void apply(String recipient, List<NotificationEvent> events) {
+        Pending pending = new Pending();
+        for (NotificationEvent event : events) {
+            if (event.kind() == NotificationEvent.Kind.ADD) {
+                if (isCoalesced(event.refId(), event.noti())) {
+                    pending.aggregates.computeIfAbsent(event.refId() + "\n" + event.noti() + "\n" + bucketOf(event), k -> new ArrayList<>()).add(event);
+                    continue;
+                }
+                if (pending.inserts == null) {
+                    pending.inserts = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Notification.class);
+                }
+                Notification notification = new Notification(recipient, event.refId(), event.actor(), event.noti(), event.time(), event.notiType());
+                notification.setId(event.id());
+                pending.inserts.replaceOne(new Query(Criteria.where("_id").is(event.id())), notification, FindAndReplaceOptions.options().upsert());
+                pending.added = true;
+                continue;
+            }
+            // A removal must see the adds published before it
+            flush(recipient, pending);
+            if (event.kind() == NotificationEvent.Kind.REMOVE) {
+                notificationRepository.deleteByRecipientAndRefIdAndActorAndNoti(recipient, event.refId(), event.actor(), event.noti());
+                if (isCoalesced(event.refId(), event.noti())) {
+                    removeFromAggregate(recipient, event.refId(), event.noti(), event.actor());
+                }
+            } else {
+                notificationRepository.deleteByRecipientAndRefId(recipient, event.refId());
+            }
+        }
+        flush(recipient, pending);
+        if (pending.added) {
+            trim(recipient);
+        }
+    }
+
+    private void flush(String recipient, Pending pending) {
+        if (pending.inserts != null) {
+            pending.inserts.execute();
+            pending.inserts = null;
+        }
+        for (List<NotificationEvent> group : pending.aggregates.values()) {
+            if (mergeIntoAggregate(recipient, group)) {
+                pending.added = true;
+            }
+        }
+        pending.aggregates.clear();
+    }
+
+    private static boolean isCoalesced(String refId, String noti) {
+        return refId != null && COALESCED.contains(noti);
+    }
+
+    // Coalescing windows are fixed buckets, so every instance upserts the same aggregate for an event
+    private long bucketOf(NotificationEvent event) {
+        return Math.floorDiv(event.time().toEpochMilli(), coalesceWindowMs);
+    }
+
+    /**
+     * Add the group's events to the post's aggregate for the group's window, creating it if there is none.
+     * One upsert however many events the group holds; bumps the aggregate to the top and marks it unread.
+     * actorCount counts every event while actors keeps only the last RECENT_ACTORS, so a viral post's
+     * aggregate stays small. aggregate_bucket_idx keeps concurrent upserts from creating two aggregates:
+     * the one that loses the insert gets a DuplicateKeyException and retries, which then matches the
+     * winner's aggregate. If the retry fails too, the aggregate exists and already holds these events.
+     *
+     * @return whether a new aggregate was created
+     */
+    private boolean mergeIntoAggregate(String recipient, List<NotificationEvent> group) {
+        NotificationEvent first = group.get(0);
+        NotificationEvent last = group.get(group.size() - 1);
+        List<String> actors = new ArrayList<>();
+        List<String> eventIds = new ArrayList<>();
+        for (NotificationEvent event : group) {
+            if (event.actor() != null) {
+                actors.remove(event.actor());
+                actors.add(event.actor());
+            }
+            eventIds.add(event.id());
+        }
+        long bucket = bucketOf(first);
+        Query query = new Query(aggregateOf(recipient, first.refId(), first.noti()).and("bucket").is(bucket)
+            .and("recentEventIds").nin(eventIds));
+        Update update = new Update()
+            .setOnInsert("windowStart", Instant.ofEpochMilli(bucket * coalesceWindowMs))
+            .set("notiType", last.notiType())
+            .set("read", false)
+            .max("time", last.time())
+            .inc("actorCount", group.size());
+        update.push("actors").slice(-RECENT_ACTORS).each(actors.toArray());
+        update.push("recentEventIds").slice(-RECENT_EVENT_IDS).each(eventIds.toArray());
+        try {
+            return mongoTemplate.upsert(query, update, Notification.class).getUpsertedId() != null;
+        } catch (DuplicateKeyException e) {
+            try {
+                mongoTemplate.upsert(query, update, Notification.class);
+            } catch (DuplicateKeyException alreadyApplied) {
+                // Only the recentEventIds filter can fail to match an existing aggregate
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Undo one actor's like/comment. Takes it off the newest aggregate that names the actor, or else off
+     * the newest one whose actors list is full (the actor may have been dropped from it); an aggregate
+     * whose count reaches zero goes away. Aggregates from before actorCount just drop the actor.
+     */
+    private void removeFromAggregate(String recipient, String refId, String noti, String actor) {
+        Update decrement = new Update().pull("actors", actor).inc("actorCount", -1);
+        Notification updated = mongoTemplate.findAndModify(
+            new Query(aggregateOf(recipient, refId, noti).and("actors").is(actor).and("actorCount").gt(0))
+                .with(Sort.by(Sort.Direction.DESC, "time")),
+            decrement, Notification.class);
+        if (updated == null) {
+            mongoTemplate.findAndModify(
+                new Query(aggregateOf(recipient, refId, noti).and("actors." + (RECENT_ACTORS - 1)).exists(true).and("actorCount").gt(0))
+                    .with(Sort.by(Sort.Direction.DESC, "time")),
+                decrement, Notification.class);
+        }
+        mongoTemplate.updateMulti(
+            new Query(aggregateOf(recipient, refId, noti).and("actors").is(actor).and("actorCount").exists(false)),
+            new Update().pull("actors", actor),
+            Notification.class
+        );
+        mongoTemplate.remove(new Query(aggregateOf(recipient, refId, noti).orOperator(
+            Criteria.where("actorCount").lte(0),
+            Criteria.where("actorCount").exists(false).and("actors").size(0)
+        )), Notification.class);
+    }
+
+    private static Criteria aggregateOf(String recipient, String refId, String noti) {
+        return Criteria.where("recipient").is(recipient).and("refId").is(refId).and("noti").is(noti);
+    }
+
+    // Writes collected while walking one recipient's events, flushed before any removal
+    private static final class Pending {
+        private BulkOperations inserts;
+        private final Map<String, List<NotificationEvent>> aggregates = new LinkedHashMap<>();
+        private boolean added;
+    }
+
+    public void clear(String recipient) {
+        notificationRepository.deleteByRecipient(recipient);
+    }
+
+    /**
+     * The newest notifications (up to the cap), newest first
+     */
+    public List<NotificationsDTO> getRecent(String recipient) {
+        return notificationRepository.findTop30ByRecipientOrderByTimeDesc(recipient).stream()
+            .map(Notification::toDTO)
+            .toList();
+    }
+
+    /**
+     * The newest notifications of several users in one query, newest first per user
+     */
+    public Map<String, List<NotificationsDTO>> getRecentFor(Collection<String> recipients) {
+        Map<String, List<NotificationsDTO>> byRecipient = new HashMap<>();
+        if (recipients == null || recipients.isEmpty()) {
+            return byRecipient;
+        }
+        Query query = new Query(Criteria.where("recipient").in(recipients))
+            .with(Sort.by(Sort.Direction.DESC, "time"));
+        for (Notification notification : mongoTemplate.find(query, Notification.class)) {
+            List<NotificationsDTO> list = byRecipient.computeIfAbsent(notification.getRecipient(), r -> new ArrayList<>());
+            if (list.size() < MAX_PER_USER) {
+                list.add(notification.toDTO());
+            }
+        }
+        return byRecipient;
+    }
+
+    /**
+     * Notifications the user hasn't seen yet. At most MAX_PER_USER documents, all on recipient_time_idx.
+     */
+    public long countUnread(String recipient) {
+        return mongoTemplate.count(new Query(Criteria.where("recipient").is(recipient).and("read").ne(true)), Notification.class);
+    }
+
+    public void markAllRead(String recipient) {
+        mongoTemplate.updateMulti(
+            new Query(Criteria.where("recipient").is(recipient).and("read").ne(true)),
+            new Update().set("read", true),
+            Notification.class
+        );
+    }
+
+    public PagedModel<NotificationsDTO> getPage(String recipient, int page, int size) {
+        Page<NotificationsDTO> notifications = notificationRepository
+            .findByRecipientOrderByTimeDesc(recipient, PageRequest.of(page, size))
+            .map(Notification::toDTO);
+        return new PagedModel<>(notifications);
+    }
+
+    /**
+     * Delete everything after the user's MAX_PER_USER newest notifications in (time, _id) order,
+     * so notifications sharing the cutoff's time are only deleted if they sort after it.
+     * Both queries walk recipient_time_idx.
+     */
+    private void trim(String recipient) {
+        Query cutoffQuery = new Query(Criteria.where("recipient").is(recipient))
+            .with(Sort.by(Sort.Direction.DESC, "time", "_id"))
+            .skip(MAX_PER_USER)
+            .limit(1);
+        cutoffQuery.fields().include("time");
+        Notification cutoff = mongoTemplate.findOne(cutoffQuery, Notification.class);
+        if (cutoff != null) {
+            mongoTemplate.remove(new Query(Criteria.where("recipient").is(recipient).orOperator(
+                Criteria.where("time").lt(cutoff.getTime()),
+                Criteria.where("time").is(cutoff.getTime()).and("_id").lte(cutoff.getId())
+            )), Notification.class);
+        }
+    }
+
+    /**
+     * Move notifications still embedded in user documents into the notifications collection,
+     * then unset the array. Once every user is migrated this matches nothing.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateEmbeddedNotifications() {
+        try {
+            Query query = new Query(Criteria.where("notifications").exists(true)).limit(MIGRATION_BATCH_SIZE);
+            query.fields().include("userName", "notifications");
+            long migratedUsers = 0;
+            List<User> batch;
+            while (!(batch = mongoTemplate.find(query, User.class)).isEmpty()) {
+                for (User user : batch) {
+                    migrate(user);
+                    migratedUsers++;
+                }
+            }
+            if (migratedUsers > 0) {
+                System.out.println("Moved embedded notifications of " + migratedUsers + " users to the notifications collection");
+            }
+        } catch (Exception e) {
+            System.err.println("Error migrating embedded notifications: " + e.getMessage());
+        }
+    }
+
+    private void migrate(User user) {
+        List<Notification> notifications = new ArrayList<>();
+        if (user.getNotifications() != null && user.getUserName() != null) {
+            for (NotificationsDTO dto : user.getNotifications()) {
+                Notification notification = new Notification(user.getUserName(), dto.id(), dto.userName(), dto.noti(),
+                    dto.time() != null ? dto.time() : Instant.now(), dto.notiType());
+                // Already shown to the user before the move; don't count them as unread
+                notification.setRead(true);
+                notifications.add(notification);
+            }
+        }
+        if (!notifications.isEmpty()) {
+            notificationRepository.insert(notifications);
+            trim(user.getUserName());
+        }
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(user.getId())), new Update().unset("notifications"), User.class);
+    }
+}
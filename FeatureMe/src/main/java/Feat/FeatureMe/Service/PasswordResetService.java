@@ -2,7 +2,9 @@ package Feat.FeatureMe.Service;
 
 import Feat.FeatureMe.Entity.PasswordResetCode;
 import Feat.FeatureMe.Entity.User;
+import Feat.FeatureMe.Repository.PartialUpdate;
 import Feat.FeatureMe.Repository.PasswordResetCodeRepository;
+import Feat.FeatureMe.Repository.UserFields;
 import Feat.FeatureMe.Repository.UserRepository;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -131,8 +133,7 @@ public class PasswordResetService {
         }
         
         User user = userOpt.get();
-        user.setPassword(passwordEncoder.encode(newPassword));
-        userRepository.save(user);
+        userRepository.updateUserById(user.getId(), PartialUpdate.user().set(UserFields.PASSWORD, passwordEncoder.encode(newPassword)));
         
         // Mark code as used and delete it
         resetCode.setUsed(true);
@@ -0,0 +1,91 @@
+package Feat.FeatureMe.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import Feat.FeatureMe.Entity.User;
+import Feat.FeatureMe.Repository.UserRepository;
+
+/**
+ * Batch loader for the per-post activity collections (post_likes, post_comments, post_views).
+ *
+ * Feed endpoints need the newest few likes/comments/views for every post on a page.
+ * Instead of one query per post per collection, this loads a whole page of post IDs
+ * with a single $match/$group aggregation per collection.
+ */
+@Service
+public class PostActivityBatchLoader {
+
+    private final MongoTemplate mongoTemplate;
+    private final UserRepository userRepository;
+
+    public PostActivityBatchLoader(MongoTemplate mongoTemplate, UserRepository userRepository) {
+        this.mongoTemplate = mongoTemplate;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Load the newest {@code limit} documents per post for a batch of post IDs.
+     * Uses the {postId, timeField} compound index for the match, then keeps the newest
+     * {@code limit} per post with $topN while grouping, so a post with a long history holds
+     * {@code limit} documents in the group stage instead of all of them.
+     */
+    public <T> Map<String, List<T>> loadRecentByPost(Collection<String> postIds, Class<T> entityClass, String timeField, int limit) {
+        if (postIds == null || postIds.isEmpty() || limit <= 0) {
+            return Map.of();
+        }
+
+        AggregationOperation newestPerPost = context -> new Document("$group", new Document("_id", "$postId")
+            .append("items", new Document("$topN", new Document("n", limit)
+                .append("sortBy", new Document(timeField, -1))
+                .append("output", "$$ROOT"))));
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.match(Criteria.where("postId").in(postIds)),
+            newestPerPost
+        );
+
+        List<Document> grouped = mongoTemplate.aggregate(aggregation, entityClass, Document.class).getMappedResults();
+
+        Map<String, List<T>> result = new HashMap<>();
+        for (Document group : grouped) {
+            Object postId = group.get("_id");
+            List<Document> items = group.getList("items", Document.class);
+            if (postId == null || items == null) {
+                continue;
+            }
+            result.put(postId.toString(), items.stream()
+                .map(item -> mongoTemplate.getConverter().read(entityClass, item))
+                .toList());
+        }
+        return result;
+    }
+
+    /**
+     * Resolve current profile pictures for a set of usernames with one projected $in query
+     */
+    public Map<String, String> resolveProfilePics(Collection<String> userNames) {
+        if (userNames == null || userNames.isEmpty()) {
+            return Map.of();
+        }
+
+        Set<String> distinctNames = new LinkedHashSet<>(userNames);
+        Map<String, String> profilePics = new HashMap<>();
+        for (User user : userRepository.findProfilePicsByUserNameIn(distinctNames)) {
+            if (user.getProfilePic() != null) {
+                profilePics.put(user.getUserName(), user.getProfilePic());
+            }
+        }
+        return profilePics;
+    }
+}
@@ -11,7 +11,10 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -20,10 +23,12 @@ public class PostCommentService {
     
     private final PostCommentRepository postCommentRepository;
     private final UserRepository userRepository;
+    private final PostActivityBatchLoader postActivityBatchLoader;
     
-    public PostCommentService(PostCommentRepository postCommentRepository, UserRepository userRepository) {
+    public PostCommentService(PostCommentRepository postCommentRepository, UserRepository userRepository, PostActivityBatchLoader postActivityBatchLoader) {
         this.postCommentRepository = postCommentRepository;
         this.userRepository = userRepository;
+        this.postActivityBatchLoader = postActivityBatchLoader;
     }
     
     /**
@@ -31,8 +36,9 @@ public class PostCommentService {
      */
     public PostComment addComment(String postId, String userName, String commentText) {
         // Verify user exists
-        userRepository.findByUserName(userName)
-            .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        if (!userRepository.existsByUserName(userName)) {
+            throw new IllegalArgumentException("User not found");
+        }
         
         Instant now = Instant.now();
         
@@ -76,6 +82,29 @@ public class PostCommentService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Get recent comments for a page of posts in one aggregation (batch version of getRecentComments for feed DTOs)
+     */
+    public Map<String, List<CommentDTO>> getRecentCommentsForPosts(Collection<String> postIds, int limit) {
+        Map<String, List<PostComment>> commentsByPost = postActivityBatchLoader.loadRecentByPost(postIds, PostComment.class, "time", limit);
+        
+        // Resolve all profile pictures on the page with one query instead of one per comment
+        Map<String, String> profilePics = postActivityBatchLoader.resolveProfilePics(
+            commentsByPost.values().stream().flatMap(List::stream).map(PostComment::getUserName).toList());
+        
+        Map<String, List<CommentDTO>> result = new HashMap<>();
+        commentsByPost.forEach((postId, comments) -> result.put(postId, comments.stream()
+            .map(comment -> new CommentDTO(
+                comment.getId(),
+                comment.getUserName(),
+                profilePics.get(comment.getUserName()),
+                comment.getComment(),
+                comment.getTime()
+            ))
+            .collect(Collectors.toList())));
+        return result;
+    }
+    
     /**
      * Delete a specific comment by comment ID
      * Returns the deleted comment for cleanup purposes, or null if not found/unauthorized
@@ -2,6 +2,7 @@ package Feat.FeatureMe.Service;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.springframework.data.domain.Page;
@@ -13,19 +14,19 @@ import org.springframework.stereotype.Service;
 
 import Feat.FeatureMe.Dto.PostDownloadDTO;
 import Feat.FeatureMe.Entity.PostDownload;
-import Feat.FeatureMe.Entity.User;
 import Feat.FeatureMe.Repository.PostDownloadRepository;
-import Feat.FeatureMe.Repository.UserRepository;
 
 @Service
 public class PostDownloadService {
 
+    private static final String DEFAULT_PROFILE_PIC = "../public/dpp.jpg";
+
     private final PostDownloadRepository postDownloadRepository;
-    private final UserRepository userRepository;
+    private final UserProfileResolver userProfileResolver;
 
-    public PostDownloadService(PostDownloadRepository postDownloadRepository, UserRepository userRepository) {
+    public PostDownloadService(PostDownloadRepository postDownloadRepository, UserProfileResolver userProfileResolver) {
         this.postDownloadRepository = postDownloadRepository;
-        this.userRepository = userRepository;
+        this.userProfileResolver = userProfileResolver;
     }
 
     public PostDownload createDownload(String postId, String userId, String userName) {
@@ -47,20 +48,7 @@ public class PostDownloadService {
     public List<PostDownloadDTO> getDownloadsForPost(String postId) {
         List<PostDownload> downloads = postDownloadRepository.findByPostIdOrderByDownloadTimeDesc(postId);
         
-        return downloads.stream().map(download -> {
-            // Get current user profile pic
-            String profilePic = userRepository.findById(download.getUserId())
-                .map(User::getProfilePic).orElse("../public/dpp.jpg");
-            
-            return new PostDownloadDTO(
-                download.getId(),
-                download.getPostId(),
-                download.getUserId(),
-                download.getUserName(),
-                profilePic,
-                download.getDownloadTime()
-            );
-        }).toList();
+        return toDTOs(downloads);
     }
 
     public long getDownloadCountForPost(String postId) {
@@ -71,21 +59,8 @@ public class PostDownloadService {
         Pageable pageable = PageRequest.of(page, size);
         Page<PostDownload> downloadPage = postDownloadRepository.findByPostIdOrderByDownloadTimeDesc(postId, pageable);
         
-        List<PostDownloadDTO> downloads = downloadPage.getContent().stream().map(download -> {
-            // Get current user profile pic
-            String profilePic = userRepository.findById(download.getUserId())
-                .map(User::getProfilePic).orElse("../public/dpp.jpg");
-            
-            return new PostDownloadDTO(
-                download.getId(),
-                download.getPostId(),
-                download.getUserId(),
-                download.getUserName(),
-                profilePic,
-                download.getDownloadTime()
-            );
-        }).toList();
-        
+        List<PostDownloadDTO> downloads = toDTOs(downloadPage.getContent());
+                
         // Create a new Page with the DTOs
         Page<PostDownloadDTO> downloadDTOPage = new PageImpl<>(downloads, pageable, downloadPage.getTotalElements());
         return new PagedModel<>(downloadDTOPage);
@@ -98,11 +73,17 @@ public class PostDownloadService {
     public List<PostDownloadDTO> getDownloadsByUser(String userId) {
         List<PostDownload> downloads = postDownloadRepository.findByUserId(userId);
         
+        return toDTOs(downloads);
+    }
+
+    private List<PostDownloadDTO> toDTOs(List<PostDownload> downloads) {
+        // Current profile pics for everyone on the list in one lookup (anonymous downloads resolve to nothing)
+        Map<String, UserProfileResolver.Profile> profiles = userProfileResolver.byIds(
+            downloads.stream().map(PostDownload::getUserId).toList());
+        
         return downloads.stream().map(download -> {
-            // Get current user profile pic
-            String profilePic = userRepository.findById(download.getUserId())
-                .map(User::getProfilePic).orElse("../public/dpp.jpg");
-                
+            UserProfileResolver.Profile profile = profiles.get(download.getUserId());
+            String profilePic = profile != null && profile.profilePic() != null ? profile.profilePic() : DEFAULT_PROFILE_PIC;
             
             return new PostDownloadDTO(
                 download.getId(),
@@ -8,10 +8,20 @@ import Feat.FeatureMe.Repository.UserRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import com.mongodb.client.result.UpdateResult;
+
 import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,62 +29,76 @@ public class PostLikeService {
     
     private final PostLikeRepository postLikeRepository;
     private final UserRepository userRepository;
+    private final PostActivityBatchLoader postActivityBatchLoader;
+    private final MongoTemplate mongoTemplate;
     
-    public PostLikeService(PostLikeRepository postLikeRepository, UserRepository userRepository) {
+    public PostLikeService(PostLikeRepository postLikeRepository, UserRepository userRepository, PostActivityBatchLoader postActivityBatchLoader, MongoTemplate mongoTemplate) {
         this.postLikeRepository = postLikeRepository;
         this.userRepository = userRepository;
+        this.postActivityBatchLoader = postActivityBatchLoader;
+        this.mongoTemplate = mongoTemplate;
     }
     
     /**
-     * Add a like to a post (or remove if already liked)
-     * Returns true if liked, false if unliked
+     * Add a like to a post (or remove if already liked).
+     * Uses a single upsert against the unique {postId, userName} index and falls back to
+     * a delete when the like already exists, so concurrent toggles can't double count.
+     * The returned delta is what the caller should apply to posts.totalLikes (+1, -1 or 0), and
+     * likedAt when the added or removed like was made.
      */
-    public boolean toggleLike(String postId, String userName) {
+    public LikeToggle toggleLike(String postId, String userName) {
         // Verify user exists
-        userRepository.findByUserName(userName)
-            .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        if (!userRepository.existsByUserName(userName)) {
+            throw new IllegalArgumentException("User not found");
+        }
         
-        // Check if user has already liked this post
-        if (postLikeRepository.existsByPostIdAndUserName(postId, userName)) {
-            // Unlike - remove the like
-            postLikeRepository.deleteByPostIdAndUserName(postId, userName);
-            return false; // Unliked
-        } else {
-            // Like - add new like
-            Instant now = Instant.now();
-            PostLike newLike = new PostLike(postId, userName, now);
-            postLikeRepository.save(newLike);
-            return true; // Liked
+        Instant now = Instant.now();
+        if (insertLikeIfAbsent(postId, userName, now)) {
+            return new LikeToggle(true, 1, now);
         }
+        // Already liked - unlike. Nothing removed means a concurrent request already removed it.
+        PostLike removed = mongoTemplate.findAndRemove(likeQuery(postId, userName), PostLike.class);
+        return removed != null ? new LikeToggle(false, -1, removed.getLikedAt()) : new LikeToggle(false, 0, null);
     }
     
     /**
      * Add a like to a post (only if not already liked)
      */
     public boolean addLike(String postId, String userName) {
-        if (postLikeRepository.existsByPostIdAndUserName(postId, userName)) {
-            return false; // Already liked
-        }
-        
         // Verify user exists
-        userRepository.findByUserName(userName)
-            .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        
-        Instant now = Instant.now();
-        PostLike newLike = new PostLike(postId, userName, now);
-        postLikeRepository.save(newLike);
-        return true; // Successfully liked
+        if (!userRepository.existsByUserName(userName)) {
+            throw new IllegalArgumentException("User not found");
+        }
+        return insertLikeIfAbsent(postId, userName, Instant.now());
     }
     
     /**
      * Remove a like from a post
      */
     public boolean removeLike(String postId, String userName) {
-        if (postLikeRepository.existsByPostIdAndUserName(postId, userName)) {
-            postLikeRepository.deleteByPostIdAndUserName(postId, userName);
-            return true; // Successfully unliked
+        return deleteLike(postId, userName);
+    }
+    
+    /**
+     * Conditional insert: $setOnInsert only writes when no like exists for this user/post.
+     * Returns true if a new like was created.
+     */
+    private boolean insertLikeIfAbsent(String postId, String userName, Instant likedAt) {
+        try {
+            UpdateResult result = mongoTemplate.upsert(likeQuery(postId, userName), new Update().setOnInsert("likedAt", likedAt), PostLike.class);
+            return result.getUpsertedId() != null;
+        } catch (DuplicateKeyException e) {
+            // Two concurrent upserts for the same like: the unique index lets only one insert win
+            return false;
         }
-        return false; // Wasn't liked
+    }
+    
+    private boolean deleteLike(String postId, String userName) {
+        return mongoTemplate.remove(likeQuery(postId, userName), PostLike.class).getDeletedCount() > 0;
+    }
+    
+    private static Query likeQuery(String postId, String userName) {
+        return new Query(Criteria.where("postId").is(postId).and("userName").is(userName));
     }
     
     /**
@@ -130,6 +154,23 @@ public class PostLikeService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Get recent likes for a page of posts in one aggregation (batch version of getRecentLikes for feed DTOs)
+     */
+    public Map<String, List<LikesDTO>> getRecentLikesForPosts(Collection<String> postIds, int limit) {
+        Map<String, List<PostLike>> likesByPost = postActivityBatchLoader.loadRecentByPost(postIds, PostLike.class, "likedAt", limit);
+        
+        // Resolve all profile pictures on the page with one query instead of one per like
+        Map<String, String> profilePics = postActivityBatchLoader.resolveProfilePics(
+            likesByPost.values().stream().flatMap(List::stream).map(PostLike::getUserName).toList());
+        
+        Map<String, List<LikesDTO>> result = new HashMap<>();
+        likesByPost.forEach((postId, likes) -> result.put(postId, likes.stream()
+            .map(like -> new LikesDTO(like.getUserName(), profilePics.get(like.getUserName()), like.getLikedAt()))
+            .collect(Collectors.toList())));
+        return result;
+    }
+    
     /**
      * Delete all likes for a post (when post is deleted)
      */
@@ -172,6 +213,12 @@ public class PostLikeService {
         return new PostLikeSummary(totalLikes);
     }
     
+    /**
+     * Result of a like toggle: the new state, the change to apply to the cached like count and
+     * when the added or removed like was made (null when nothing changed)
+     */
+    public record LikeToggle(boolean liked, int delta, Instant likedAt) { }
+    
     /**
      * Inner class for like summary data
      */
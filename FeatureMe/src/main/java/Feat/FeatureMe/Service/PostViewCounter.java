@@ -0,0 +1,286 @@
+package Feat.FeatureMe.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import Feat.FeatureMe.Entity.PostView;
+import Feat.FeatureMe.Entity.Posts;
+import Feat.FeatureMe.Entity.User;
+import Feat.FeatureMe.Repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write-behind buffer for post views.
+ *
+ * Views are counted in memory with one counter per (post, viewer) and flushed every
+ * few seconds: one unordered bulkWrite adding to posts.totalViews (and trendingScore) and one of upsert
+ * $inc on post_views. A hot post costs a counter increment per view instead of a
+ * read-modify-write of the post and its viewer documents.
+ *
+ * A failed write puts back only the operations the bulk reports as failed, so the ones that
+ * succeeded are not applied twice; if the outcome is unknown (no bulk result) everything is put
+ * back. totalViews increments for views already written are kept until the posts bulk succeeds.
+ * Counts still in the buffer are lost if the process is killed without a clean shutdown.
+ */
+@Service
+public class PostViewCounter {
+
+    private static final String DEFAULT_PROFILE_PIC = "../public/dpp.jpg";
+    private static final String UNKNOWN_USER = "unknown";
+
+    private final MongoTemplate mongoTemplate;
+    private final UserRepository userRepository;
+    private final TrendingScoreService trendingScoreService;
+    private final ConcurrentHashMap<ViewKey, PendingViews> pending = new ConcurrentHashMap<>();
+    // Views already in post_views whose totalViews increment is still to be written
+    private final ConcurrentHashMap<String, LongAdder> pendingPostTotals = new ConcurrentHashMap<>();
+
+    public PostViewCounter(MongoTemplate mongoTemplate, UserRepository userRepository, TrendingScoreService trendingScoreService) {
+        this.mongoTemplate = mongoTemplate;
+        this.userRepository = userRepository;
+        this.trendingScoreService = trendingScoreService;
+    }
+
+    /**
+     * Record a view; lock-free apart from the first view of a (post, viewer) pair in a flush window
+     */
+    public void record(String postId, String userName) {
+        add(new ViewKey(postId, userName), 1, Instant.now());
+    }
+
+    // An entry the flush retired between the lookup and the add takes no more views; retry on a fresh one
+    private void add(ViewKey key, long count, Instant lastView) {
+        while (true) {
+            PendingViews views = pending.computeIfAbsent(key, k -> new PendingViews());
+            if (views.add(count)) {
+                Instant current = views.lastView;
+                if (lastView != null && (current == null || lastView.isAfter(current))) {
+                    views.lastView = lastView;
+                }
+                return;
+            }
+            pending.remove(key, views);
+        }
+    }
+
+    /**
+     * Drop buffered views for a post that is being deleted so the flush doesn't recreate its view rows
+     */
+    public void discard(String postId) {
+        pending.keySet().removeIf(key -> key.postId().equals(postId));
+        pendingPostTotals.remove(postId);
+    }
+
+    @Scheduled(fixedDelayString = "${featureme.views.flush-interval-ms:5000}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (Exception e) {
+            System.err.println("Error flushing buffered post views: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            System.err.println("Error flushing buffered post views on shutdown: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Drain the buffer into Mongo. Synchronized so the shutdown flush can't interleave with a scheduled one.
+     */
+    public synchronized void flush() {
+        Map<ViewKey, Long> counts = new HashMap<>();
+        Map<ViewKey, Instant> lastViews = new HashMap<>();
+        for (Map.Entry<ViewKey, PendingViews> entry : pending.entrySet()) {
+            PendingViews views = entry.getValue();
+            long count = views.drain();
+            if (count > 0) {
+                counts.put(entry.getKey(), count);
+                lastViews.put(entry.getKey(), views.lastView);
+            } else if (views.retire()) {
+                // Idle for a whole window: evict. Retiring only succeeds at zero and record() retries
+                // on a retired entry, so a view racing the removal goes to a new entry instead of being lost
+                pending.remove(entry.getKey(), views);
+            }
+        }
+        if (!counts.isEmpty()) {
+            writeViews(counts, lastViews);
+        }
+        writePostTotals();
+    }
+
+    /**
+     * Upsert post_views; the counts that were written move on to pendingPostTotals
+     */
+    private void writeViews(Map<ViewKey, Long> counts, Map<ViewKey, Instant> lastViews) {
+        // One projected $in query for viewers; views from usernames that don't exist are dropped like before
+        Set<String> userNames = new HashSet<>();
+        counts.keySet().forEach(key -> userNames.add(key.userName()));
+        userNames.remove(UNKNOWN_USER);
+        Set<String> existingUsers = new HashSet<>();
+        Map<String, String> profilePics = new HashMap<>();
+        if (!userNames.isEmpty()) {
+            for (User user : userRepository.findProfilePicsByUserNameIn(userNames)) {
+                existingUsers.add(user.getUserName());
+                if (user.getProfilePic() != null) {
+                    profilePics.put(user.getUserName(), user.getProfilePic());
+                }
+            }
+        }
+
+        BulkOperations viewOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PostView.class);
+        List<ViewKey> flushed = new ArrayList<>();
+        Instant now = Instant.now();
+        for (Map.Entry<ViewKey, Long> entry : counts.entrySet()) {
+            ViewKey key = entry.getKey();
+            if (!UNKNOWN_USER.equals(key.userName()) && !existingUsers.contains(key.userName())) {
+                continue;
+            }
+            Instant lastView = lastViews.get(key) != null ? lastViews.get(key) : now;
+            viewOps.upsert(
+                new Query(Criteria.where("postId").is(key.postId()).and("userName").is(key.userName())),
+                new Update()
+                    .inc("viewCount", entry.getValue())
+                    .max("lastView", lastView)
+                    .setOnInsert("firstView", lastView)
+                    .setOnInsert("profilePic", profilePics.getOrDefault(key.userName(), DEFAULT_PROFILE_PIC))
+            );
+            flushed.add(key);
+        }
+        if (flushed.isEmpty()) {
+            return;
+        }
+
+        Set<Integer> failed;
+        RuntimeException error = null;
+        try {
+            viewOps.execute();
+            failed = Set.of();
+        } catch (RuntimeException e) {
+            failed = failedIndexes(e, flushed.size());
+            error = e;
+        }
+        for (int i = 0; i < flushed.size(); i++) {
+            ViewKey key = flushed.get(i);
+            if (failed.contains(i)) {
+                // Put the count back so the next flush retries it
+                add(key, counts.get(key), lastViews.get(key));
+            } else {
+                pendingPostTotals.computeIfAbsent(key.postId(), k -> new LongAdder()).add(counts.get(key));
+            }
+        }
+        if (error != null) {
+            System.err.println("Failed to write " + failed.size() + " of " + flushed.size() + " post view upserts: " + error.getMessage());
+        }
+    }
+
+    /**
+     * Add to totalViews and trendingScore for views written to post_views; failed increments stay pending
+     */
+    private void writePostTotals() {
+        Map<String, Long> totalsByPost = new HashMap<>();
+        for (Map.Entry<String, LongAdder> entry : pendingPostTotals.entrySet()) {
+            long total = entry.getValue().sumThenReset();
+            if (total > 0) {
+                totalsByPost.put(entry.getKey(), total);
+            } else {
+                pendingPostTotals.remove(entry.getKey(), entry.getValue());
+            }
+        }
+        if (totalsByPost.isEmpty()) {
+            return;
+        }
+
+        List<String> postIds = new ArrayList<>(totalsByPost.keySet());
+        BulkOperations postOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Posts.class);
+        for (String postId : postIds) {
+            long total = totalsByPost.get(postId);
+            Document fields = new Document("totalViews", new Document("$add", List.of(new Document("$ifNull", List.of("$totalViews", 0)), total)));
+            fields.putAll(trendingScoreService.increment(TrendingScoreService.VIEW_WEIGHT * total));
+            AggregationOperation set = context -> new Document("$set", fields);
+            postOps.updateOne(new Query(Criteria.where("_id").is(postId)), AggregationUpdate.from(List.of(set)));
+        }
+        try {
+            postOps.execute();
+        } catch (RuntimeException e) {
+            Set<Integer> failed = failedIndexes(e, postIds.size());
+            for (int i : failed) {
+                pendingPostTotals.computeIfAbsent(postIds.get(i), k -> new LongAdder()).add(totalsByPost.get(postIds.get(i)));
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Positions of the operations that failed; all of them when the bulk didn't report per-operation errors
+     */
+    private static Set<Integer> failedIndexes(RuntimeException e, int size) {
+        Set<Integer> failed = new HashSet<>();
+        if (e instanceof BulkOperationException bulk && !bulk.getErrors().isEmpty()) {
+            bulk.getErrors().forEach(error -> failed.add(error.getIndex()));
+        } else {
+            for (int i = 0; i < size; i++) {
+                failed.add(i);
+            }
+        }
+        return failed;
+    }
+
+    private record ViewKey(String postId, String userName) { }
+
+    /**
+     * Views of one (post, viewer) pair since the last flush. The count is a CAS counter rather than
+     * a LongAdder so the flush can retire an idle entry atomically with seeing it empty.
+     */
+    private static final class PendingViews {
+        private static final long RETIRED = -1;
+
+        private final AtomicLong count = new AtomicLong();
+        private volatile Instant lastView;
+
+        // False once retired
+        boolean add(long views) {
+            long current;
+            do {
+                current = count.get();
+                if (current == RETIRED) {
+                    return false;
+                }
+            } while (!count.compareAndSet(current, current + views));
+            return true;
+        }
+
+        // Only the (synchronized) flush drains or retires, so a live entry is never retired here
+        long drain() {
+            return count.getAndSet(0);
+        }
+
+        boolean retire() {
+            return count.compareAndSet(0, RETIRED);
+        }
+    }
+}
@@ -2,67 +2,37 @@ package Feat.FeatureMe.Service;
 
 import Feat.FeatureMe.Dto.ViewsDTO;
 import Feat.FeatureMe.Entity.PostView;
-import Feat.FeatureMe.Entity.User;
 import Feat.FeatureMe.Repository.PostViewRepository;
-import Feat.FeatureMe.Repository.UserRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class PostViewService {
     
     private final PostViewRepository postViewRepository;
-    private final UserRepository userRepository;
+    private final PostActivityBatchLoader postActivityBatchLoader;
+    private final PostViewCounter postViewCounter;
     
-    public PostViewService(PostViewRepository postViewRepository, UserRepository userRepository) {
+    public PostViewService(PostViewRepository postViewRepository, PostActivityBatchLoader postActivityBatchLoader, PostViewCounter postViewCounter) {
         this.postViewRepository = postViewRepository;
-        this.userRepository = userRepository;
+        this.postActivityBatchLoader = postActivityBatchLoader;
+        this.postViewCounter = postViewCounter;
     }
     
     /**
-     * Add a view for a post by a user
+     * Add a view for a post by a user.
+     * Buffered in PostViewCounter and written to post_views / posts.totalViews on the next flush.
      */
     public void addView(String postId, String userName) {
-        User user = null;
-        String profilePic = "../public/dpp.jpg"; // Default profile pic
-        
-        // Handle unknown/anonymous users
-        if (!"unknown".equals(userName)) {
-            user = userRepository.findByUserName(userName)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-            profilePic = user.getProfilePic();
-        }
-        
-        Instant now = Instant.now();
-        
-        // Check if user has already viewed this post
-        Optional<PostView> existingView = postViewRepository.findByPostIdAndUserName(postId, userName);
-        
-        if (existingView.isPresent()) {
-            // Update existing view - increment count and update last view time
-            PostView view = existingView.get();
-            view.setLastView(now);
-            view.setViewCount(view.getViewCount() + 1);
-            postViewRepository.save(view);
-        } else {
-            // Create new view entry
-            PostView newView = new PostView(
-                postId,
-                userName,
-                profilePic,
-                now, // First view time
-                now, // Last view time (same as first for new views)
-                1    // Initial view count
-            );
-            postViewRepository.save(newView);
-        }
+        postViewCounter.record(postId, userName);
     }
     
     /**
@@ -105,10 +75,24 @@ public class PostViewService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Get recent views for a page of posts in one aggregation (batch version of getRecentViews for feed DTOs)
+     */
+    public Map<String, List<ViewsDTO>> getRecentViewsForPosts(Collection<String> postIds, int limit) {
+        Map<String, List<PostView>> viewsByPost = postActivityBatchLoader.loadRecentByPost(postIds, PostView.class, "lastView", limit);
+        
+        Map<String, List<ViewsDTO>> result = new HashMap<>();
+        viewsByPost.forEach((postId, views) -> result.put(postId, views.stream()
+            .map(this::convertToViewsDTO)
+            .collect(Collectors.toList())));
+        return result;
+    }
+    
     /**
      * Delete all views for a post (when post is deleted)
      */
     public void deleteViewsForPost(String postId) {
+        postViewCounter.discard(postId);
         postViewRepository.deleteByPostId(postId);
     }
     
@@ -9,24 +9,29 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PagedModel;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
 import Feat.FeatureMe.Dto.CommentDTO;
-import Feat.FeatureMe.Dto.CommentedOnDTO;
+import Feat.FeatureMe.Dto.CursorPageDTO;
 import Feat.FeatureMe.Dto.ViewsDTO;
 import Feat.FeatureMe.Dto.LikesDTO;
 import Feat.FeatureMe.Dto.NotificationsDTO;
+import Feat.FeatureMe.Dto.PostCursor;
 import Feat.FeatureMe.Dto.PostsDTO;
 import Feat.FeatureMe.Dto.UserPostsDTO;
+import Feat.FeatureMe.Entity.AuthorSnapshot;
 import Feat.FeatureMe.Entity.PostComment;
 import Feat.FeatureMe.Entity.Posts;
 import Feat.FeatureMe.Entity.User;
+import Feat.FeatureMe.Repository.PartialUpdate;
+import Feat.FeatureMe.Repository.PostFields;
 import Feat.FeatureMe.Repository.PostsRepository;
 import Feat.FeatureMe.Repository.UserRepository;
 import Feat.FeatureMe.Service.S3Service;
@@ -34,20 +39,32 @@ import Feat.FeatureMe.Service.S3Service;
 @Service
 public class PostsService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 50;
+
     private final PostsRepository postsRepository;
     private final UserRepository userRepository;
     private final PostViewService postViewService;
     private final PostCommentService postCommentService;
     private final PostLikeService postLikeService;
     private final S3Service s3Service;
+    private final FeedCacheService feedCacheService;
+    private final TrendingScoreService trendingScoreService;
+    private final NotificationService notificationService;
+    private final TimelineService timelineService;
+    private final ApplicationEventPublisher eventPublisher;
     
-    public PostsService(PostsRepository postsRepository, UserRepository userRepository, PostViewService postViewService, PostCommentService postCommentService, PostLikeService postLikeService, S3Service s3Service) {
+    public PostsService(PostsRepository postsRepository, UserRepository userRepository, PostViewService postViewService, PostCommentService postCommentService, PostLikeService postLikeService, S3Service s3Service, FeedCacheService feedCacheService, TrendingScoreService trendingScoreService, NotificationService notificationService, TimelineService timelineService, ApplicationEventPublisher eventPublisher) {
         this.postsRepository = postsRepository;
         this.userRepository = userRepository;
         this.postViewService = postViewService;
         this.postCommentService = postCommentService;
         this.postLikeService = postLikeService;
         this.s3Service = s3Service;
+        this.feedCacheService = feedCacheService;
+        this.trendingScoreService = trendingScoreService;
+        this.notificationService = notificationService;
+        this.timelineService = timelineService;
+        this.eventPublisher = eventPublisher;
     }
     
 
@@ -80,6 +97,183 @@ public class PostsService {
         }
     }
     
+    
+    private Map<String, List<LikesDTO>> getLikesForPosts(List<String> postIds) {
+        try {
+            // Get recent likes for the whole page in one aggregation (limit to 10 per post)
+            return postLikeService.getRecentLikesForPosts(postIds, 10);
+        } catch (Exception e) {
+            return Map.of(); // Return empty map on error
+        }
+    }
+    
+    
+    private Map<String, List<CommentDTO>> getCommentsForPosts(List<String> postIds) {
+        try {
+            // Get recent comments for the whole page in one aggregation (limit to 10 per post)
+            return postCommentService.getRecentCommentsForPosts(postIds, 10);
+        } catch (Exception e) {
+            return Map.of(); // Return empty map on error
+        }
+    }
+    
+    
+    private Map<String, List<ViewsDTO>> getViewsForPosts(List<String> postIds) {
+        try {
+            // Get recent views for the whole page in one aggregation (limit to 10 per post)
+            return postViewService.getRecentViewsForPosts(postIds, 10);
+        } catch (Exception e) {
+            return Map.of(); // Return empty map on error
+        }
+    }
+    
+    
+    /**
+     * Build the author DTO from the embedded snapshot; only legacy posts without
+     * a snapshot fall back to resolving the lazy author reference
+     */
+    private UserPostsDTO toUserPostsDTO(Posts p) {
+        AuthorSnapshot a = p.getAuthorSnapshot();
+        if (a != null) {
+            return new UserPostsDTO(
+                a.getId(),
+                a.getUserName(),
+                a.getProfilePic(),
+                a.getBanner(),
+                a.getBio(),
+                a.getLocation(),
+                a.getRole()
+            );
+        }
+        return toUserPostsDTO(p.getAuthor());
+    }
+    
+    
+    /**
+     * The author's user name from the embedded snapshot, so notifying the author doesn't load the
+     * author document; only legacy posts without a snapshot resolve the lazy reference
+     */
+    private static String authorNameOf(Posts p) {
+        if (p.getAuthorSnapshot() != null) {
+            return p.getAuthorSnapshot().getUserName();
+        }
+        return p.getAuthor() != null ? p.getAuthor().getUserName() : null;
+    }
+    
+    
+    private UserPostsDTO toUserPostsDTO(User u) {
+        return new UserPostsDTO(
+            u.getId(),
+            u.getUserName(),
+            u.getProfilePic(),
+            u.getBanner(),
+            u.getBio(),
+            u.getLocation(),
+            u.getRole()
+        );
+    }
+    
+    
+    private PostsDTO toPostsDTO(Posts p, List<CommentDTO> comments, List<LikesDTO> likes, List<ViewsDTO> views) {
+        return new PostsDTO(
+            p.getId(),
+            toUserPostsDTO(p),
+            p.getTitle(),
+            p.getDescription(),
+            p.getFeatures(),
+            p.getPendingFeatures(),
+            p.getStatus(),
+            p.getPrice(),
+            p.isFreeDownload(),
+            p.getGenre(),
+            p.getMusic(),
+            comments,
+            p.getTime(),
+            likes,
+            views,
+            p.getTotalViews(),
+            p.getTotalComments(),
+            p.getTotalDownloads()
+        );
+    }
+    
+    
+    /**
+     * Convert a single post to a DTO (detail view)
+     */
+    private PostsDTO toPostsDTO(Posts p) {
+        return toPostsDTO(p, getCommentsForPost(p.getId()), getLikesForPost(p.getId()), getViewsForPost(p.getId()));
+    }
+    
+    
+    /**
+     * Convert a page of posts to DTOs. Recent likes, comments and views are loaded for
+     * the whole page at once (3 queries total instead of 3 per post).
+     */
+    private List<PostsDTO> toPostsDTOs(List<Posts> posts) {
+        if (posts.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        List<String> postIds = posts.stream().map(Posts::getId).toList();
+        Map<String, List<CommentDTO>> comments = getCommentsForPosts(postIds);
+        Map<String, List<LikesDTO>> likes = getLikesForPosts(postIds);
+        Map<String, List<ViewsDTO>> views = getViewsForPosts(postIds);
+        
+        return posts.stream()
+            .map(p -> toPostsDTO(
+                p,
+                comments.getOrDefault(p.getId(), List.of()),
+                likes.getOrDefault(p.getId(), List.of()),
+                views.getOrDefault(p.getId(), List.of())
+            ))
+            .collect(Collectors.toList());
+    }
+    
+    
+    private Page<PostsDTO> toPostsDTOPage(Page<Posts> postsPage) {
+        return new PageImpl<>(toPostsDTOs(postsPage.getContent()), postsPage.getPageable(), postsPage.getTotalElements());
+    }
+    
+    
+    /**
+     * Serve a feed page from the Redis-materialized feed if it's cached; empty means query Mongo
+     */
+    private Optional<PagedModel<PostsDTO>> getFeedPageFromCache(FeedCacheService.FeedSort sort, String genre, int page, int size) {
+        Optional<List<String>> ids = feedCacheService.getPageIds(sort, genre, page, size);
+        Optional<Long> total = feedCacheService.getTotal(genre);
+        if (ids.isEmpty() || total.isEmpty()) {
+            return Optional.empty();
+        }
+        Page<PostsDTO> cachedPage = new PageImpl<>(getPostCards(ids.get()), PageRequest.of(page, size), total.get());
+        return Optional.of(new PagedModel<PostsDTO>(cachedPage));
+    }
+    
+    
+    /**
+     * Post cards in the given order: cached cards first, then one batch load for the misses
+     */
+    public List<PostsDTO> getPostCards(List<String> ids) {
+        Map<String, PostsDTO> cards = new HashMap<>(feedCacheService.getCards(ids));
+        List<String> missing = ids.stream().filter(id -> !cards.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            long loadStamp = feedCacheService.cardLoadStamp();
+            List<PostsDTO> loaded = toPostsDTOs(postsRepository.findAllById(missing));
+            feedCacheService.putCards(loaded, loadStamp);
+            loaded.forEach(card -> cards.put(card.id(), card));
+        }
+        // Posts deleted since the feed was built are skipped
+        return ids.stream().map(cards::get).filter(java.util.Objects::nonNull).collect(Collectors.toList());
+    }
+
+    /**
+     * Posts from the accounts this user follows, newest first, cursor-paged
+     */
+    public CursorPageDTO<PostsDTO> getTimeline(String userName, String cursor, int size) {
+        CursorPageDTO<String> ids = timelineService.getTimeline(userName, cursor, size);
+        return new CursorPageDTO<>(getPostCards(ids.content()), ids.nextCursor(), ids.hasNext());
+    }
+    
         
     public Posts createPost(String authorId, Posts posts) {
         User author = userRepository.findById(authorId)
@@ -108,64 +302,31 @@ public class PostsService {
         // Set the new fields
         post.setPendingFeatures(requestedFeatures != null ? new ArrayList<>(requestedFeatures) : new ArrayList<>());
         post.setStatus(postStatus);
+        if ("PUBLISHED".equals(postStatus)) {
+            trendingScoreService.seed(post);
+        }
         
         Posts savedPost = postsRepository.insert(post);
-        PostsDTO postDto = new PostsDTO(
-            savedPost.getId(),
-            new UserPostsDTO(
-                author.getId(),
-                author.getUserName(),
-                author.getProfilePic(),
-                author.getBanner(),
-                author.getBio(),
-                author.getLocation(),
-                author.getRole()
-                        
-            ),
-            savedPost.getTitle(),
-            savedPost.getDescription(),
-            savedPost.getFeatures(),
-            savedPost.getPendingFeatures(),
-            savedPost.getStatus(),
-            savedPost.getPrice(),
-            savedPost.isFreeDownload(),
-            savedPost.getGenre(),
-            savedPost.getMusic(),
-            getCommentsForPost(savedPost.getId()),
-            savedPost.getTime(),
-            getLikesForPost(savedPost.getId()),
-            getViewsForPost(savedPost.getId()),
-            savedPost.getTotalViews(),
-            savedPost.getTotalComments(),
-            savedPost.getTotalDownloads()
-            
-        );
-
-        // Update user's posts list
-        if (author.getPosts() == null) {
-            author.setPosts(new ArrayList<>());
-        }
-        author.getPosts().add(savedPost.getId());
+        eventPublisher.publishEvent(UserActivityChangedEvent.of(author.getUserName()));
         
-        userRepository.save(author);
+        if ("PUBLISHED".equals(savedPost.getStatus())) {
+            feedCacheService.onPublished(savedPost);
+            timelineService.onPublished(savedPost);
+        }
 
         // Send approval requests to featured users instead of auto-adding
         if (requestedFeatures != null && !requestedFeatures.isEmpty()) {
             List<User> featuredUsers = userRepository.findByUserNameIn(requestedFeatures);
-            
+
             for(User featuredUser : featuredUsers) {
-                if(featuredUser.getNotifications() == null){
-                    featuredUser.setNotifications(new ArrayList<>());
-                }
                 // Send approval request notification instead of confirmation
-                featuredUser.getNotifications().add(new NotificationsDTO(
-                    postDto.id(), 
-                    author.getUserName(), 
-                    "Wants to feature you in their post '" + posts.getTitle() + "'. Approve or reject this feature request.", 
-                    Instant.now(),
+                notificationService.notify(
+                    featuredUser.getUserName(),
+                    savedPost.getId(),
+                    author.getUserName(),
+                    "Wants to feature you in their post '" + posts.getTitle() + "'. Approve or reject this feature request.",
                     NotificationsDTO.NotiType.POST
-                ));
-                userRepository.save(featuredUser);
+                );
             }
         }
         
@@ -177,62 +338,58 @@ public class PostsService {
         Posts post = postsRepository.findById(postId)
             .orElseThrow(() -> new IllegalArgumentException("Post not found or has been deleted"));
         
-        User approver = userRepository.findByUserName(approverUserName)
-            .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        if (!userRepository.existsByUserName(approverUserName)) {
+            throw new IllegalArgumentException("User not found");
+        }
         
         // Check if user is in pending features
         if (post.getPendingFeatures() == null || !post.getPendingFeatures().contains(approverUserName)) {
             return false; // User not in pending features
         }
         
-        // Move from pending to approved features
-        post.getPendingFeatures().remove(approverUserName);
-        if (post.getFeatures() == null) {
-            post.setFeatures(new ArrayList<>());
-        }
-        post.getFeatures().add(approverUserName);
-        
-        // Add post to user's featuredOn list
-        if (approver.getFeaturedOn() == null) {
-            approver.setFeaturedOn(new ArrayList<>());
+        // Move from pending to approved features. Conditional, so concurrent approvals/rejections
+        // of the same post can't overwrite each other's changes
+        Posts updated = postsRepository.updatePost(postId, PartialUpdate.post()
+            .requireContains(PostFields.PENDING_FEATURES, approverUserName)
+            .pull(PostFields.PENDING_FEATURES, approverUserName)
+            .addToSet(PostFields.FEATURES, approverUserName));
+        if (updated == null) {
+            return false; // Handled by a concurrent request
         }
-        approver.getFeaturedOn().add(postId);
         
         // Check if all features are approved
-        if (post.getPendingFeatures().isEmpty()) {
-            post.setStatus("PUBLISHED");
-            
-            // Notify post author that post is now published
-            User author = post.getAuthor();
-            if (author.getNotifications() == null) {
-                author.setNotifications(new ArrayList<>());
+        Posts published = null;
+        if (updated.getPendingFeatures() == null || updated.getPendingFeatures().isEmpty()) {
+            published = publishFeaturedPost(postId);
+            if (published != null) {
+                // Notify post author that post is now published
+                notificationService.notify(
+                    authorNameOf(post),
+                    postId,
+                    "System",
+                    "Your post '" + post.getTitle() + "' is now published! All featured users have approved.",
+                    NotificationsDTO.NotiType.POST
+                );
             }
-            author.getNotifications().add(new NotificationsDTO(
-                postId, 
-                "System", 
-                "Your post '" + post.getTitle() + "' is now published! All featured users have approved.", 
-                Instant.now(),
-                NotificationsDTO.NotiType.POST
-            ));
-            userRepository.save(author);
         } else {
-            post.setStatus("PARTIALLY_APPROVED");
+            markPartiallyApproved(postId);
         }
-        
+
         // Notify approver
-        if (approver.getNotifications() == null) {
-            approver.setNotifications(new ArrayList<>());
-        }
-        approver.getNotifications().add(new NotificationsDTO(
-            postId, 
-            post.getAuthor().getUserName(), 
-            "You approved the feature request for '" + post.getTitle() + "'", 
-            Instant.now(),
+        notificationService.notify(
+            approverUserName,
+            postId,
+            authorNameOf(post),
+            "You approved the feature request for '" + post.getTitle() + "'",
             NotificationsDTO.NotiType.POST
-        ));
+        );
         
-        postsRepository.save(post);
-        userRepository.save(approver);
+        eventPublisher.publishEvent(UserActivityChangedEvent.of(approverUserName));
+        feedCacheService.evictCard(postId);
+        if (published != null) {
+            feedCacheService.onPublished(published);
+            timelineService.onPublished(published);
+        }
         
         return true;
     }
@@ -241,8 +398,9 @@ public class PostsService {
         Posts post = postsRepository.findById(postId)
             .orElseThrow(() -> new IllegalArgumentException("Post not found or has been deleted"));
         
-        User rejecter = userRepository.findByUserName(rejecterUserName)
-            .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        if (!userRepository.existsByUserName(rejecterUserName)) {
+            throw new IllegalArgumentException("User not found");
+        }
         
         // Check if user is in pending features
         if (post.getPendingFeatures() == null || !post.getPendingFeatures().contains(rejecterUserName)) {
@@ -250,161 +408,147 @@ public class PostsService {
         }
         
         // Remove from pending features
-        post.getPendingFeatures().remove(rejecterUserName);
+        Posts updated = postsRepository.updatePost(postId, PartialUpdate.post()
+            .requireContains(PostFields.PENDING_FEATURES, rejecterUserName)
+            .pull(PostFields.PENDING_FEATURES, rejecterUserName));
+        if (updated == null) {
+            return false; // Handled by a concurrent request
+        }
         
         // Check if there are remaining pending features
-        if (post.getPendingFeatures().isEmpty()) {
+        Posts published = null;
+        if (updated.getPendingFeatures() == null || updated.getPendingFeatures().isEmpty()) {
             // If no pending features remain, publish with approved features only
-            post.setStatus("PUBLISHED");
-            
-            // Notify post author
-            User author = post.getAuthor();
-            if (author.getNotifications() == null) {
-                author.setNotifications(new ArrayList<>());
+            published = publishFeaturedPost(postId);
+            if (published != null) {
+                // Notify post author
+                notificationService.notify(
+                    authorNameOf(post),
+                    postId,
+                    "System",
+                    "Your post '" + post.getTitle() + "' is now published with approved features only.",
+                    NotificationsDTO.NotiType.POST
+                );
             }
-            author.getNotifications().add(new NotificationsDTO(
-                postId, 
-                "System", 
-                "Your post '" + post.getTitle() + "' is now published with approved features only.", 
-                Instant.now(),
-                NotificationsDTO.NotiType.POST
-            ));
-            userRepository.save(author);
-        } else if (!post.getFeatures().isEmpty()) {
-            post.setStatus("PARTIALLY_APPROVED");
+        } else if (updated.getFeatures() != null && !updated.getFeatures().isEmpty()) {
+            markPartiallyApproved(postId);
         }
-        
+
         // Notify rejecter
-        if (rejecter.getNotifications() == null) {
-            rejecter.setNotifications(new ArrayList<>());
-        }
-        rejecter.getNotifications().add(new NotificationsDTO(
-            postId, 
-            post.getAuthor().getUserName(), 
-            "You rejected the feature request for '" + post.getTitle() + "'", 
-            Instant.now(),
+        notificationService.notify(
+            rejecterUserName,
+            postId,
+            authorNameOf(post),
+            "You rejected the feature request for '" + post.getTitle() + "'",
             NotificationsDTO.NotiType.POST
-        ));
-        
+        );
+
         // Notify post author about rejection
-        User author = post.getAuthor();
-        if (author.getNotifications() == null) {
-            author.setNotifications(new ArrayList<>());
-        }
-        author.getNotifications().add(new NotificationsDTO(
-            postId, 
-            rejecterUserName, 
-            rejecterUserName + " rejected the feature request for '" + post.getTitle() + "'", 
-            Instant.now(),
+        notificationService.notify(
+            authorNameOf(post),
+            postId,
+            rejecterUserName,
+            rejecterUserName + " rejected the feature request for '" + post.getTitle() + "'",
             NotificationsDTO.NotiType.POST
-        ));
+        );
         
-        postsRepository.save(post);
-        userRepository.save(rejecter);
-        userRepository.save(author);
+        feedCacheService.evictCard(postId);
+        if (published != null) {
+            feedCacheService.onPublished(published);
+            timelineService.onPublished(published);
+        }
         
         return true;
     }
     
+    /**
+     * Publish a post whose last pending feature was just resolved. Only the request that
+     * actually flips the status gets the post back (and adds the publish weight); null otherwise.
+     */
+    private Posts publishFeaturedPost(String postId) {
+        Posts published = postsRepository.updatePost(postId, PartialUpdate.post()
+            .requireEmpty(PostFields.PENDING_FEATURES)
+            .requireNot(PostFields.STATUS, "PUBLISHED")
+            .set(PostFields.STATUS, "PUBLISHED"));
+        if (published == null) {
+            return null;
+        }
+        Posts scored = postsRepository.addTrendingScore(postId, trendingScoreService.increment(TrendingScoreService.PUBLISH_WEIGHT));
+        return scored != null ? scored : published;
+    }
+    
+    // Never downgrades a post that a concurrent request already published
+    private void markPartiallyApproved(String postId) {
+        postsRepository.updatePost(postId, PartialUpdate.post()
+            .requireNot(PostFields.STATUS, "PUBLISHED")
+            .set(PostFields.STATUS, "PARTIALLY_APPROVED"));
+    }
+    
     public List<PostsDTO> getPendingFeatureRequests(String userName) {
-        // Find all posts where user is in pendingFeatures
-        List<Posts> posts = postsRepository.findAll().stream()
-            .filter(post -> post.getPendingFeatures() != null && post.getPendingFeatures().contains(userName))
-            .collect(java.util.stream.Collectors.toList());
+        // Indexed lookup of posts where user is in pendingFeatures
+        return toPostsDTOs(postsRepository.findByPendingFeaturesOrderByTimeDesc(userName));
+    }
+    
+    public PagedModel<PostsDTO> getPendingFeatureRequests(String userName, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        Page<Posts> postsPage = postsRepository.findByPendingFeaturesOrderByTimeDesc(userName, pageable);
         
-        return posts.stream().map(p -> {
-            User u = p.getAuthor();
-            UserPostsDTO author = new UserPostsDTO(
-                u.getId(),
-                u.getUserName(),
-                u.getProfilePic(),
-                u.getBanner(),
-                u.getBio(),
-                u.getLocation(),
-                u.getRole()
-            );
-            return new PostsDTO(
-                p.getId(),
-                author,
-                p.getTitle(),
-                p.getDescription(),
-                p.getFeatures(),
-                p.getPendingFeatures(),
-                p.getStatus(),
-                p.getPrice(),
-                p.isFreeDownload(),
-                p.getGenre(),
-                p.getMusic(),
-                getCommentsForPost(p.getId()),
-                p.getTime(),
-                getLikesForPost(p.getId()),
-                getViewsForPost(p.getId()),
-                p.getTotalViews(),
-                p.getTotalComments(),
-                p.getTotalDownloads()
-            );
-        }).collect(java.util.stream.Collectors.toList());
+        return new PagedModel<PostsDTO>(toPostsDTOPage(postsPage));
+    }
+    
+    // Count only, for the pending-requests badge
+    public long countPendingFeatureRequests(String userName) {
+        return postsRepository.countByPendingFeatures(userName);
     }
     
     
     public Posts updatePost(String id, Posts updatedPosts){
-        Posts posts = postsRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("posts not found"));
-        posts = new Posts(
-            posts.getId(),
-            posts.getAuthor(),
-            updatedPosts.getTitle() != null && !updatedPosts.getTitle().isBlank() ? updatedPosts.getTitle() : posts.getTitle(),
-            updatedPosts.getDescription() != null && !updatedPosts.getDescription().isBlank() ? updatedPosts.getDescription() : posts.getDescription(),
-            updatedPosts.getFeatures() != null && !updatedPosts.getFeatures().isEmpty() ? updatedPosts.getFeatures() : posts.getFeatures(),
-            updatedPosts.getPrice() != 0 ? updatedPosts.getPrice() : posts.getPrice(),
-            updatedPosts.getGenre() != null && !updatedPosts.getGenre().isEmpty() ? updatedPosts.getGenre() : posts.getGenre(),
-            updatedPosts.getMusic() != null && !updatedPosts.getMusic().isBlank() ? updatedPosts.getMusic() : posts.getMusic(),
-            updatedPosts.getTime() != null ? updatedPosts.getTime() : posts.getTime(),
-            posts.getTotalViews(), // Preserve existing totalViews
-            posts.isFreeDownload()
-        );
-        return postsRepository.save(posts);
+        Posts before = postsRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("posts not found"));
+        
+        // $set only the fields the client sent; counters, status, pending features and the author are left as they are
+        PartialUpdate<Posts> update = PartialUpdate.post();
+        if (updatedPosts.getTitle() != null && !updatedPosts.getTitle().isBlank()) {
+            update.set(PostFields.TITLE, updatedPosts.getTitle());
+        }
+        if (updatedPosts.getDescription() != null && !updatedPosts.getDescription().isBlank()) {
+            update.set(PostFields.DESCRIPTION, updatedPosts.getDescription());
+        }
+        if (updatedPosts.getFeatures() != null && !updatedPosts.getFeatures().isEmpty()) {
+            update.setAll(PostFields.FEATURES, updatedPosts.getFeatures());
+        }
+        if (updatedPosts.getPrice() != 0) {
+            update.set(PostFields.PRICE, updatedPosts.getPrice());
+        }
+        if (updatedPosts.getGenre() != null && !updatedPosts.getGenre().isEmpty()) {
+            update.setAll(PostFields.GENRE, updatedPosts.getGenre());
+        }
+        if (updatedPosts.getMusic() != null && !updatedPosts.getMusic().isBlank()) {
+            update.set(PostFields.MUSIC, updatedPosts.getMusic());
+        }
+        if (updatedPosts.getTime() != null) {
+            update.set(PostFields.TIME, updatedPosts.getTime());
+        }
+        if (update.isEmpty()) {
+            return before;
+        }
+        
+        Posts saved = postsRepository.updatePost(id, update);
+        if (saved == null) {
+            throw new IllegalArgumentException("posts not found");
+        }
+        feedCacheService.onUpdated(before, saved);
+        return saved;
     }
     
     
 
     public PostsDTO getPostById(String id) {
-        try {
+        // Served from the post card cache; concurrent misses for a hot post share one load
+        return feedCacheService.loadCard(id, () -> {
             Posts post = postsRepository.findById(id)
                        .orElseThrow(() -> new IllegalArgumentException("Post not found"));
-            User u = post.getAuthor();
-            UserPostsDTO author = new UserPostsDTO(
-                u.getId(),
-                u.getUserName(),
-                u.getProfilePic(),
-                u.getBanner(),
-                u.getBio(),
-                u.getLocation(),
-                u.getRole()
-            );
-            
-            return new PostsDTO(
-                post.getId(),
-                author,
-                post.getTitle(),
-                post.getDescription(),
-                post.getFeatures(),
-                post.getPendingFeatures(),
-                post.getStatus(),
-                post.getPrice(),
-                post.isFreeDownload(),
-                post.getGenre(),
-                post.getMusic(),
-                getCommentsForPost(post.getId()),
-                post.getTime(),
-                getLikesForPost(post.getId()),
-                getViewsForPost(post.getId()),
-                post.getTotalViews(),
-                post.getTotalComments(),
-                post.getTotalDownloads()
-            );
-        } catch (Exception e) {
-            throw e;
-        }
+            return toPostsDTO(post);
+        });
     }
     
     
@@ -422,53 +566,26 @@ public class PostsService {
         }
         
         Posts post = postsRepository.findById(id).get();
-        List<String> approvedFeatures = post.getFeatures();
         List<String> pendingFeatures = post.getPendingFeatures();
-        User author = userRepository.findById(post.getAuthor().getId()).get();
+        String authorName = authorNameOf(post);
         
-        // Remove post from author's posts list
-        if (author.getPosts() != null) {
-            author.getPosts().remove(id);
-        }
-        userRepository.save(author);
-
-        // Clean up APPROVED features (remove from their featuredOn lists)
-        if (approvedFeatures != null && !approvedFeatures.isEmpty()) {
-            List<User> approvedUsers = userRepository.findByUserNameIn(approvedFeatures);
-            
-            for (User featuredUser : approvedUsers) {
-                if (featuredUser != null && featuredUser.getFeaturedOn() != null) {
-                    featuredUser.getFeaturedOn().remove(id);
-                    userRepository.save(featuredUser);
-                }
-            }
-        }
+        // The author's posts and the approved features' featuredOn lists are queried from posts,
+        // so deleting the post below is all it takes to drop it from them
         
         // Clean up PENDING features (notify them that post was deleted)
         if (pendingFeatures != null && !pendingFeatures.isEmpty()) {
-            List<User> pendingUsers = userRepository.findByUserNameIn(pendingFeatures);
-            
-            for (User pendingUser : pendingUsers) {
-                if (pendingUser != null) {
-                    // Remove any existing notifications related to this post
-                    if (pendingUser.getNotifications() != null) {
-                        pendingUser.getNotifications().removeIf(notification -> 
-                            id.equals(notification.id()));
-                    }
-                    
-                    // Add deletion notification
-                    if (pendingUser.getNotifications() == null) {
-                        pendingUser.setNotifications(new ArrayList<>());
-                    }
-                    pendingUser.getNotifications().add(new NotificationsDTO(
-                        null, // No post ID since it's deleted
-                        author.getUserName(),
-                        "Deleted their post '" + post.getTitle() + "' before you could approve/reject the feature request.",
-                        Instant.now(),
-                        NotificationsDTO.NotiType.POST
-                    ));
-                    userRepository.save(pendingUser);
-                }
+            for (String pendingUserName : pendingFeatures) {
+                // Remove any existing notifications related to this post
+                notificationService.removeAllAbout(pendingUserName, id);
+
+                // Add deletion notification
+                notificationService.notify(
+                    pendingUserName,
+                    null, // No post ID since it's deleted
+                    authorName,
+                    "Deleted their post '" + post.getTitle() + "' before you could approve/reject the feature request.",
+                    NotificationsDTO.NotiType.POST
+                );
             }
         }
         
@@ -497,118 +614,42 @@ public class PostsService {
         // Delete all views for this post from the PostView collection
         postViewService.deleteViewsForPost(id);
         
+        feedCacheService.onDeleted(post);
+        
         // Finally, delete the post from database
         postsRepository.deleteById(id);
+        
+        List<String> affected = new ArrayList<>();
+        if (authorName != null) {
+            affected.add(authorName);
+        }
+        if (post.getFeatures() != null) {
+            affected.addAll(post.getFeatures());
+        }
+        eventPublisher.publishEvent(new UserActivityChangedEvent(affected));
     }
 
     public List<PostsDTO> getFeaturedOn(String userName){
-        return postsRepository.findByFeatures(userName).stream()
+        List<Posts> published = postsRepository.findByFeatures(userName).stream()
             .filter(p -> "PUBLISHED".equals(p.getStatus()))
-            .map(p -> {
-                User u = p.getAuthor();
-            UserPostsDTO author = new UserPostsDTO(
-                u.getId(),
-                u.getUserName(),
-                u.getProfilePic(),
-                u.getBanner(),
-                u.getBio(),
-                u.getLocation(),
-                u.getRole()
-            );
-                return new PostsDTO(
-                    p.getId(),
-                    author,
-                    p.getTitle(),
-                    p.getDescription(),
-                    p.getFeatures(),
-                    p.getPendingFeatures(),
-                    p.getStatus(),
-                    p.getPrice(),
-                    p.isFreeDownload(),
-                    p.getGenre(),
-                    p.getMusic(),
-                    getCommentsForPost(p.getId()),
-                    p.getTime(),
-                    getLikesForPost(p.getId()),
-                    getViewsForPost(p.getId()),
-                    p.getTotalViews(),
-                    p.getTotalComments(),
-                    p.getTotalDownloads()
-                );
-            }).toList();
-    
+            .toList();
+        return toPostsDTOs(published);
     }
 
 
 
 
+    /**
+     * A page of an ordered ID list (liked or featured-on posts). Only the requested window of
+     * ids is loaded, as cached cards plus one batch query for the misses, so the cost follows
+     * the page size rather than the length of the list. Deleted posts leave a gap in their page.
+     */
     public PagedModel<PostsDTO> getAllById(List<String> ids, int page, int size ) {
-        // Fetch all posts matching the IDs to preserve order
-        // We need to fetch all to preserve order, then paginate manually
-        List<Posts> allPosts = postsRepository.findAllByIdIn(ids, PageRequest.of(0, Integer.MAX_VALUE)).getContent();
-        
-        // Create a map for quick lookup
-        Map<String, Posts> postMap = new HashMap<>();
-        for (Posts post : allPosts) {
-            postMap.put(post.getId(), post);
-        }
-        
-        // Sort posts according to ID order (preserving the order of IDs list)
-        List<Posts> sortedPosts = new ArrayList<>();
-        for (String id : ids) {
-            Posts post = postMap.get(id);
-            if (post != null) {
-                sortedPosts.add(post);
-            }
-        }
-        
-        // Manual pagination
-        int totalElements = sortedPosts.size();
-        int start = page * size;
-        int end = Math.min(start + size, totalElements);
-        List<Posts> pagedPosts = start < totalElements ? sortedPosts.subList(start, end) : new ArrayList<>();
-        
-        // Convert to DTOs
-        List<PostsDTO> postsDTOList = pagedPosts.stream().map(p -> {
-            User u = p.getAuthor();
-            UserPostsDTO author = new UserPostsDTO(
-                u.getId(),
-                u.getUserName(),
-                u.getProfilePic(),
-                u.getBanner(),
-                u.getBio(),
-                u.getLocation(),
-                u.getRole()
-            );
-            return new PostsDTO(
-                p.getId(),
-                author,
-                p.getTitle(),
-                p.getDescription(),
-                p.getFeatures(),
-                p.getPendingFeatures(),
-                p.getStatus(),  
-                p.getPrice(),
-                p.isFreeDownload(),
-                p.getGenre(),
-                p.getMusic(),
-                getCommentsForPost(p.getId()),
-                p.getTime(),
-                getLikesForPost(p.getId()),
-                getViewsForPost(p.getId()),
-                p.getTotalViews(),
-                p.getTotalComments(),
-                p.getTotalDownloads()
-            );
-        }).collect(Collectors.toList());
-        
-        // Create Page object manually
-        Page<PostsDTO> postsDTOPage = new org.springframework.data.domain.PageImpl<PostsDTO>(
-            postsDTOList,
-            PageRequest.of(page, size),
-            totalElements
-        );
-        
+        int start = (int) Math.min((long) page * size, ids.size());
+        int end = (int) Math.min((long) start + size, ids.size());
+        List<PostsDTO> postsDTOList = getPostCards(ids.subList(start, end));
+
+        Page<PostsDTO> postsDTOPage = new PageImpl<>(postsDTOList, PageRequest.of(page, size), ids.size());
         return new PagedModel<PostsDTO>(postsDTOPage);
     }
 
@@ -617,106 +658,39 @@ public class PostsService {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "time"));
         Page<Posts> posts = postsRepository.findAllByIdInOrderByTimeDesc(ids, pageable);
         
-        Page<PostsDTO> postsDTOPage = posts.map(p -> {
-            User u = p.getAuthor();
-            UserPostsDTO author = new UserPostsDTO(
-                u.getId(),
-                u.getUserName(),
-                u.getProfilePic(),
-                u.getBanner(),
-                u.getBio(),
-                u.getLocation(),
-                u.getRole()
-            );
-            return new PostsDTO(
-                p.getId(),
-                author,
-                p.getTitle(),
-                p.getDescription(),
-                p.getFeatures(),
-                p.getPendingFeatures(),
-                p.getStatus(),
-                p.getPrice(),
-                p.isFreeDownload(),
-                p.getGenre(),
-                p.getMusic(),
-                getCommentsForPost(p.getId()),
-                p.getTime(),
-                getLikesForPost(p.getId()),
-                getViewsForPost(p.getId()),
-                p.getTotalViews(),
-                p.getTotalComments(),
-                p.getTotalDownloads()
-            );
-        });
+        Page<PostsDTO> postsDTOPage = toPostsDTOPage(posts);
         
         return new PagedModel<PostsDTO>(postsDTOPage);
     }
 
-    /**
-     * Ensures notifications list doesn't exceed 30 items by removing oldest ones
-     */
-    private void cleanupNotifications(User user) {
-        List<NotificationsDTO> notifications = user.getNotifications();
-        if (notifications != null && notifications.size() > 30) {
-            // Sort by time (oldest first) and keep only the 30 most recent
-            notifications.sort((n1, n2) -> n1.time().compareTo(n2.time()));
-            // Remove oldest notifications, keeping only the 30 newest
-            notifications.subList(0, notifications.size() - 30).clear();
-        }
-    }
-
     public Optional<Posts> addLike(String id, String userName){
         Optional<Posts> post = postsRepository.findById(id);
         if (post.isPresent()) {
             Posts foundPost = post.get();
-            User author = foundPost.getAuthor();
-            User user = userRepository.findByUserName(userName).orElseThrow(() -> new IllegalArgumentException("User not found"));
-            
-            // Use the new PostLikeService to toggle the like
-            boolean isLiked = postLikeService.toggleLike(id, userName);
-            
-            // Update the cached totalLikes count in the Posts entity
-            long newTotalLikes = postLikeService.getTotalLikes(id);
-            foundPost.setTotalLikes((int) newTotalLikes);
-            postsRepository.save(foundPost); // Save the updated like count
+            String authorName = authorNameOf(foundPost);
             
-            // Handle notifications and user liked posts
-            if(author.getNotifications() == null){
-                author.setNotifications(new ArrayList<>());
-            }
-            if(user.getLikedPosts() == null){
-                user.setLikedPosts(new ArrayList<>());
+            // Atomic toggle on post_likes (checks the user exists), then $inc the cached totalLikes and trending score (no count query, no full-document save)
+            PostLikeService.LikeToggle toggle = postLikeService.toggleLike(id, userName);
+            boolean isLiked = toggle.liked();
+            if (toggle.delta() != 0) {
+                Posts updated = postsRepository.incrementCounter(id, "totalLikes", toggle.delta(), toggle.delta() > 0
+                    ? trendingScoreService.increment(TrendingScoreService.LIKE_WEIGHT)
+                    : trendingScoreService.decrement(TrendingScoreService.LIKE_WEIGHT, toggle.likedAt()));
+                if (updated != null) {
+                    foundPost.setTotalLikes(updated.getTotalLikes());
+                    feedCacheService.onLikesChanged(updated);
+                }
             }
             
+            // Handle notifications (the user's liked posts are read from post_likes)
             if (isLiked) {
-                // User liked the post - add to the end of the list
-                NotificationsDTO noti = new NotificationsDTO(foundPost.getId(), userName, "Liked Your Post!", Instant.now(), NotificationsDTO.NotiType.POST);
-                // Remove if already exists (in case of re-like), then add to end
-                user.getLikedPosts().remove(id);
-                user.getLikedPosts().add(id);
-                author.getNotifications().add(noti);
-                
-                // Clean up notifications if they exceed 30
-                cleanupNotifications(author);
+                notificationService.notify(authorName, foundPost.getId(), userName, "Liked Your Post!", NotificationsDTO.NotiType.POST);
             } else {
-                // User unliked the post
-                user.getLikedPosts().remove(id);
-                
                 // Remove the like notification
-                List<NotificationsDTO> currentNoti = author.getNotifications();
-                if(currentNoti != null){
-                    currentNoti.removeIf(notification -> 
-                        notification.id() != null && 
-                        notification.id().equals(foundPost.getId()) && 
-                        notification.userName().equals(userName) && 
-                        notification.noti().equals("Liked Your Post!")
-                    );
-                }
+                notificationService.remove(authorName, foundPost.getId(), userName, "Liked Your Post!");
             }
-            
-            userRepository.save(author);
-            userRepository.save(user);
+            eventPublisher.publishEvent(UserActivityChangedEvent.of(userName));
+
             return Optional.of(foundPost);
         }
 
@@ -727,35 +701,22 @@ public class PostsService {
         Optional<Posts> post = postsRepository.findById(id);
         if(post.isPresent()){
             Posts foundPost = post.get();
-            User author = foundPost.getAuthor();
-            User user = userRepository.findByUserName(userName).orElseThrow(() -> new IllegalArgumentException("User not found"));
+            String authorName = authorNameOf(foundPost);
             
-            // Use the new PostCommentService to add the comment
+            // Use the new PostCommentService to add the comment (checks the user exists)
             postCommentService.addComment(id, userName, comment);
             
-            // Update the cached total comments count
-            foundPost.setTotalComments(foundPost.getTotalComments() + 1);
-            
-            // Handle notifications and user comment history
-            NotificationsDTO noti = new NotificationsDTO(id, user.getUserName(), "Commented on Your Post!", Instant.now(),NotificationsDTO.NotiType.POST);
-            
-            if(author.getNotifications() == null){
-                author.setNotifications(new ArrayList<>());
-            }
-            if(user.getComments() == null){
-                user.setComments(new ArrayList<>());
+            // Update the cached total comments count and trending score
+            Posts updated = postsRepository.incrementCounter(id, "totalComments", 1,
+                trendingScoreService.increment(TrendingScoreService.COMMENT_WEIGHT));
+            if (updated != null) {
+                foundPost.setTotalComments(updated.getTotalComments());
             }
             
-            user.getComments().add(new CommentedOnDTO(id, comment, Instant.now()));
-            author.getNotifications().add(noti);
-            
-            // Clean up notifications if they exceed 30
-            cleanupNotifications(author);
-            
-            // Save the post with updated comment count
-            postsRepository.save(foundPost);
-            userRepository.save(author);
-            userRepository.save(user);
+            // Handle notifications (the user's comment history is read from post_comments)
+            notificationService.notify(authorName, id, userName, "Commented on Your Post!", NotificationsDTO.NotiType.POST);
+            eventPublisher.publishEvent(UserActivityChangedEvent.of(userName));
+            feedCacheService.evictCard(id);
             return Optional.of(foundPost);
         }
         return post;
@@ -771,137 +732,62 @@ public class PostsService {
             return false;
         }
         
-        // Clean up notifications and user comment history
+        // Clean up notifications
         String postId = deletedComment.getPostId();
-        String commentText = deletedComment.getComment();
+        eventPublisher.publishEvent(UserActivityChangedEvent.of(userName));
         
         Optional<Posts> post = postsRepository.findById(postId);
         if (post.isPresent()) {
             Posts foundPost = post.get();
             
-            // Update the cached total comments count
-            foundPost.setTotalComments(Math.max(0, foundPost.getTotalComments() - 1));
+            // Update the cached total comments count and take back the comment's trending weight
+            if (foundPost.getTotalComments() > 0) {
+                postsRepository.incrementCounter(postId, "totalComments", -1,
+                    trendingScoreService.decrement(TrendingScoreService.COMMENT_WEIGHT, deletedComment.getTime()));
+            }
             
-            User author = foundPost.getAuthor();
-            User user = userRepository.findByUserName(userName).orElse(null);
+            String authorName = authorNameOf(foundPost);
             
-            if (author != null && user != null) {
+            if (authorName != null) {
                 // Remove the notification that was created when the comment was added
-                List<NotificationsDTO> currentNoti = author.getNotifications();
-                if(currentNoti != null){
-                    currentNoti.removeIf(notification -> 
-                        notification.id() != null &&
-                        notification.id().equals(postId) && 
-                        notification.userName() != null &&
-                        notification.userName().equals(userName) && 
-                        notification.noti() != null &&
-                        notification.noti().equals("Commented on Your Post!")
-                    );
-                }
-                
-                // Remove the comment from user's comments list
-                List<CommentedOnDTO> userComments = user.getComments();
-                if(userComments != null){
-                    userComments.removeIf(comment -> 
-                        comment.id() != null &&
-                        comment.id().equals(postId) && 
-                        comment.commented() != null &&
-                        comment.commented().equals(commentText)
-                    );
-                }
-                
-                userRepository.save(author);
-                userRepository.save(user);
+                notificationService.remove(authorName, postId, userName, "Commented on Your Post!");
             }
-            
-            // Save the post with updated comment count
-            postsRepository.save(foundPost);
+
+            feedCacheService.evictCard(foundPost.getId());
         }
         
         return true;
     }
 
     public PagedModel<PostsDTO> getAllPagedPosts(int page, int size) {
+        Optional<PagedModel<PostsDTO>> cached = getFeedPageFromCache(FeedCacheService.FeedSort.TIME, null, page, size);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        
         Pageable pageable = PageRequest.of(page, size);
         // Only show published posts in public feed
         Page<Posts> postsPage = postsRepository.findByStatusOrderByTimeDesc("PUBLISHED", pageable);
         
         // Convert Page<Posts> to Page<PostsDTO>
-        Page<PostsDTO> postsDTOPage = postsPage.map(p -> {
-            User u = p.getAuthor();
-            UserPostsDTO author = new UserPostsDTO(
-                u.getId(),
-                u.getUserName(),
-                u.getProfilePic(),
-                u.getBanner(),
-                u.getBio(),
-                u.getLocation(),
-                u.getRole()
-            );
-            return new PostsDTO(
-                p.getId(),
-                author,
-                p.getTitle(),
-                p.getDescription(),
-                p.getFeatures(),
-                p.getPendingFeatures(),
-                p.getStatus(),
-                p.getPrice(),
-                p.isFreeDownload(),
-                p.getGenre(),
-                p.getMusic(),
-                getCommentsForPost(p.getId()),
-                p.getTime(),
-                getLikesForPost(p.getId()),
-                getViewsForPost(p.getId()),
-                p.getTotalViews(),
-                p.getTotalComments(),
-                p.getTotalDownloads()
-            );
-        });
+        Page<PostsDTO> postsDTOPage = toPostsDTOPage(postsPage);
         
         return new PagedModel<PostsDTO>(postsDTOPage);
     }
 
 
     public PagedModel<PostsDTO> findByLikesDesc(int page, int size){
+        Optional<PagedModel<PostsDTO>> cached = getFeedPageFromCache(FeedCacheService.FeedSort.LIKES, null, page, size);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        
         // NOW FAST: Use database-level sorting with cached totalLikes field! - ONLY PUBLISHED
         Pageable pageable = PageRequest.of(page, size, org.springframework.data.domain.Sort.by("totalLikes").descending().and(org.springframework.data.domain.Sort.by("time").descending()));
         Page<Posts> postsPage = postsRepository.findByStatusOrderByTotalLikesDescTimeDesc("PUBLISHED", pageable);
         
         // Convert to DTOs (much simpler now)
-        Page<PostsDTO> postsDTOPage = postsPage.map(p -> {
-            User u = p.getAuthor();
-            UserPostsDTO author = new UserPostsDTO(
-                u.getId(),
-                u.getUserName(),
-                u.getProfilePic(),
-                u.getBanner(),
-                u.getBio(),
-                u.getLocation(),
-                u.getRole()
-            );
-            return new PostsDTO(
-                p.getId(),
-                author,
-                p.getTitle(),
-                p.getDescription(),
-                p.getFeatures(),
-                p.getPendingFeatures(),
-                p.getStatus(),
-                p.getPrice(),
-                p.isFreeDownload(),
-                p.getGenre(),
-                p.getMusic(),
-                getCommentsForPost(p.getId()),
-                p.getTime(),
-                getLikesForPost(p.getId()),
-                getViewsForPost(p.getId()),
-                p.getTotalViews(),
-                p.getTotalComments(),
-                p.getTotalDownloads()
-            );
-        });
+        Page<PostsDTO> postsDTOPage = toPostsDTOPage(postsPage);
         
         return new PagedModel<PostsDTO>(postsDTOPage);
     }
@@ -910,47 +796,27 @@ public class PostsService {
     public PagedModel<PostsDTO> getSearchedPost(int page, int size, String search) {
         Pageable pageable = PageRequest.of(page, size);
         
-        // Only search published posts
-        Page<Posts> postsSearchedPage = postsRepository.findByTitleOrDescriptionContainingIgnoreCaseAndStatus(search, "PUBLISHED", pageable);
+        // Only search published posts, best text matches first
+        Page<Posts> postsSearchedPage = postsRepository.searchPublished(search, null, "relevance", pageable);
         
-        Page<PostsDTO> postsDTOSearchedPage = postsSearchedPage.map(p -> {
-            User u = p.getAuthor();
-            UserPostsDTO author = new UserPostsDTO(
-                u.getId(),
-                u.getUserName(),
-                u.getProfilePic(),
-                u.getBanner(),
-                u.getBio(),
-                u.getLocation(),
-                u.getRole()
-            );
-            return new PostsDTO(
-                p.getId(),
-                author,
-                p.getTitle(),
-                p.getDescription(),
-                p.getFeatures(),
-                p.getPendingFeatures(),
-                p.getStatus(),
-                p.getPrice(),
-                p.isFreeDownload(),
-                p.getGenre(),
-                p.getMusic(),
-                getCommentsForPost(p.getId()),
-                p.getTime(),
-                getLikesForPost(p.getId()),
-                getViewsForPost(p.getId()),
-                p.getTotalViews(),
-                p.getTotalComments(),
-                p.getTotalDownloads()
-            );
-        });
+        Page<PostsDTO> postsDTOSearchedPage = toPostsDTOPage(postsSearchedPage);
         
         return new PagedModel<PostsDTO>(postsDTOSearchedPage);
     }
     
     // Comprehensive search method with multiple filters and sorting options
     public PagedModel<PostsDTO> searchPosts(String searchTerm, List<String> genres, String sortBy, int page, int size) {
+        // Unfiltered and single-genre browsing are materialized feeds
+        boolean noSearchTerm = searchTerm == null || searchTerm.trim().isEmpty();
+        if (noSearchTerm && (genres == null || genres.size() <= 1)) {
+            FeedCacheService.FeedSort sort = "likes".equalsIgnoreCase(sortBy) ? FeedCacheService.FeedSort.LIKES : FeedCacheService.FeedSort.TIME;
+            String genre = genres == null || genres.isEmpty() ? null : genres.get(0);
+            Optional<PagedModel<PostsDTO>> cached = getFeedPageFromCache(sort, genre, page, size);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
+        
         Pageable pageable;
         
         // Set up sorting - now we can use database-level sorting for likes too!
@@ -963,12 +829,9 @@ public class PostsService {
         Page<Posts> postsPage;
         
         // Get posts based on search criteria with proper sorting - ONLY PUBLISHED POSTS
-        if (searchTerm != null && !searchTerm.trim().isEmpty() && genres != null && !genres.isEmpty()) {
-            // Both search term and genres provided - use AND logic (both must match)
-            postsPage = postsRepository.findByTitleOrDescriptionAndGenreInAndStatus(searchTerm.trim(), genres, "PUBLISHED", pageable);
-        } else if (searchTerm != null && !searchTerm.trim().isEmpty()) {
-            // Only search term provided
-            postsPage = postsRepository.findByTitleOrDescriptionContainingIgnoreCaseAndStatus(searchTerm.trim(), "PUBLISHED", pageable);
+        if (!noSearchTerm) {
+            // Text search via posts_text_idx; genres (if any) must ALL match
+            postsPage = postsRepository.searchPublished(searchTerm.trim(), genres, sortBy, PageRequest.of(page, size));
         } else if (genres != null && !genres.isEmpty()) {
             // Only genres provided - filter by status
             postsPage = postsRepository.findByGenreInAndStatus(genres, "PUBLISHED", pageable);
@@ -978,54 +841,56 @@ public class PostsService {
         }
         
         // Convert to DTOs (much simpler now with database sorting)
-        Page<PostsDTO> postsDTOPage = postsPage.map(p -> {
-            User u = p.getAuthor();
-            UserPostsDTO author = new UserPostsDTO(
-                u.getId(),
-                u.getUserName(),
-                u.getProfilePic(),
-                u.getBanner(),
-                u.getBio(),
-                u.getLocation(),
-                u.getRole()
-            );
-            return new PostsDTO(
-                p.getId(),
-                author,
-                p.getTitle(),
-                p.getDescription(),
-                p.getFeatures(),
-                p.getPendingFeatures(),
-                p.getStatus(),
-                p.getPrice(),
-                p.isFreeDownload(),
-                p.getGenre(),
-                p.getMusic(),
-                getCommentsForPost(p.getId()),
-                p.getTime(),
-                getLikesForPost(p.getId()),
-                getViewsForPost(p.getId()),
-                p.getTotalViews(),
-                p.getTotalComments(),
-                p.getTotalDownloads()
-            );
-        });
+        Page<PostsDTO> postsDTOPage = toPostsDTOPage(postsPage);
         
         return new PagedModel<PostsDTO>(postsDTOPage);
     }
 
+    // Trending feed: engagement with exponential time decay, read straight off the status_trending_idx index
+    public PagedModel<PostsDTO> getTrendingPosts(int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        Page<Posts> postsPage = postsRepository.findByStatusOrderByTrendingScoreDesc("PUBLISHED", pageable);
+        
+        return new PagedModel<PostsDTO>(toPostsDTOPage(postsPage));
+    }
+    
+    // Cursor (keyset) versions of the public feeds - constant cost per page at any depth
+    public CursorPageDTO<PostsDTO> getAllPostsByCursor(String cursor, int size) {
+        return findPublishedByCursor(null, null, false, cursor, size);
+    }
+    
+    public CursorPageDTO<PostsDTO> findByLikesDescByCursor(String cursor, int size) {
+        return findPublishedByCursor(null, null, true, cursor, size);
+    }
+    
+    public CursorPageDTO<PostsDTO> searchPostsByCursor(String searchTerm, List<String> genres, String sortBy, String cursor, int size) {
+        return findPublishedByCursor(searchTerm, genres, "likes".equalsIgnoreCase(sortBy), cursor, size);
+    }
+    
+    private CursorPageDTO<PostsDTO> findPublishedByCursor(String searchTerm, List<String> genres, boolean sortByLikes, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        PostCursor after = PostCursor.decode(cursor);
+        
+        // Fetch one extra row to know whether another page exists
+        List<Posts> posts = postsRepository.findByStatusAfterCursor("PUBLISHED", searchTerm, genres, sortByLikes, after, pageSize + 1);
+        boolean hasNext = posts.size() > pageSize;
+        if (hasNext) {
+            posts = posts.subList(0, pageSize);
+        }
+        
+        String nextCursor = hasNext ? PostCursor.of(posts.get(posts.size() - 1), sortByLikes).encode() : null;
+        return new CursorPageDTO<>(toPostsDTOs(posts), nextCursor, hasNext);
+    }
+
 
     public void addView(String id, String userName) {
-        // Verify post exists
-        Posts post = postsRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("Post not found"));
+        // Verify post exists (index-only check, no document load)
+        if (!postsRepository.existsById(id)) {
+            throw new IllegalArgumentException("Post not found");
+        }
         
-        // Use the new PostViewService to handle view tracking
+        // Buffered write-behind: post_views and the cached totalViews are updated in bulk on the next flush
         postViewService.addView(id, userName);
-        
-        // Update the cached totalViews count in the Posts entity
-        long newTotalViews = postViewService.getTotalViews(id);
-        post.setTotalViews((int) newTotalViews);
-        postsRepository.save(post); // Save the updated view count
     }
     
     public List<ViewsDTO> getPostViews(String postId) {
@@ -1074,93 +939,33 @@ public class PostsService {
     }
     
     public PagedModel<PostsDTO> findByUserRoleOrderByLikesDesc(String role, int page, int size) {
-        // Since @DBRef fields can be tricky to query directly in MongoDB, 
-        // we'll fetch all published posts and filter by role in the service layer
-        
-        // Get a larger page size to account for filtering
-        int fetchSize = size * 3; // Fetch 3x more to account for filtering
-        Pageable pageable = PageRequest.of(0, Math.max(fetchSize, 50), org.springframework.data.domain.Sort.by("totalLikes").descending().and(org.springframework.data.domain.Sort.by("time").descending()));
-        Page<Posts> allPostsPage = postsRepository.findByStatusOrderByTotalLikesDescTimeDesc("PUBLISHED", pageable);
-        
-        // Filter by user role and convert to DTOs
-        List<PostsDTO> filteredPosts = allPostsPage.getContent().stream()
-            .filter(p -> p.getAuthor() != null && role.equals(p.getAuthor().getRole()))
-            .skip((long) page * size)
-            .limit(size)
-            .map(p -> {
-                User u = p.getAuthor();
-            UserPostsDTO author = new UserPostsDTO(
-                u.getId(),
-                u.getUserName(),
-                u.getProfilePic(),
-                u.getBanner(),
-                u.getBio(),
-                u.getLocation(),
-                u.getRole()
-            );
-                return new PostsDTO(
-                    p.getId(),
-                    author,
-                    p.getTitle(),
-                    p.getDescription(),
-                    p.getFeatures(),
-                    p.getPendingFeatures(),
-                    p.getStatus(),
-                    p.getPrice(),
-                    p.isFreeDownload(),
-                    p.getGenre(),
-                    p.getMusic(),
-                    getCommentsForPost(p.getId()),
-                    p.getTime(),
-                    getLikesForPost(p.getId()),
-                    getViewsForPost(p.getId()),
-                    p.getTotalViews(),
-                    p.getTotalComments(),
-                    p.getTotalDownloads()
-                );
-            })
-            .toList();
-        
-        // Calculate total elements for pagination (this is an approximation)
-        long totalFilteredElements = allPostsPage.getContent().stream()
-            .filter(p -> p.getAuthor() != null && role.equals(p.getAuthor().getRole()))
-            .count();
-        
-        // Create a manual page implementation
-        Page<PostsDTO> postsDTOPage = new org.springframework.data.domain.PageImpl<>(
-            filteredPosts, 
-            PageRequest.of(page, size), 
-            totalFilteredElements
-        );
+        // Role comes from the embedded author snapshot, so this is one indexed, properly paginated query
+        Pageable pageable = PageRequest.of(page, size);
+        Page<Posts> postsPage = postsRepository.findByStatusAndAuthorSnapshotRoleOrderByTotalLikesDescTimeDesc("PUBLISHED", role, pageable);
         
-        return new PagedModel<PostsDTO>(postsDTOPage);
+        return new PagedModel<PostsDTO>(toPostsDTOPage(postsPage));
     }
 
 
-    public ResponseEntity<List<NotificationsDTO>> notifyDownload(String id, String userName) {
+    public void notifyDownload(String id, String userName) {
         Posts post = postsRepository.findById(id).get();
-        User author = post.getAuthor();
 
-        if (author.getNotifications() == null) {
-            author.setNotifications(new ArrayList<>());
-        }
-        author.getNotifications().add(new NotificationsDTO(
-            id, 
-            userName, 
-            "Downloaded Your Post '" + post.getTitle() + "'", 
-            Instant.now(),
+        notificationService.notify(
+            authorNameOf(post),
+            id,
+            userName,
+            "Downloaded Your Post '" + post.getTitle() + "'",
             NotificationsDTO.NotiType.POST
-        ));
-        userRepository.save(author);
-        
-        return ResponseEntity.ok(author.getNotifications());
+        );
     }
     
     public void incrementTotalDownloads(String postId) {
-        Posts post = postsRepository.findById(postId)
-            .orElseThrow(() -> new IllegalArgumentException("Post not found"));
-        post.setTotalDownloads(post.getTotalDownloads() + 1);
-        postsRepository.save(post);
+        Posts post = postsRepository.incrementCounter(postId, "totalDownloads", 1,
+            trendingScoreService.increment(TrendingScoreService.DOWNLOAD_WEIGHT));
+        if (post == null) {
+            throw new IllegalArgumentException("Post not found");
+        }
+        feedCacheService.evictCard(postId);
     }
    
     }
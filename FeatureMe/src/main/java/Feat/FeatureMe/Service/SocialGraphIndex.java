@@ -0,0 +1,567 @@
+package Feat.FeatureMe.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import Feat.FeatureMe.Entity.UserRelation;
+
+/**
+ * In-memory follow graph for two-hop questions: who among the people I follow follows X,
+ * how many followers two users share, and whom the people I follow follow (suggestions).
+ *
+ * Usernames are interned to ints; each user has a sorted int[] of the users they follow and
+ * of their followers, so an intersection is a merge of two primitive arrays and a two-hop
+ * walk never touches Mongo or boxes an id. See SocialGraphBenchmark for memory per edge.
+ *
+ * Follows and unfollows are seen through Mongo lifecycle events on user_relations by the
+ * instance that wrote them, which applies them and publishes them on CHANGES_CHANNEL. Every
+ * instance then re-reads that pair from Mongo (so messages applied out of order still end at
+ * the stored state), updates its graph and drops the follower's cached suggestions, which
+ * might have been recomputed from the graph before the change arrived. A periodic reload
+ * repairs anything a missed message left behind.
+ */
+@Service
+public class SocialGraphIndex extends AbstractMongoEventListener<UserRelation> implements MessageListener {
+
+    public static final String CHANGES_CHANNEL = "social-graph:changes";
+    private static final String PAIR_CHANGE = "pair";
+    private static final String USER_REMOVED = "user";
+
+    private static final int[] EMPTY = new int[0];
+
+    private static final Comparator<Candidate> RANKING = Comparator
+        .comparingInt(Candidate::mutualCount).reversed()
+        .thenComparing(Candidate::userName);
+
+    private final MongoTemplate mongoTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final TwoTierCache twoTierCache;
+    private final Object reloadLock = new Object();
+    private volatile Graph current = new Graph();
+    private List<Consumer<Graph>> pending;  // Changes seen while a reload is scanning; guarded by this
+    private volatile boolean ready;
+
+    public SocialGraphIndex(MongoTemplate mongoTemplate, StringRedisTemplate redisTemplate, TwoTierCache twoTierCache) {
+        this.mongoTemplate = mongoTemplate;
+        this.redisTemplate = redisTemplate;
+        this.twoTierCache = twoTierCache;
+    }
+
+    /**
+     * A suggested account and how many of the people you follow follow it
+     */
+    public record Candidate(String userName, int mutualCount) { }
+
+    /**
+     * Whether the initial load has finished; callers fall back to Mongo until it has
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * People the viewer follows who follow the target ("followed by a, b and 3 others")
+     */
+    public List<String> followedByFollowing(String viewer, String target, int limit) {
+        Graph graph = current;
+        return graph.namesOf(intersect(graph.following(viewer), graph.followers(target), limit));
+    }
+
+    /**
+     * How many followers two users have in common
+     */
+    public int mutualFollowerCount(String a, String b) {
+        Graph graph = current;
+        return intersectionSize(graph.followers(a), graph.followers(b));
+    }
+
+    /**
+     * Accounts followed by the people this user follows, excluding the user and anyone they
+     * already follow, most mutual connections first
+     */
+    public List<Candidate> suggest(String userName, int limit) {
+        Graph graph = current;
+        int self = graph.idOf(userName);
+        int[] mine = graph.following(self);
+        if (mine.length == 0) {
+            return List.of();
+        }
+
+        // Every second hop in one array; after sorting, each run is one candidate and its length the mutual count
+        int total = 0;
+        for (int f : mine) {
+            total += graph.following(f).length;
+        }
+        int[] hops = new int[total];
+        int at = 0;
+        for (int f : mine) {
+            int[] theirs = graph.following(f);
+            System.arraycopy(theirs, 0, hops, at, theirs.length);
+            at += theirs.length;
+        }
+        Arrays.sort(hops);
+
+        List<Candidate> candidates = new ArrayList<>();
+        for (int i = 0; i < hops.length; ) {
+            int candidate = hops[i];
+            int run = i;
+            while (i < hops.length && hops[i] == candidate) {
+                i++;
+            }
+            if (candidate != self && Arrays.binarySearch(mine, candidate) < 0) {
+                candidates.add(new Candidate(graph.nameOf(candidate), i - run));
+            }
+        }
+        candidates.sort(RANKING);
+        return candidates.size() > limit ? candidates.subList(0, limit) : candidates;
+    }
+
+    public void follow(String follower, String following) {
+        apply(graph -> graph.add(follower, following));
+    }
+
+    public void unfollow(String follower, String following) {
+        apply(graph -> graph.remove(follower, following));
+    }
+
+    public void removeUser(String userName) {
+        apply(graph -> graph.removeUser(userName));
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<UserRelation> event) {
+        UserRelation relation = event.getSource();
+        if (relation != null && relation.getStatus() == UserRelation.RelationStatus.ACTIVE
+                && relation.getFollowerUserName() != null && relation.getFollowingUserName() != null) {
+            follow(relation.getFollowerUserName(), relation.getFollowingUserName());
+            publish(PAIR_CHANGE, relation.getFollowerUserName(), relation.getFollowingUserName());
+        }
+    }
+
+    // Unfollow deletes by (follower, following); account deletion deletes by follower OR following
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<UserRelation> event) {
+        Document filter = event.getSource();
+        if (filter == null) {
+            return;
+        }
+        if (filter.get("followerUserName") instanceof String follower
+                && filter.get("followingUserName") instanceof String following) {
+            unfollow(follower, following);
+            publish(PAIR_CHANGE, follower, following);
+        } else if (filter.get("$or") instanceof List<?> clauses) {
+            for (Object clause : clauses) {
+                if (clause instanceof Document each) {
+                    if (each.get("followerUserName") instanceof String userName) {
+                        removeUser(userName);
+                        publish(USER_REMOVED, userName);
+                    }
+                    if (each.get("followingUserName") instanceof String userName) {
+                        removeUser(userName);
+                        publish(USER_REMOVED, userName);
+                    }
+                }
+            }
+        }
+        // Deletes by other criteria are picked up by the next reload
+    }
+
+    // This instance has already applied the change; the others learn it from the message
+    private void publish(String type, String... userNames) {
+        try {
+            redisTemplate.convertAndSend(CHANGES_CHANNEL, type + "\n" + String.join("\n", userNames));
+        } catch (Exception e) {
+            System.err.println("Failed to publish social graph change, other instances catch up on reload: " + e.getMessage());
+        }
+    }
+
+    /**
+     * A change published by any instance (including this one)
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\n");
+        try {
+            if (PAIR_CHANGE.equals(parts[0]) && parts.length == 3) {
+                refreshPair(parts[1], parts[2]);
+                twoTierCache.evict(TwoTierCache.Region.SUGGESTIONS, parts[1]);
+            } else if (USER_REMOVED.equals(parts[0]) && parts.length == 2) {
+                removeUser(parts[1]);
+            }
+        } catch (Exception e) {
+            System.err.println("Error applying social graph change: " + e.getMessage());
+        }
+    }
+
+    // Set the edge to whatever Mongo holds now, whatever order the messages for it arrive in
+    private void refreshPair(String follower, String following) {
+        Query query = new Query(Criteria.where("followerUserName").is(follower)
+            .and("followingUserName").is(following)
+            .and("status").is(UserRelation.RelationStatus.ACTIVE));
+        if (mongoTemplate.exists(query, UserRelation.class)) {
+            follow(follower, following);
+        } else {
+            unfollow(follower, following);
+        }
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    @Scheduled(initialDelayString = "${featureme.social-graph.reload-interval-ms:600000}",
+               fixedDelayString = "${featureme.social-graph.reload-interval-ms:600000}")
+    public void scheduledReload() {
+        reload();
+    }
+
+    /**
+     * Rebuild the graph from a projected scan of active relations and swap it in.
+     * Follows and unfollows that land during the scan are replayed onto the new graph.
+     */
+    public void reload() {
+        synchronized (reloadLock) {
+            try {
+                long start = System.currentTimeMillis();
+                synchronized (this) {
+                    pending = new ArrayList<>();
+                }
+                Builder builder = new Builder();
+                Query query = new Query(Criteria.where("status").is(UserRelation.RelationStatus.ACTIVE));
+                query.fields().include("followerUserName", "followingUserName");
+                try (Stream<UserRelation> relations = mongoTemplate.stream(query, UserRelation.class)) {
+                    relations.forEach(relation -> {
+                        if (relation.getFollowerUserName() != null && relation.getFollowingUserName() != null) {
+                            builder.add(relation.getFollowerUserName(), relation.getFollowingUserName());
+                        }
+                    });
+                }
+                Graph next = builder.build();
+                install(next);
+                System.out.println("Loaded social graph: " + next.size() + " users, " + builder.edges() + " follows in "
+                    + (System.currentTimeMillis() - start) + " ms");
+            } catch (Exception e) {
+                System.err.println("Error loading social graph: " + e.getMessage());
+            } finally {
+                synchronized (this) {
+                    pending = null;
+                }
+            }
+        }
+    }
+
+    // Swap in a freshly built graph, replaying the changes that arrived while it was being built
+    synchronized void install(Graph next) {
+        if (pending != null) {
+            pending.forEach(change -> change.accept(next));
+        }
+        current = next;
+        ready = true;
+    }
+
+    private synchronized void apply(Consumer<Graph> change) {
+        change.accept(current);
+        if (pending != null) {
+            pending.add(change);
+        }
+    }
+
+    // Merge of two sorted arrays; binary searches the larger one when the sizes are far apart
+    static int intersectionSize(int[] a, int[] b) {
+        return intersect(a, b, Integer.MAX_VALUE).length;
+    }
+
+    static int[] intersect(int[] a, int[] b, int limit) {
+        if (a.length > b.length) {
+            int[] swap = a;
+            a = b;
+            b = swap;
+        }
+        int[] out = new int[Math.min(a.length, limit)];
+        int n = 0;
+        if ((long) a.length * 16 < b.length) {
+            for (int i = 0; i < a.length && n < out.length; i++) {
+                if (Arrays.binarySearch(b, a[i]) >= 0) {
+                    out[n++] = a[i];
+                }
+            }
+        } else {
+            for (int i = 0, j = 0; i < a.length && j < b.length && n < out.length; ) {
+                if (a[i] < b[j]) {
+                    i++;
+                } else if (a[i] > b[j]) {
+                    j++;
+                } else {
+                    out[n++] = a[i];
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /**
+     * One generation of the graph. Writers are serialized by the index and replace a user's
+     * adjacency array rather than editing it, so lock-free readers always see a sorted array
+     * (at worst the one from just before a concurrent write). The slots are AtomicReferenceArrays
+     * so that replacing an array is a volatile store: a reader that sees the new array also sees
+     * every element written into it.
+     */
+    static final class Graph {
+        private final Map<String, Integer> ids;
+        private volatile AtomicReferenceArray<String> names;
+        private volatile AtomicReferenceArray<int[]> following;
+        private volatile AtomicReferenceArray<int[]> followers;
+        private int size;
+
+        Graph() {
+            this(new ConcurrentHashMap<>(), new AtomicReferenceArray<>(16), new AtomicReferenceArray<>(16), new AtomicReferenceArray<>(16), 0);
+        }
+
+        private Graph(Map<String, Integer> ids, AtomicReferenceArray<String> names,
+                      AtomicReferenceArray<int[]> following, AtomicReferenceArray<int[]> followers, int size) {
+            this.ids = ids;
+            this.names = names;
+            this.following = following;
+            this.followers = followers;
+            this.size = size;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int idOf(String userName) {
+            Integer id = userName != null ? ids.get(userName) : null;
+            return id != null ? id : -1;
+        }
+
+        String nameOf(int id) {
+            return names.get(id);
+        }
+
+        List<String> namesOf(int[] ids) {
+            AtomicReferenceArray<String> snapshot = names;
+            List<String> out = new ArrayList<>(ids.length);
+            for (int id : ids) {
+                out.add(snapshot.get(id));
+            }
+            return out;
+        }
+
+        int[] following(String userName) {
+            return following(idOf(userName));
+        }
+
+        int[] followers(String userName) {
+            return adjacency(followers, idOf(userName));
+        }
+
+        int[] following(int id) {
+            return adjacency(following, id);
+        }
+
+        private static int[] adjacency(AtomicReferenceArray<int[]> lists, int id) {
+            if (id < 0 || id >= lists.length()) {
+                return EMPTY;
+            }
+            int[] list = lists.get(id);
+            return list != null ? list : EMPTY;
+        }
+
+        void add(String follower, String followed) {
+            int a = intern(follower);
+            int b = intern(followed);
+            following.set(a, insert(following(a), b));
+            followers.set(b, insert(adjacency(followers, b), a));
+        }
+
+        void remove(String follower, String followed) {
+            int a = idOf(follower);
+            int b = idOf(followed);
+            if (a < 0 || b < 0) {
+                return;
+            }
+            following.set(a, delete(following(a), b));
+            followers.set(b, delete(adjacency(followers, b), a));
+        }
+
+        // The id stays interned so concurrent readers never see it reused
+        void removeUser(String userName) {
+            int id = idOf(userName);
+            if (id < 0) {
+                return;
+            }
+            for (int other : following(id)) {
+                followers.set(other, delete(adjacency(followers, other), id));
+            }
+            for (int other : adjacency(followers, id)) {
+                following.set(other, delete(following(other), id));
+            }
+            following.set(id, EMPTY);
+            followers.set(id, EMPTY);
+        }
+
+        private int intern(String userName) {
+            Integer existing = ids.get(userName);
+            if (existing != null) {
+                return existing;
+            }
+            if (size == names.length()) {
+                int capacity = size * 2;
+                // Fill the new arrays before publishing them
+                AtomicReferenceArray<int[]> nextFollowing = grow(following, capacity);
+                AtomicReferenceArray<int[]> nextFollowers = grow(followers, capacity);
+                AtomicReferenceArray<String> nextNames = grow(names, capacity);
+                following = nextFollowing;
+                followers = nextFollowers;
+                names = nextNames;
+            }
+            int id = size++;
+            names.set(id, userName);
+            ids.put(userName, id);
+            return id;
+        }
+
+        private static <T> AtomicReferenceArray<T> grow(AtomicReferenceArray<T> slots, int capacity) {
+            AtomicReferenceArray<T> out = new AtomicReferenceArray<>(capacity);
+            for (int i = 0; i < slots.length(); i++) {
+                out.set(i, slots.get(i));
+            }
+            return out;
+        }
+
+        private static int[] insert(int[] list, int value) {
+            int at = Arrays.binarySearch(list, value);
+            if (at >= 0) {
+                return list;
+            }
+            at = -at - 1;
+            int[] out = new int[list.length + 1];
+            System.arraycopy(list, 0, out, 0, at);
+            out[at] = value;
+            System.arraycopy(list, at, out, at + 1, list.length - at);
+            return out;
+        }
+
+        private static int[] delete(int[] list, int value) {
+            int at = Arrays.binarySearch(list, value);
+            if (at < 0) {
+                return list;
+            }
+            if (list.length == 1) {
+                return EMPTY;
+            }
+            int[] out = new int[list.length - 1];
+            System.arraycopy(list, 0, out, 0, at);
+            System.arraycopy(list, at + 1, out, at, list.length - at - 1);
+            return out;
+        }
+    }
+
+    /**
+     * Bulk load: collects edges as two parallel int arrays, then groups them per user and sorts
+     * each list once, instead of paying an array copy per inserted edge.
+     */
+    static final class Builder {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+        private int[] from = new int[1024];
+        private int[] to = new int[1024];
+        private int edges;
+
+        void add(String follower, String followed) {
+            if (edges == from.length) {
+                from = Arrays.copyOf(from, edges * 2);
+                to = Arrays.copyOf(to, edges * 2);
+            }
+            from[edges] = intern(follower);
+            to[edges] = intern(followed);
+            edges++;
+        }
+
+        int edges() {
+            return edges;
+        }
+
+        Graph build() {
+            int n = names.size();
+            int capacity = Math.max(16, n);
+            AtomicReferenceArray<int[]> following = new AtomicReferenceArray<>(Arrays.copyOf(group(from, to, n), capacity));
+            AtomicReferenceArray<int[]> followers = new AtomicReferenceArray<>(Arrays.copyOf(group(to, from, n), capacity));
+            AtomicReferenceArray<String> nameArray = new AtomicReferenceArray<>(Arrays.copyOf(names.toArray(new String[0]), capacity));
+            return new Graph(new ConcurrentHashMap<>(ids), nameArray, following, followers, n);
+        }
+
+        private int intern(String userName) {
+            Integer id = ids.get(userName);
+            if (id == null) {
+                id = names.size();
+                ids.put(userName, id);
+                names.add(userName);
+            }
+            return id;
+        }
+
+        private int[][] group(int[] keys, int[] values, int n) {
+            int[] degree = new int[n];
+            for (int i = 0; i < edges; i++) {
+                degree[keys[i]]++;
+            }
+            int[][] lists = new int[n][];
+            for (int v = 0; v < n; v++) {
+                lists[v] = degree[v] == 0 ? EMPTY : new int[degree[v]];
+            }
+            int[] fill = new int[n];
+            for (int i = 0; i < edges; i++) {
+                lists[keys[i]][fill[keys[i]]++] = values[i];
+            }
+            for (int v = 0; v < n; v++) {
+                lists[v] = sortedUnique(lists[v]);
+            }
+            return lists;
+        }
+
+        private static int[] sortedUnique(int[] list) {
+            if (list.length < 2) {
+                return list;
+            }
+            Arrays.sort(list);
+            int n = 1;
+            for (int i = 1; i < list.length; i++) {
+                if (list[i] != list[n - 1]) {
+                    list[n++] = list[i];
+                }
+            }
+            return n == list.length ? list : Arrays.copyOf(list, n);
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package Feat.FeatureMe.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import Feat.FeatureMe.Dto.CursorPageDTO;
+import Feat.FeatureMe.Dto.PostCursor;
+import Feat.FeatureMe.Entity.Posts;
+import Feat.FeatureMe.Entity.User;
+import Feat.FeatureMe.Entity.UserRelation;
+import Feat.FeatureMe.Repository.UserRelationRepository;
+
+/**
+ * "Posts from people I follow", newest first, with hybrid fan-out.
+ *
+ * Authors with fewer than fanout-threshold followers push each published post into their
+ * followers' Redis timelines (a sorted set of post IDs scored by publish time, capped at
+ * TIMELINE_CAPACITY). Authors above it are not fanned out; their posts are read at request
+ * time with one query whose $in on author.$id is planned as a merge of per-author ranges of
+ * author_status_time_idx. The two sources are then merged by (time, id).
+ *
+ * Timelines are built lazily from Mongo on first read and expire when unread for
+ * TIMELINE_TTL. Pushes only go to timelines that exist, so a built timeline is never missing
+ * older posts. While a timeline is being built, pushes for it collect in a pending set that the
+ * build merges in atomically, so a post published between the build's Mongo read and the
+ * timeline appearing isn't lost. Following or unfollowing someone drops the follower's timeline
+ * (and any build in progress) and their cached following split, for a rebuild.
+ * Deleted posts are left in place and skipped when the page's cards are loaded.
+ */
+@Service
+public class TimelineService {
+
+    private static final String TIMELINE_PREFIX = "timeline:";
+    private static final String PENDING_PREFIX = "timeline:pending:";
+    private static final Duration BUILD_TIMEOUT = Duration.ofMinutes(1);
+    // Keeps a pending set in existence before the first push lands in it; never a post id
+    private static final String PENDING_MARKER = "*";
+    static final int TIMELINE_CAPACITY = 800;
+    private static final Duration TIMELINE_TTL = Duration.ofDays(3);
+    private static final int MAX_PAGE_SIZE = 50;
+    // Extra rows per source so posts sharing the cursor's millisecond can be skipped without running short
+    private static final int TIE_SLACK = 8;
+
+    // ZADD + trim into a built timeline, or into the pending set of one being built; otherwise nothing
+    private static final RedisScript<Long> PUSH_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('exists', KEYS[1]) == 1 then "
+            + "redis.call('zadd', KEYS[1], ARGV[1], ARGV[2]) "
+            + "redis.call('zremrangebyrank', KEYS[1], 0, -(tonumber(ARGV[3]) + 1)) "
+            + "return 1 "
+            + "elseif redis.call('exists', KEYS[2]) == 1 then "
+            + "redis.call('zadd', KEYS[2], ARGV[1], ARGV[2]) "
+            + "return 2 end return 0", Long.class);
+
+    // Store a build plus whatever was pushed while it ran, unless the build was cancelled
+    // (pending set gone); returns the timeline's size, 0 if nothing was stored
+    private static final RedisScript<Long> BUILD_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('exists', KEYS[2]) == 0 then return 0 end "
+            + "local pushed = redis.call('zrange', KEYS[2], 0, -1, 'WITHSCORES') "
+            + "redis.call('del', KEYS[2]) "
+            + "for i = 1, #pushed, 2 do "
+            + "if pushed[i] ~= ARGV[3] then redis.call('zadd', KEYS[1], pushed[i + 1], pushed[i]) end end "
+            + "for i = 4, #ARGV, 2 do redis.call('zadd', KEYS[1], ARGV[i], ARGV[i + 1]) end "
+            + "if redis.call('exists', KEYS[1]) == 0 then return 0 end "
+            + "redis.call('zremrangebyrank', KEYS[1], 0, -(tonumber(ARGV[2]) + 1)) "
+            + "redis.call('expire', KEYS[1], ARGV[1]) "
+            + "return redis.call('zcard', KEYS[1])", Long.class);
+
+    private static final Comparator<Entry> NEWEST_FIRST = Comparator
+        .comparing(Entry::time).reversed()
+        .thenComparing(Entry::id, Comparator.reverseOrder());
+
+    private final StringRedisTemplate redisTemplate;
+    private final MongoTemplate mongoTemplate;
+    private final UserRelationRepository userRelationRepository;
+    private final TwoTierCache twoTierCache;
+    private final int fanoutThreshold;
+
+    public TimelineService(StringRedisTemplate redisTemplate, MongoTemplate mongoTemplate,
+                           UserRelationRepository userRelationRepository, TwoTierCache twoTierCache,
+                           @Value("${featureme.timeline.fanout-threshold:10000}") int fanoutThreshold) {
+        this.redisTemplate = redisTemplate;
+        this.mongoTemplate = mongoTemplate;
+        this.userRelationRepository = userRelationRepository;
+        this.twoTierCache = twoTierCache;
+        this.fanoutThreshold = fanoutThreshold;
+    }
+
+    private record Entry(String id, Instant time) { }
+
+    /**
+     * The ids of the accounts a user follows, split by how their posts reach followers.
+     * Cached in TIMELINE_SOURCES; an author crossing the threshold is picked up when it expires.
+     */
+    public record Following(List<String> pushedIds, List<String> pulledIds) { }
+
+    // ---- Writes ----
+
+    /**
+     * A post became visible: push it to the author's followers, unless the author has too
+     * many followers for that to be cheap (their posts are merged in at read time instead)
+     */
+    @Async
+    public void onPublished(Posts post) {
+        try {
+            User author = post.getAuthor();
+            if (author == null || post.getTime() == null || author.getFollowersCount() >= fanoutThreshold) {
+                return;
+            }
+            List<UserRelation> followers = userRelationRepository.findFollowerUserNames(
+                author.getUserName(), UserRelation.RelationStatus.ACTIVE);
+            if (followers.isEmpty()) {
+                return;
+            }
+            String score = String.valueOf(post.getTime().toEpochMilli());
+            String capacity = String.valueOf(TIMELINE_CAPACITY);
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Object execute(RedisOperations operations) throws DataAccessException {
+                    for (UserRelation follower : followers) {
+                        String userName = follower.getFollowerUserName();
+                        operations.execute(PUSH_SCRIPT, List.of(timelineKey(userName), pendingKey(userName)),
+                            score, post.getId(), capacity);
+                    }
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            System.err.println("Failed to fan out post " + post.getId() + " to timelines: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The user's follows changed; their timeline is rebuilt on the next read, and a build already
+     * running (with the old follows) is discarded
+     */
+    public void invalidate(String userName) {
+        twoTierCache.evict(TwoTierCache.Region.TIMELINE_SOURCES, userName);
+        try {
+            redisTemplate.delete(List.of(timelineKey(userName), pendingKey(userName)));
+        } catch (Exception e) {
+            System.err.println("Failed to drop timeline of " + userName + ": " + e.getMessage());
+        }
+    }
+
+    // ---- Reads ----
+
+    /**
+     * One page of post IDs from the accounts this user follows, newest first
+     */
+    public CursorPageDTO<String> getTimeline(String userName, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        PostCursor after = PostCursor.decode(cursor);
+        int limit = pageSize + 1 + TIE_SLACK;
+
+        Following following = following(userName);
+        if (following.pushedIds().isEmpty() && following.pulledIds().isEmpty()) {
+            return new CursorPageDTO<>(List.of(), null, false);
+        }
+
+        // Merge both sources; an author that crossed the threshold can be in both, so dedupe by id
+        Map<String, Entry> merged = new LinkedHashMap<>();
+        for (Entry entry : pushed(userName, following.pushedIds(), after, limit)) {
+            merged.putIfAbsent(entry.id(), entry);
+        }
+        for (Entry entry : findPublished(following.pulledIds(), after, limit)) {
+            merged.putIfAbsent(entry.id(), entry);
+        }
+        List<Entry> page = merged.values().stream()
+            .filter(entry -> isAfter(entry, after))
+            .sorted(NEWEST_FIRST)
+            .toList();
+
+        boolean hasNext = page.size() > pageSize;
+        if (hasNext) {
+            page = page.subList(0, pageSize);
+        }
+        String nextCursor = hasNext
+            ? new PostCursor(null, page.get(page.size() - 1).time(), page.get(page.size() - 1).id()).encode()
+            : null;
+        return new CursorPageDTO<>(page.stream().map(Entry::id).toList(), nextCursor, hasNext);
+    }
+
+    /**
+     * Posts from fanned-out authors: the Redis timeline (built on a miss), or Mongo once the
+     * reader pages past what the capped timeline holds or Redis is unavailable
+     */
+    private List<Entry> pushed(String userName, List<String> authorIds, PostCursor after, int limit) {
+        if (authorIds.isEmpty()) {
+            return List.of();
+        }
+        String key = timelineKey(userName);
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(key)) && !build(userName, authorIds)) {
+                // No posts yet, or the build was cancelled by a follow change: serve this page from Mongo
+                return findPublished(authorIds, after, limit);
+            }
+            redisTemplate.expire(key, TIMELINE_TTL);
+
+            Range<Double> range = after == null
+                ? Range.unbounded()
+                : Range.leftUnbounded(Range.Bound.inclusive((double) after.time().toEpochMilli()));
+            Set<ZSetOperations.TypedTuple<String>> tuples = redisTemplate.opsForZSet()
+                .reverseRangeByScoreWithScores(key, range, Limit.limit().count(limit));
+            List<Entry> entries = new ArrayList<>();
+            if (tuples != null) {
+                for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+                    if (tuple.getValue() != null && tuple.getScore() != null) {
+                        entries.add(new Entry(tuple.getValue(), Instant.ofEpochMilli(tuple.getScore().longValue())));
+                    }
+                }
+            }
+
+            Long held = redisTemplate.opsForZSet().zCard(key);
+            if (entries.size() < limit && held != null && held >= TIMELINE_CAPACITY) {
+                // Older than anything the capped timeline keeps
+                return findPublished(authorIds, after, limit);
+            }
+            return entries;
+        } catch (Exception e) {
+            System.err.println("Timeline read failed for " + userName + ", falling back to Mongo: " + e.getMessage());
+            return findPublished(authorIds, after, limit);
+        }
+    }
+
+    /**
+     * Fill a missing timeline with the latest posts of the given authors. The pending set is
+     * opened before the Mongo read, so fan-out that runs in between lands there and is merged
+     * in by BUILD_SCRIPT. False if nothing was stored.
+     */
+    private boolean build(String userName, List<String> authorIds) {
+        String pending = pendingKey(userName);
+        redisTemplate.opsForZSet().add(pending, PENDING_MARKER, -1);
+        redisTemplate.expire(pending, BUILD_TIMEOUT);
+
+        List<Entry> latest = findPublished(authorIds, null, TIMELINE_CAPACITY);
+        List<String> args = new ArrayList<>(3 + latest.size() * 2);
+        args.add(String.valueOf(TIMELINE_TTL.toSeconds()));
+        args.add(String.valueOf(TIMELINE_CAPACITY));
+        args.add(PENDING_MARKER);
+        for (Entry entry : latest) {
+            args.add(String.valueOf(entry.time().toEpochMilli()));
+            args.add(entry.id());
+        }
+        Long stored = redisTemplate.execute(BUILD_SCRIPT, List.of(timelineKey(userName), pending), args.toArray());
+        return stored != null && stored > 0;
+    }
+
+    /**
+     * Published posts by these authors at or before the cursor's time, newest first.
+     * Sorting on time alone lets the planner merge the per-author index ranges; rows that
+     * share the cursor's millisecond are ordered and filtered by the caller.
+     */
+    private List<Entry> findPublished(List<String> authorIds, PostCursor after, int limit) {
+        if (authorIds.isEmpty()) {
+            return List.of();
+        }
+        List<Object> ids = new ArrayList<>();
+        for (String id : authorIds) {
+            ids.add(id);
+            if (ObjectId.isValid(id)) {
+                ids.add(new ObjectId(id));
+            }
+        }
+        Criteria criteria = Criteria.where("author.$id").in(ids).and("status").is("PUBLISHED");
+        if (after != null) {
+            criteria = criteria.and("time").lte(after.time());
+        }
+        Query query = new Query(criteria)
+            .with(Sort.by(Sort.Direction.DESC, "time"))
+            .limit(limit);
+        query.fields().include("_id", "time");
+        return mongoTemplate.find(query, Posts.class).stream()
+            .filter(post -> post.getTime() != null)
+            .map(post -> new Entry(post.getId(), post.getTime()))
+            .toList();
+    }
+
+    /**
+     * The ids of the accounts this user follows, split at the fan-out threshold
+     */
+    private Following following(String userName) {
+        return twoTierCache.getOrLoad(TwoTierCache.Region.TIMELINE_SOURCES, userName, Following.class,
+            () -> loadFollowing(userName));
+    }
+
+    private Following loadFollowing(String userName) {
+        List<String> userNames = userRelationRepository.findFollowingUserNames(userName, UserRelation.RelationStatus.ACTIVE)
+            .stream()
+            .map(UserRelation::getFollowingUserName)
+            .toList();
+        if (userNames.isEmpty()) {
+            return new Following(List.of(), List.of());
+        }
+        Query query = new Query(Criteria.where("userName").in(userNames));
+        query.fields().include("_id", "followersCount");
+        List<String> pushed = new ArrayList<>();
+        List<String> pulled = new ArrayList<>();
+        for (User user : mongoTemplate.find(query, User.class)) {
+            (user.getFollowersCount() >= fanoutThreshold ? pulled : pushed).add(user.getId());
+        }
+        return new Following(pushed, pulled);
+    }
+
+    // (time, id) strictly before the cursor
+    private static boolean isAfter(Entry entry, PostCursor after) {
+        if (after == null) {
+            return true;
+        }
+        int byTime = entry.time().compareTo(after.time());
+        return byTime < 0 || (byTime == 0 && entry.id().compareTo(after.id()) < 0);
+    }
+
+    private static String timelineKey(String userName) {
+        return TIMELINE_PREFIX + userName;
+    }
+
+    private static String pendingKey(String userName) {
+        return PENDING_PREFIX + userName;
+    }
+}
@@ -0,0 +1,272 @@
+package Feat.FeatureMe.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import Feat.FeatureMe.Entity.Posts;
+
+/**
+ * Time-decayed trending score for posts.
+ *
+ * The decayed score of a post is sum(weight * e^(-lambda * (now - eventTime))). Every term
+ * shares the e^(-lambda * now) factor, so posts rank the same by
+ * sum(weight * e^(lambda * (eventTime - epoch))), which only ever grows per engagement event,
+ * applied in the same update as the post's cached counter. That value is stored in
+ * posts.trendingScore and read through the {status, trendingScore} index.
+ *
+ * Because it grows exponentially, the epoch is moved forward periodically and scores are
+ * rebased. Each post records the epoch its score is relative to (posts.trendingEpoch), and
+ * increments are computed by Mongo against that stored epoch, so an increment is correct
+ * whether it lands before or after its post is rebased, and whichever epoch this instance
+ * currently knows. One instance at a time rebases (Redis lock); the new epoch is published
+ * only after every post has been moved to it, and broadcast so other instances switch at once.
+ */
+@Service
+public class TrendingScoreService implements MessageListener {
+
+    public static final double PUBLISH_WEIGHT = 1.0; // Base score so fresh posts outrank stale ones
+    public static final double LIKE_WEIGHT = 1.0;
+    public static final double COMMENT_WEIGHT = 2.0;
+    public static final double DOWNLOAD_WEIGHT = 3.0;
+    public static final double VIEW_WEIGHT = 0.1;
+
+    public static final String EPOCH_CHANNEL = "trending:epoch";
+
+    private static final String STATE_COLLECTION = "trending_state";
+    private static final String STATE_ID = "posts";
+    private static final double NEGLIGIBLE_SCORE = 1e-9;
+    private static final String REBASE_LOCK_KEY = "trending:rebase:lock";
+    private static final Duration REBASE_LOCK_TTL = Duration.ofMinutes(30);
+
+    // Release the rebase lock only if this instance still holds it
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end", Long.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final double lambdaPerMilli;
+    private volatile long epochMillis;
+
+    public TrendingScoreService(MongoTemplate mongoTemplate,
+                                StringRedisTemplate redisTemplate,
+                                @Value("${featureme.trending.half-life-hours:24}") double halfLifeHours) {
+        this.mongoTemplate = mongoTemplate;
+        this.redisTemplate = redisTemplate;
+        this.lambdaPerMilli = Math.log(2) / Duration.ofMinutes(Math.round(halfLifeHours * 60)).toMillis();
+        this.epochMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Score contribution of an event with the given weight happening at the given time, relative to this instance's epoch
+     */
+    public double contribution(double weight, Instant at) {
+        return weight * Math.exp(lambdaPerMilli * (at.toEpochMilli() - epochMillis));
+    }
+
+    /**
+     * Give a post that is about to be inserted as published its base score, tagged with the epoch it was computed against
+     */
+    public void seed(Posts post) {
+        long epoch = epochMillis;
+        post.setTrendingScore(PUBLISH_WEIGHT * Math.exp(lambdaPerMilli * (System.currentTimeMillis() - epoch)));
+        post.setTrendingEpoch(epoch);
+    }
+
+    /**
+     * $set fields for an update pipeline that adds an engagement event happening now. The
+     * contribution is computed against the post's own trendingEpoch, so it never mixes epochs.
+     */
+    public Document increment(double weight) {
+        return change(weight, Instant.now());
+    }
+
+    /**
+     * $set fields that take back an event (unlike, deleted comment) made at eventTime: the same
+     * decayed amount it added then, not a full weight at the current time
+     */
+    public Document decrement(double weight, Instant eventTime) {
+        return change(-weight, eventTime != null ? eventTime : Instant.now());
+    }
+
+    // Never below zero, in case the event predates the score (e.g. a backfilled post)
+    private Document change(double weight, Instant at) {
+        Document postEpoch = new Document("$ifNull", List.of("$trendingEpoch", epochMillis));
+        Document contribution = new Document("$multiply", List.of(weight, new Document("$exp", new Document("$multiply", List.of(
+            lambdaPerMilli,
+            new Document("$subtract", List.of(at.toEpochMilli(), postEpoch))
+        )))));
+        Document sum = new Document("$add", List.of(new Document("$ifNull", List.of("$trendingScore", 0.0)), contribution));
+        return new Document("trendingScore", new Document("$max", List.of(0.0, sum)))
+            .append("trendingEpoch", postEpoch);
+    }
+
+    /**
+     * Load the persisted epoch and seed scores for posts that predate the trending score
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            Document state = mongoTemplate.getCollection(STATE_COLLECTION).find(new Document("_id", STATE_ID)).first();
+            if (state != null && state.get("epochMillis") instanceof Number epoch) {
+                epochMillis = epoch.longValue();
+            } else {
+                mongoTemplate.getCollection(STATE_COLLECTION).insertOne(new Document("_id", STATE_ID).append("epochMillis", epochMillis));
+            }
+            backfillMissingScores();
+            tagUntaggedScores();
+        } catch (Exception e) {
+            System.err.println("Error initializing trending scores: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Seed trendingScore from the cached totals, treating all past engagement as happening at post time.
+     * A single pipeline update; once every post has a score this matches nothing.
+     */
+    private void backfillMissingScores() {
+        Document weightedTotal = new Document("$add", List.of(
+            PUBLISH_WEIGHT,
+            new Document("$multiply", List.of(LIKE_WEIGHT, new Document("$ifNull", List.of("$totalLikes", 0)))),
+            new Document("$multiply", List.of(COMMENT_WEIGHT, new Document("$ifNull", List.of("$totalComments", 0)))),
+            new Document("$multiply", List.of(DOWNLOAD_WEIGHT, new Document("$ifNull", List.of("$totalDownloads", 0)))),
+            new Document("$multiply", List.of(VIEW_WEIGHT, new Document("$ifNull", List.of("$totalViews", 0))))
+        ));
+        Document decay = new Document("$exp", new Document("$multiply", List.of(
+            lambdaPerMilli,
+            new Document("$subtract", List.of(new Document("$toLong", "$time"), epochMillis))
+        )));
+        long updated = mongoTemplate.getCollection("posts").updateMany(
+            new Document("trendingScore", new Document("$exists", false)).append("time", new Document("$ne", null)),
+            List.of(new Document("$set", new Document("trendingScore", new Document("$multiply", List.of(weightedTotal, decay)))
+                .append("trendingEpoch", epochMillis)))
+        ).getModifiedCount();
+        if (updated > 0) {
+            System.out.println("Backfilled trending score on " + updated + " posts");
+        }
+    }
+
+    /**
+     * Scores written before posts carried trendingEpoch are relative to the stored epoch; record it on them
+     */
+    private void tagUntaggedScores() {
+        long updated = mongoTemplate.getCollection("posts").updateMany(
+            new Document("trendingEpoch", new Document("$exists", false)),
+            new Document("$set", new Document("trendingEpoch", epochMillis))
+        ).getModifiedCount();
+        if (updated > 0) {
+            System.out.println("Tagged trending epoch on " + updated + " posts");
+        }
+    }
+
+    /**
+     * Fallback for missed epoch broadcasts; the epoch only moves forward
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void refreshEpoch() {
+        try {
+            Document state = mongoTemplate.getCollection(STATE_COLLECTION).find(new Document("_id", STATE_ID)).first();
+            if (state != null && state.get("epochMillis") instanceof Number epoch) {
+                advanceEpoch(epoch.longValue());
+            }
+        } catch (Exception e) {
+            System.err.println("Error refreshing trending epoch: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Epoch published by the instance that just rebased
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            advanceEpoch(Long.parseLong(new String(message.getBody(), StandardCharsets.UTF_8)));
+        } catch (NumberFormatException e) {
+            System.err.println("Ignoring malformed trending epoch: " + e.getMessage());
+        }
+    }
+
+    private synchronized void advanceEpoch(long epoch) {
+        if (epoch > epochMillis) {
+            epochMillis = epoch;
+        }
+    }
+
+    /**
+     * Move the epoch to now and scale every score down to match, keeping scores in a safe double range.
+     * Only the instance holding the Redis lock rebases. Posts are moved to the new epoch first and the
+     * epoch is published afterwards; a second pass picks up posts seeded on instances that hadn't
+     * switched yet. Scores that decay to nothing are zeroed.
+     */
+    @Scheduled(initialDelayString = "${featureme.trending.rebase-interval-ms:21600000}",
+               fixedDelayString = "${featureme.trending.rebase-interval-ms:21600000}")
+    public void rebase() {
+        String token = UUID.randomUUID().toString();
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(REBASE_LOCK_KEY, token, REBASE_LOCK_TTL))) {
+                return;
+            }
+        } catch (Exception e) {
+            System.err.println("Error acquiring trending rebase lock: " + e.getMessage());
+            return;
+        }
+        try {
+            Document state = mongoTemplate.getCollection(STATE_COLLECTION).find(new Document("_id", STATE_ID)).first();
+            long oldEpoch = state != null && state.get("epochMillis") instanceof Number epoch ? epoch.longValue() : epochMillis;
+            long newEpoch = System.currentTimeMillis();
+
+            long rebased = rebaseScores(oldEpoch, newEpoch);
+            mongoTemplate.getCollection(STATE_COLLECTION).updateOne(
+                new Document("_id", STATE_ID),
+                new Document("$set", new Document("epochMillis", newEpoch))
+            );
+            advanceEpoch(newEpoch);
+            redisTemplate.convertAndSend(EPOCH_CHANNEL, Long.toString(newEpoch));
+            rebased += rebaseScores(oldEpoch, newEpoch);
+            System.out.println("Rebased trending score on " + rebased + " posts");
+        } catch (Exception e) {
+            System.err.println("Error rebasing trending scores: " + e.getMessage());
+        } finally {
+            try {
+                redisTemplate.execute(UNLOCK_SCRIPT, List.of(REBASE_LOCK_KEY), token);
+            } catch (Exception e) {
+                System.err.println("Error releasing trending rebase lock: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Rescale every post still on an older epoch to newEpoch in one pipeline update, using each post's own
+     * epoch, so posts that were incremented or already rebased in between are scaled exactly once
+     */
+    private long rebaseScores(long oldEpoch, long newEpoch) {
+        Document postEpoch = new Document("$ifNull", List.of("$trendingEpoch", oldEpoch));
+        Document scaled = new Document("$multiply", List.of(
+            new Document("$ifNull", List.of("$trendingScore", 0.0)),
+            new Document("$exp", new Document("$multiply", List.of(lambdaPerMilli, new Document("$subtract", List.of(postEpoch, newEpoch)))))
+        ));
+        return mongoTemplate.getCollection("posts").updateMany(
+            new Document("trendingEpoch", new Document("$not", new Document("$gte", newEpoch))),
+            List.of(new Document("$set", new Document("trendingScore",
+                    new Document("$cond", List.of(new Document("$gt", List.of(scaled, NEGLIGIBLE_SCORE)), scaled, 0.0)))
+                .append("trendingEpoch", newEpoch)))
+        ).getModifiedCount();
+    }
+}
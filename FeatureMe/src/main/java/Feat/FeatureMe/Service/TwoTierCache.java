@@ -0,0 +1,467 @@
+package Feat.FeatureMe.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Two-tier cache for hot DTO reads: a bounded in-process LRU (L1) in front of Redis (L2).
+ *
+ * L1 entries live for a few seconds, L2 entries for a few minutes. Evicting a key deletes
+ * it from Redis and publishes it on INVALIDATION_CHANNEL so every instance drops its L1
+ * copy; the short L1 TTL bounds staleness if a message is missed.
+ *
+ * Misses can go through getOrLoad, which coalesces concurrent loads of the same key
+ * (single flight in-process, a short Redis lock across instances) so a hot key that
+ * expires doesn't send every request to Mongo at once.
+ *
+ * Hits and misses per tier are published as featureme.cache.requests and how misses were
+ * served as featureme.cache.loads (see /actuator/metrics).
+ */
+@Service
+public class TwoTierCache implements MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "cache:invalidate";
+
+    private static final String LOCK_PREFIX = "lock:";
+    private static final Duration LOCK_TTL = Duration.ofSeconds(3);
+    private static final Duration LOCK_WAIT_INTERVAL = Duration.ofMillis(50);
+    private static final int LOCK_WAIT_ATTEMPTS = 10;
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end", Long.class);
+
+    public enum Region {
+        POSTS("post:card:", 10_000, Duration.ofSeconds(30), Duration.ofMinutes(2)),
+        USERS("user:profile:", 5_000, Duration.ofSeconds(30), Duration.ofMinutes(5)),
+        PROFILES("user:header:", 5_000, Duration.ofSeconds(30), Duration.ofMinutes(5)),
+        SUGGESTIONS("user:suggestions:", 2_000, Duration.ofSeconds(30), Duration.ofMinutes(2)),
+        AVATARS("user:avatar:", 20_000, Duration.ofSeconds(30), Duration.ofMinutes(10)),
+        TIMELINE_SOURCES("timeline:following:", 5_000, Duration.ofSeconds(30), Duration.ofMinutes(10));
+
+        private final String keyPrefix;
+        private final int localCapacity;
+        private final Duration localTtl;
+        private final Duration redisTtl;
+
+        Region(String keyPrefix, int localCapacity, Duration localTtl, Duration redisTtl) {
+            this.keyPrefix = keyPrefix;
+            this.localCapacity = localCapacity;
+            this.localTtl = localTtl;
+            this.redisTtl = redisTtl;
+        }
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Map<Region, LocalCache> local = new EnumMap<>(Region.class);
+    private final Map<Region, RegionMetrics> metrics = new EnumMap<>(Region.class);
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    public TwoTierCache(StringRedisTemplate redisTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        for (Region region : Region.values()) {
+            LocalCache cache = new LocalCache(region.localCapacity, region.localTtl.toMillis());
+            local.put(region, cache);
+            metrics.put(region, new RegionMetrics(meterRegistry, region));
+            meterRegistry.gauge("featureme.cache.l1.size", Tags.of("cache", cacheTag(region)), cache, LocalCache::size);
+        }
+    }
+
+    public <T> Optional<T> get(Region region, String key, Class<T> type) {
+        Map<String, T> found = getAll(region, List.of(key), type);
+        return Optional.ofNullable(found.get(key));
+    }
+
+    /**
+     * Cached values by key, L1 first then one Redis MGET for the rest; misses are absent from the map
+     */
+    public <T> Map<String, T> getAll(Region region, List<String> keys, Class<T> type) {
+        Map<String, T> found = new HashMap<>();
+        if (keys.isEmpty()) {
+            return found;
+        }
+        LocalCache cache = local.get(region);
+        RegionMetrics stats = metrics.get(region);
+        List<String> remote = new ArrayList<>();
+        for (String key : keys) {
+            Object value = cache.get(key);
+            if (type.isInstance(value)) {
+                found.put(key, type.cast(value));
+                stats.l1Hits.increment();
+            } else {
+                remote.add(key);
+                stats.l1Misses.increment();
+            }
+        }
+        if (remote.isEmpty()) {
+            return found;
+        }
+
+        // A key evicted while the Redis read is in flight may already be stale
+        found.putAll(readRemote(region, remote, type, cache.stamp(), true));
+        return found;
+    }
+
+    /**
+     * Cached value, or the loader's result with concurrent misses coalesced.
+     *
+     * Callers on this instance asking for the same key while a load is running wait for it
+     * instead of loading again (single flight). Across instances, the loader takes a short
+     * Redis lock; other instances missing at the same time poll Redis briefly for its result
+     * and only load themselves if it doesn't show up. Exceptions from the loader reach every
+     * waiting caller. Null results are not cached.
+     */
+    public <T> T getOrLoad(Region region, String key, Class<T> type, Supplier<T> loader) {
+        LocalCache cache = local.get(region);
+        RegionMetrics stats = metrics.get(region);
+        Object cached = cache.get(key);
+        if (type.isInstance(cached)) {
+            stats.l1Hits.increment();
+            return type.cast(cached);
+        }
+        stats.l1Misses.increment();
+
+        String flightKey = region.name() + ":" + key;
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(flightKey, flight);
+        if (leader != null) {
+            stats.coalesced.increment();
+            return type.cast(await(leader));
+        }
+        try {
+            T value = loadThroughRedis(region, key, type, loader);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    private <T> T loadThroughRedis(Region region, String key, Class<T> type, Supplier<T> loader) {
+        long stamp = local.get(region).stamp();
+        T remote = readRemote(region, List.of(key), type, stamp, true).get(key);
+        if (remote != null) {
+            return remote;
+        }
+
+        String lockKey = LOCK_PREFIX + region.keyPrefix + key;
+        String token = UUID.randomUUID().toString();
+        boolean locked = tryLock(lockKey, token);
+        try {
+            if (!locked) {
+                // Another instance is loading this key; give it a moment to publish the value
+                for (int attempt = 0; attempt < LOCK_WAIT_ATTEMPTS; attempt++) {
+                    sleep(LOCK_WAIT_INTERVAL);
+                    remote = readRemote(region, List.of(key), type, stamp, false).get(key);
+                    if (remote != null) {
+                        metrics.get(region).lockWaitHits.increment();
+                        return remote;
+                    }
+                }
+            }
+            T value = loader.get();
+            metrics.get(region).loads.increment();
+            if (value != null) {
+                store(region, Map.of(key, value), stamp);
+            }
+            return value;
+        } finally {
+            if (locked) {
+                unlock(lockKey, token);
+            }
+        }
+    }
+
+    private <T> Map<String, T> readRemote(Region region, List<String> keys, Class<T> type, long stamp, boolean countStats) {
+        Map<String, T> found = new HashMap<>();
+        LocalCache cache = local.get(region);
+        RegionMetrics stats = metrics.get(region);
+        try {
+            List<String> values = redisTemplate.opsForValue().multiGet(keys.stream().map(key -> region.keyPrefix + key).toList());
+            for (int i = 0; i < keys.size(); i++) {
+                String json = values != null ? values.get(i) : null;
+                if (json == null) {
+                    if (countStats) {
+                        stats.l2Misses.increment();
+                    }
+                    continue;
+                }
+                T value = objectMapper.readValue(json, type);
+                found.put(keys.get(i), value);
+                cache.put(keys.get(i), value, stamp);
+                if (countStats) {
+                    stats.l2Hits.increment();
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to read " + cacheTag(region) + " from cache: " + e.getMessage());
+        }
+        return found;
+    }
+
+    // Fails open: if Redis is unreachable every instance just loads for itself
+    private boolean tryLock(String lockKey, String token) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, token, LOCK_TTL));
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    private void unlock(String lockKey, String token) {
+        try {
+            redisTemplate.execute(UNLOCK_SCRIPT, List.of(lockKey), token);
+        } catch (Exception e) {
+            // The lock expires on its own
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stamp to take before reading the values that will be passed to putAll
+     */
+    public long loadStamp(Region region) {
+        return local.get(region).stamp();
+    }
+
+    /**
+     * Cache values the caller loaded itself, except those evicted since loadStamp was taken
+     */
+    public void putAll(Region region, Map<String, ?> values, long loadStamp) {
+        store(region, values, loadStamp);
+    }
+
+    /**
+     * Cache freshly loaded values, except those whose key was evicted while they were loading
+     * (the load may have read the document before the write that triggered the eviction)
+     */
+    private void store(Region region, Map<String, ?> values, long loadStamp) {
+        LocalCache cache = local.get(region);
+        Map<String, Object> fresh = new HashMap<>();
+        values.forEach((key, value) -> {
+            if (cache.put(key, value, loadStamp)) {
+                fresh.put(key, value);
+            }
+        });
+        if (!fresh.isEmpty()) {
+            writeRemote(region, fresh);
+        }
+    }
+
+    // One pipeline for all the SETs
+    private void writeRemote(Region region, Map<String, ?> values) {
+        try {
+            Map<String, String> json = new HashMap<>();
+            for (Map.Entry<String, ?> entry : values.entrySet()) {
+                json.put(region.keyPrefix + entry.getKey(), objectMapper.writeValueAsString(entry.getValue()));
+            }
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Object execute(RedisOperations operations) throws DataAccessException {
+                    json.forEach((key, value) -> operations.opsForValue().set(key, value, region.redisTtl));
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            System.err.println("Failed to cache " + cacheTag(region) + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Drop a key from both tiers on every instance
+     */
+    public void evict(Region region, String key) {
+        local.get(region).remove(key);
+        try {
+            redisTemplate.delete(region.keyPrefix + key);
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, region.name() + ":" + key);
+        } catch (Exception e) {
+            System.err.println("Failed to evict " + cacheTag(region) + " " + key + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Invalidation published by any instance (including this one)
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(':');
+        if (separator < 0) {
+            return;
+        }
+        try {
+            Region region = Region.valueOf(body.substring(0, separator));
+            local.get(region).remove(body.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Ignoring unknown cache invalidation: " + body);
+        }
+    }
+
+    private static String cacheTag(Region region) {
+        return region.name().toLowerCase();
+    }
+
+    private static final class RegionMetrics {
+        private final Counter l1Hits;
+        private final Counter l1Misses;
+        private final Counter l2Hits;
+        private final Counter l2Misses;
+        private final Counter loads;
+        private final Counter coalesced;
+        private final Counter lockWaitHits;
+
+        RegionMetrics(MeterRegistry registry, Region region) {
+            l1Hits = counter(registry, region, "l1", "hit");
+            l1Misses = counter(registry, region, "l1", "miss");
+            l2Hits = counter(registry, region, "l2", "hit");
+            l2Misses = counter(registry, region, "l2", "miss");
+            loads = loadCounter(registry, region, "loaded");
+            coalesced = loadCounter(registry, region, "coalesced");
+            lockWaitHits = loadCounter(registry, region, "lock_wait_hit");
+        }
+
+        // How misses were served: an actual load, a shared in-flight load, or another instance's load
+        private static Counter loadCounter(MeterRegistry registry, Region region, String outcome) {
+            return Counter.builder("featureme.cache.loads")
+                .tag("cache", cacheTag(region))
+                .tag("outcome", outcome)
+                .register(registry);
+        }
+
+        private static Counter counter(MeterRegistry registry, Region region, String tier, String result) {
+            return Counter.builder("featureme.cache.requests")
+                .tag("cache", cacheTag(region))
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(registry);
+        }
+    }
+
+    /**
+     * Size-bounded LRU with a per-entry TTL. A single lock is fine here: every operation is a hash lookup.
+     *
+     * Each eviction takes the next value of a sequence and records it against its key. A caller
+     * takes stamp() before reading, and its put is dropped only if that key was evicted after the
+     * stamp, so writes to other keys never keep a value out. The eviction record is bounded like
+     * the entries; once a key's record is pushed out, puts stamped before it are dropped.
+     */
+    private static final class LocalCache {
+        private final long ttlMillis;
+        private final AtomicLong sequence = new AtomicLong();
+        private final LinkedHashMap<String, LocalEntry> entries;
+        private final LinkedHashMap<String, Long> evictions;
+        // Latest eviction no longer recorded per key
+        private long forgottenUpTo;
+
+        LocalCache(int capacity, long ttlMillis) {
+            this.ttlMillis = ttlMillis;
+            this.entries = new LinkedHashMap<>(capacity, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, LocalEntry> eldest) {
+                    return size() > capacity;
+                }
+            };
+            this.evictions = new LinkedHashMap<>(capacity, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                    if (size() > capacity) {
+                        forgottenUpTo = Math.max(forgottenUpTo, eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized Object get(String key) {
+            LocalEntry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt() < System.currentTimeMillis()) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.value();
+        }
+
+        // Skipped if the key was evicted since the caller read the value, as it may predate the eviction
+        synchronized boolean put(String key, Object value, long readStamp) {
+            Long evictedAt = evictions.get(key);
+            if (readStamp < forgottenUpTo || (evictedAt != null && evictedAt > readStamp)) {
+                return false;
+            }
+            entries.put(key, new LocalEntry(value, System.currentTimeMillis() + ttlMillis));
+            return true;
+        }
+
+        synchronized void remove(String key) {
+            // Re-insert so the map stays ordered by eviction
+            evictions.remove(key);
+            evictions.put(key, sequence.incrementAndGet());
+            entries.remove(key);
+        }
+
+        long stamp() {
+            return sequence.get();
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+
+    private record LocalEntry(Object value, long expiresAt) { }
+}
@@ -0,0 +1,16 @@
+package Feat.FeatureMe.Service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published when a user's posts, featured-on posts, likes, comments or chats change. Those are
+ * no longer stored on the user document, so this (not UserUpdatedEvent) is what drops the
+ * cached profiles that list them.
+ */
+public record UserActivityChangedEvent(Collection<String> userNames) {
+
+    public static UserActivityChangedEvent of(String... userNames) {
+        return new UserActivityChangedEvent(List.of(userNames));
+    }
+}
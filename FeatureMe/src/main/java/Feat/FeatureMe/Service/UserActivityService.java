@@ -0,0 +1,486 @@
+package Feat.FeatureMe.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import Feat.FeatureMe.Dto.CommentedOnDTO;
+import Feat.FeatureMe.Dto.CursorPageDTO;
+import Feat.FeatureMe.Dto.PostCursor;
+import Feat.FeatureMe.Entity.Chats;
+import Feat.FeatureMe.Entity.PostComment;
+import Feat.FeatureMe.Entity.PostLike;
+import Feat.FeatureMe.Entity.Posts;
+import Feat.FeatureMe.Entity.User;
+
+import com.mongodb.DBRef;
+
+/**
+ * A user's posts, featured-on posts, likes, comments and chats, read from the collections
+ * that own them (posts, post_likes, post_comments, chatRooms) instead of arrays on the user
+ * document. Every query is an indexed, projected lookup of ids, newest first.
+ *
+ * The user document used to carry a copy of each list; they grew without bound and were
+ * deserialized on every findByUserName. migrateEmbeddedActivity moves what only the arrays
+ * still hold into the collections, then strips them.
+ */
+@Service
+public class UserActivityService {
+
+    private static final String[] LEGACY_ARRAYS = { "posts", "featuredOn", "likedPosts", "comments", "chats" };
+    // Dropped by MongoIndexConfig; while either exists, rows restored from the arrays would expire again
+    private static final String LIKE_TTL_INDEX = "like_ttl_idx";
+    private static final String COMMENT_TTL_INDEX = "comment_ttl_idx";
+    private static final int MAX_CURSOR_PAGE_SIZE = 50;
+
+    private final MongoTemplate mongoTemplate;
+
+    public UserActivityService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Everything at once, for the profile DTOs
+     */
+    public record Activity(
+            List<String> posts,
+            List<String> featuredOn,
+            List<String> likedPosts,
+            List<CommentedOnDTO> comments,
+            List<String> chats
+    ) { }
+
+    public Activity activityOf(User user) {
+        return new Activity(
+            postIds(user.getId(), Pageable.unpaged()),
+            featuredOnIds(user.getUserName(), Pageable.unpaged()),
+            likedPostIds(user.getUserName(), Pageable.unpaged()),
+            comments(user.getUserName(), Pageable.unpaged()),
+            chatIds(user.getUserName())
+        );
+    }
+
+    /**
+     * activityOf for many users with one query per collection instead of five per user, keyed by user id
+     */
+    public Map<String, Activity> activitiesOf(Collection<User> users) {
+        if (users.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, String> idByAuthorId = new HashMap<>();
+        Map<String, String> idByUserName = new HashMap<>();
+        for (User user : users) {
+            idByAuthorId.put(user.getId(), user.getId());
+            if (user.getUserName() != null) {
+                idByUserName.put(user.getUserName(), user.getId());
+            }
+        }
+        Map<String, List<String>> posts = new HashMap<>();
+        Map<String, List<String>> featuredOn = new HashMap<>();
+        Map<String, List<String>> likedPosts = new HashMap<>();
+        Map<String, List<CommentedOnDTO>> comments = new HashMap<>();
+        Map<String, List<String>> chats = new HashMap<>();
+
+        // Authored posts: raw author DBRefs, so the lazy author is never resolved
+        List<Object> authorIds = new ArrayList<>();
+        for (String id : idByAuthorId.keySet()) {
+            authorIds.add(id);
+            if (ObjectId.isValid(id)) {
+                authorIds.add(new ObjectId(id));
+            }
+        }
+        Query authored = new Query(Criteria.where("author.$id").in(authorIds)).with(Sort.by(Sort.Direction.DESC, "time"));
+        authored.fields().include("_id", "author");
+        for (Document doc : mongoTemplate.find(authored, Document.class, "posts")) {
+            if (doc.get("author") instanceof DBRef ref && idByAuthorId.containsKey(ref.getId().toString())) {
+                posts.computeIfAbsent(ref.getId().toString(), id -> new ArrayList<>()).add(doc.get("_id").toString());
+            }
+        }
+
+        List<String> userNames = new ArrayList<>(idByUserName.keySet());
+        Query featured = new Query(Criteria.where("features").in(userNames)).with(Sort.by(Sort.Direction.DESC, "time"));
+        featured.fields().include("_id", "features");
+        for (Posts post : mongoTemplate.find(featured, Posts.class)) {
+            for (String feature : post.getFeatures()) {
+                String userId = idByUserName.get(feature);
+                if (userId != null) {
+                    featuredOn.computeIfAbsent(userId, id -> new ArrayList<>()).add(post.getId());
+                }
+            }
+        }
+
+        Query likes = new Query(Criteria.where("userName").in(userNames)).with(Sort.by(Sort.Direction.DESC, "likedAt"));
+        likes.fields().include("postId", "userName");
+        for (PostLike like : mongoTemplate.find(likes, PostLike.class)) {
+            likedPosts.computeIfAbsent(idByUserName.get(like.getUserName()), id -> new ArrayList<>()).add(like.getPostId());
+        }
+
+        Query commented = new Query(Criteria.where("userName").in(userNames)).with(Sort.by(Sort.Direction.DESC, "time"));
+        commented.fields().include("postId", "userName", "comment", "time");
+        for (PostComment c : mongoTemplate.find(commented, PostComment.class)) {
+            comments.computeIfAbsent(idByUserName.get(c.getUserName()), id -> new ArrayList<>())
+                .add(new CommentedOnDTO(c.getPostId(), c.getComment(), c.getTime()));
+        }
+
+        Query rooms = new Query(Criteria.where("users").in(userNames));
+        rooms.fields().include("_id", "users");
+        for (Chats chat : mongoTemplate.find(rooms, Chats.class)) {
+            for (String member : chat.getUsers()) {
+                String userId = idByUserName.get(member);
+                if (userId != null) {
+                    chats.computeIfAbsent(userId, id -> new ArrayList<>()).add(chat.getChatRoomId());
+                }
+            }
+        }
+
+        Map<String, Activity> activities = new HashMap<>();
+        for (String userId : idByAuthorId.keySet()) {
+            activities.put(userId, new Activity(
+                posts.getOrDefault(userId, List.of()),
+                featuredOn.getOrDefault(userId, List.of()),
+                likedPosts.getOrDefault(userId, List.of()),
+                comments.getOrDefault(userId, List.of()),
+                chats.getOrDefault(userId, List.of())
+            ));
+        }
+        return activities;
+    }
+
+    /**
+     * Just the sizes, for the slim profile header
+     */
+    public record Counts(long posts, long featuredOn, long likedPosts, long comments) { }
+
+    public Counts countsOf(String userId, String userName) {
+        return new Counts(
+            countPosts(userId),
+            mongoTemplate.count(new Query(Criteria.where("features").is(userName)), Posts.class),
+            mongoTemplate.count(new Query(Criteria.where("userName").is(userName)), PostLike.class),
+            mongoTemplate.count(new Query(Criteria.where("userName").is(userName)), PostComment.class)
+        );
+    }
+
+    // Posts the user authored, any status (author_time_id_idx)
+    public List<String> postIds(String userId, Pageable pageable) {
+        Query query = new Query(authorCriteria(userId))
+            .with(Sort.by(Sort.Direction.DESC, "time"))
+            .with(pageable);
+        query.fields().include("_id");
+        return mongoTemplate.find(query, Posts.class).stream().map(Posts::getId).toList();
+    }
+
+    public long countPosts(String userId) {
+        return mongoTemplate.count(new Query(authorCriteria(userId)), Posts.class);
+    }
+
+    /**
+     * Authored post counts of several users in one $match + $group on author_time_id_idx; users without posts are absent
+     */
+    public Map<String, Long> countPostsOf(Collection<String> userIds) {
+        Map<String, Long> counts = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return counts;
+        }
+        List<Object> authorIds = new ArrayList<>();
+        for (String id : userIds) {
+            authorIds.add(id);
+            if (ObjectId.isValid(id)) {
+                authorIds.add(new ObjectId(id));
+            }
+        }
+        // "$author.$id" isn't a valid field path in an expression, so the DBRef id is read with $getField
+        Document authorId = new Document("$getField", new Document("field", new Document("$literal", "$id")).append("input", "$author"));
+        List<Document> pipeline = List.of(
+            new Document("$match", new Document("author.$id", new Document("$in", authorIds))),
+            new Document("$group", new Document("_id", authorId).append("count", new Document("$sum", 1)))
+        );
+        for (Document group : mongoTemplate.getCollection("posts").aggregate(pipeline)) {
+            if (group.get("_id") != null && group.get("count") instanceof Number count) {
+                counts.merge(group.get("_id").toString(), count.longValue(), Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    // Posts the user is an approved feature on (features_time_id_idx)
+    public List<String> featuredOnIds(String userName, Pageable pageable) {
+        Query query = new Query(Criteria.where("features").is(userName))
+            .with(Sort.by(Sort.Direction.DESC, "time"))
+            .with(pageable);
+        query.fields().include("_id");
+        return mongoTemplate.find(query, Posts.class).stream().map(Posts::getId).toList();
+    }
+
+    // Posts the user liked, most recent like first (user_liked_time_id_idx)
+    public List<String> likedPostIds(String userName, Pageable pageable) {
+        Query query = new Query(Criteria.where("userName").is(userName))
+            .with(Sort.by(Sort.Direction.DESC, "likedAt"))
+            .with(pageable);
+        query.fields().include("postId");
+        return mongoTemplate.find(query, PostLike.class).stream().map(PostLike::getPostId).toList();
+    }
+
+    // The user's comments, newest first (user_time_id_idx)
+    public List<CommentedOnDTO> comments(String userName, Pageable pageable) {
+        Query query = new Query(Criteria.where("userName").is(userName))
+            .with(Sort.by(Sort.Direction.DESC, "time"))
+            .with(pageable);
+        query.fields().include("postId", "comment", "time");
+        return mongoTemplate.find(query, PostComment.class).stream()
+            .map(c -> new CommentedOnDTO(c.getPostId(), c.getComment(), c.getTime()))
+            .toList();
+    }
+
+    /*
+     * Cursor-paged versions for the profile tabs. Each page is keyset-paged on (time, _id) of the
+     * owning collection (post time, likedAt, comment time), so a page costs the same at any depth.
+     */
+
+    public CursorPageDTO<String> postIds(String userId, String cursor, int size) {
+        int pageSize = pageSize(size);
+        List<Posts> rows = findAfter(authorCriteria(userId), "time", PostCursor.decode(cursor), pageSize + 1,
+            Posts.class, "time");
+        return toPage(rows, pageSize, p -> new PostCursor(null, p.getTime(), p.getId()), Posts::getId);
+    }
+
+    public CursorPageDTO<String> featuredOnIds(String userName, String cursor, int size) {
+        int pageSize = pageSize(size);
+        List<Posts> rows = findAfter(Criteria.where("features").is(userName), "time", PostCursor.decode(cursor), pageSize + 1,
+            Posts.class, "time");
+        return toPage(rows, pageSize, p -> new PostCursor(null, p.getTime(), p.getId()), Posts::getId);
+    }
+
+    public CursorPageDTO<String> likedPostIds(String userName, String cursor, int size) {
+        int pageSize = pageSize(size);
+        List<PostLike> rows = findAfter(Criteria.where("userName").is(userName), "likedAt", PostCursor.decode(cursor), pageSize + 1,
+            PostLike.class, "postId", "likedAt");
+        return toPage(rows, pageSize, l -> new PostCursor(null, l.getLikedAt(), l.getId()), PostLike::getPostId);
+    }
+
+    public CursorPageDTO<CommentedOnDTO> comments(String userName, String cursor, int size) {
+        int pageSize = pageSize(size);
+        List<PostComment> rows = findAfter(Criteria.where("userName").is(userName), "time", PostCursor.decode(cursor), pageSize + 1,
+            PostComment.class, "postId", "comment", "time");
+        return toPage(rows, pageSize, c -> new PostCursor(null, c.getTime(), c.getId()),
+            c -> new CommentedOnDTO(c.getPostId(), c.getComment(), c.getTime()));
+    }
+
+    // Chat rooms the user is a member of (chatRooms.users index)
+    public List<String> chatIds(String userName) {
+        Query query = new Query(Criteria.where("users").is(userName));
+        query.fields().include("_id");
+        return mongoTemplate.find(query, Chats.class).stream().map(Chats::getChatRoomId).toList();
+    }
+
+    /**
+     * Strip the activity arrays still stored on user documents. posts, featuredOn and chats only
+     * mirrored the posts and chatRooms collections. likedPosts and comments can hold entries whose
+     * post_likes/post_comments rows were removed by the TTL indexes those collections used to
+     * have, so those entries are copied back first, and a user's arrays are only unset once every
+     * entry for a post that still exists is found in its collection. Users that fail the check keep
+     * their arrays and are retried on the next start. Once done this matches nothing.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateEmbeddedActivity() {
+        try {
+            if (hasIndex(PostLike.class, LIKE_TTL_INDEX) || hasIndex(PostComment.class, COMMENT_TTL_INDEX)) {
+                System.err.println("Not removing embedded user activity arrays while "
+                    + LIKE_TTL_INDEX + "/" + COMMENT_TTL_INDEX + " exist");
+                return;
+            }
+            List<Criteria> anyArray = new ArrayList<>();
+            Update update = new Update();
+            for (String field : LEGACY_ARRAYS) {
+                anyArray.add(Criteria.where(field).exists(true));
+                update.unset(field);
+            }
+            Query withArrays = new Query(new Criteria().orOperator(anyArray));
+            withArrays.fields().include("_id", "userName", "likedPosts", "comments");
+
+            long stripped = 0;
+            long kept = 0;
+            try (Stream<User> users = mongoTemplate.stream(withArrays, User.class)) {
+                for (User user : (Iterable<User>) users::iterator) {
+                    if (restoreEmbeddedActivity(user)) {
+                        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(user.getId())), update, User.class);
+                        stripped++;
+                    } else {
+                        kept++;
+                    }
+                }
+            }
+            if (stripped > 0) {
+                System.out.println("Removed embedded posts/likes/comments/chats arrays from " + stripped + " users");
+            }
+            if (kept > 0) {
+                System.err.println("Kept embedded activity arrays on " + kept + " users whose likes/comments could not be restored");
+            }
+        } catch (Exception e) {
+            System.err.println("Error removing embedded user activity arrays: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Copy the user's embedded likes and comments on existing posts that are missing from
+     * post_likes/post_comments into them; true once all of them are there. Post counters are
+     * left alone: expiring a row never decremented them.
+     */
+    private boolean restoreEmbeddedActivity(User user) {
+        String userName = user.getUserName();
+        List<String> likedPosts = user.getLikedPosts() != null ? user.getLikedPosts() : List.of();
+        List<CommentedOnDTO> comments = user.getComments() != null
+            ? user.getComments().stream().filter(c -> c.id() != null && c.time() != null).toList()
+            : List.of();
+        if (likedPosts.isEmpty() && comments.isEmpty()) {
+            return true;
+        }
+        if (userName == null) {
+            return false;
+        }
+
+        // Entries for deleted posts go with the array
+        Set<String> referenced = new HashSet<>(likedPosts);
+        comments.forEach(c -> referenced.add(c.id()));
+        Query live = new Query(Criteria.where("_id").in(referenced));
+        live.fields().include("_id", "time");
+        Map<String, Instant> postTimes = new HashMap<>();
+        for (Posts post : mongoTemplate.find(live, Posts.class)) {
+            postTimes.put(post.getId(), post.getTime() != null ? post.getTime() : Instant.EPOCH);
+        }
+
+        Set<String> likes = new LinkedHashSet<>();
+        likedPosts.stream().filter(postTimes::containsKey).forEach(likes::add);
+        Set<String> commentKeys = new LinkedHashSet<>();
+        List<CommentedOnDTO> liveComments = comments.stream().filter(c -> postTimes.containsKey(c.id())).toList();
+        liveComments.forEach(c -> commentKeys.add(commentKey(c.id(), c.time())));
+
+        Set<String> missingLikes = new HashSet<>(likes);
+        missingLikes.removeAll(storedLikes(userName, likes));
+        Set<String> missingComments = new HashSet<>(commentKeys);
+        missingComments.removeAll(storedComments(userName, postTimes.keySet()));
+        if (missingLikes.isEmpty() && missingComments.isEmpty()) {
+            return true;
+        }
+        int restoredLikes = missingLikes.size();
+        int restoredComments = missingComments.size();
+
+        if (!missingLikes.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PostLike.class);
+            for (String postId : missingLikes) {
+                // When the like happened isn't known; the post's time is the earliest it could have been
+                bulk.upsert(
+                    new Query(Criteria.where("postId").is(postId).and("userName").is(userName)),
+                    new Update().setOnInsert("likedAt", postTimes.get(postId)));
+            }
+            bulk.execute();
+        }
+        if (!missingComments.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PostComment.class);
+            for (CommentedOnDTO c : liveComments) {
+                if (missingComments.remove(commentKey(c.id(), c.time()))) {
+                    bulk.upsert(
+                        new Query(Criteria.where("postId").is(c.id()).and("userName").is(userName).and("time").is(c.time())),
+                        new Update().setOnInsert("comment", c.commented()));
+                }
+            }
+            bulk.execute();
+        }
+        System.out.println("Restored " + restoredLikes + " likes and " + restoredComments
+            + " comments of " + userName + " from the user document");
+
+        // Verify before the caller unsets anything
+        return storedLikes(userName, likes).containsAll(likes)
+            && storedComments(userName, postTimes.keySet()).containsAll(commentKeys);
+    }
+
+    private Set<String> storedLikes(String userName, Collection<String> postIds) {
+        Query query = new Query(Criteria.where("userName").is(userName).and("postId").in(postIds));
+        query.fields().include("postId");
+        Set<String> stored = new HashSet<>();
+        mongoTemplate.find(query, PostLike.class).forEach(like -> stored.add(like.getPostId()));
+        return stored;
+    }
+
+    private Set<String> storedComments(String userName, Collection<String> postIds) {
+        Query query = new Query(Criteria.where("userName").is(userName).and("postId").in(postIds));
+        query.fields().include("postId", "time");
+        Set<String> stored = new HashSet<>();
+        mongoTemplate.find(query, PostComment.class).stream()
+            .filter(c -> c.getTime() != null)
+            .forEach(c -> stored.add(commentKey(c.getPostId(), c.getTime())));
+        return stored;
+    }
+
+    private static String commentKey(String postId, Instant time) {
+        return postId + "@" + time.toEpochMilli();
+    }
+
+    private boolean hasIndex(Class<?> type, String name) {
+        return mongoTemplate.indexOps(type).getIndexInfo().stream().anyMatch(index -> name.equals(index.getName()));
+    }
+
+    private static int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+    }
+
+    // Newest first, strictly after the cursor: (timeField, _id) < (cursor.time, cursor.id)
+    private <T> List<T> findAfter(Criteria owner, String timeField, PostCursor after, int limit, Class<T> type, String... fields) {
+        Query query = new Query(owner);
+        if (after != null) {
+            query.addCriteria(new Criteria().orOperator(
+                Criteria.where(timeField).lt(after.time()),
+                Criteria.where(timeField).is(after.time()).and("_id").lt(toId(after.id()))
+            ));
+        }
+        query.with(Sort.by(Sort.Direction.DESC, timeField, "_id")).limit(limit);
+        query.fields().include(fields);
+        return mongoTemplate.find(query, type);
+    }
+
+    // rows holds up to one extra element, which only signals that another page exists
+    private static <T, R> CursorPageDTO<R> toPage(List<T> rows, int pageSize, Function<T, PostCursor> position, Function<T, R> content) {
+        boolean hasNext = rows.size() > pageSize;
+        List<T> page = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasNext ? position.apply(page.get(page.size() - 1)).encode() : null;
+        return new CursorPageDTO<>(page.stream().map(content).toList(), nextCursor, hasNext);
+    }
+
+    private static Object toId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    /**
+     * Match posts by author DBRef id (stored as ObjectId, or as a plain string for legacy ids)
+     */
+    private Criteria authorCriteria(String authorId) {
+        List<Object> ids = new ArrayList<>();
+        ids.add(authorId);
+        if (ObjectId.isValid(authorId)) {
+            ids.add(new ObjectId(authorId));
+        }
+        return Criteria.where("author.$id").in(ids);
+    }
+}
@@ -0,0 +1,66 @@
+package Feat.FeatureMe.Service;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import Feat.FeatureMe.Entity.User;
+import Feat.FeatureMe.Repository.UserUpdatedEvent;
+
+/**
+ * Drops a user's cached profiles (UserDTO and the slim UserProfileDTO) whenever the user document is saved or
+ * partially updated (profile edits, follows, subscription changes), or the user's
+ * posts, likes, comments or chats change.
+ */
+@Component
+public class UserProfileCacheListener extends AbstractMongoEventListener<User> {
+
+    private final TwoTierCache twoTierCache;
+
+    public UserProfileCacheListener(TwoTierCache twoTierCache) {
+        this.twoTierCache = twoTierCache;
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<User> event) {
+        User user = event.getSource();
+        if (user != null) {
+            evict(user.getUserName());
+            evictAvatar(user);
+        }
+    }
+
+    @EventListener
+    public void onUserUpdated(UserUpdatedEvent event) {
+        User user = event.user();
+        if (user != null) {
+            evict(user.getUserName());
+            evictAvatar(user);
+        }
+    }
+
+    @EventListener
+    public void onUserActivityChanged(UserActivityChangedEvent event) {
+        for (String userName : event.userNames()) {
+            evict(userName);
+        }
+    }
+
+    // Batch-resolved id, username and picture (UserProfileResolver); multi-user updates carry no id or picture
+    private void evictAvatar(User user) {
+        if (user.getUserName() != null) {
+            twoTierCache.evict(TwoTierCache.Region.AVATARS, UserProfileResolver.NAME_KEY + user.getUserName());
+        }
+        if (user.getId() != null) {
+            twoTierCache.evict(TwoTierCache.Region.AVATARS, UserProfileResolver.ID_KEY + user.getId());
+        }
+    }
+
+    private void evict(String userName) {
+        if (userName != null) {
+            twoTierCache.evict(TwoTierCache.Region.USERS, userName);
+            twoTierCache.evict(TwoTierCache.Region.PROFILES, userName);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package Feat.FeatureMe.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import Feat.FeatureMe.Entity.User;
+
+/**
+ * Current id, username and profile picture for every user on a page of results
+ * (followers, downloads, suggestions), instead of one findByUserName per row.
+ *
+ * Looks the whole page up in the AVATARS cache region, then loads the misses with one
+ * projected $in query and caches them under both username and id. Profile edits evict
+ * them (UserProfileCacheListener).
+ */
+@Service
+public class UserProfileResolver {
+
+    static final String NAME_KEY = "name:";
+    static final String ID_KEY = "id:";
+
+    private final MongoTemplate mongoTemplate;
+    private final TwoTierCache twoTierCache;
+
+    public UserProfileResolver(MongoTemplate mongoTemplate, TwoTierCache twoTierCache) {
+        this.mongoTemplate = mongoTemplate;
+        this.twoTierCache = twoTierCache;
+    }
+
+    public record Profile(String id, String userName, String profilePic) { }
+
+    /**
+     * Profiles by username; users that don't exist are absent from the map
+     */
+    public Map<String, Profile> byUserNames(Collection<String> userNames) {
+        return resolve(userNames, "userName", NAME_KEY, Profile::userName);
+    }
+
+    /**
+     * Profiles by user id; users that don't exist are absent from the map
+     */
+    public Map<String, Profile> byIds(Collection<String> ids) {
+        return resolve(ids, "id", ID_KEY, Profile::id);
+    }
+
+    private Map<String, Profile> resolve(Collection<String> values, String field, String keyPrefix, Function<Profile, String> keyOf) {
+        Map<String, Profile> resolved = new HashMap<>();
+        List<String> distinct = values.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinct.isEmpty()) {
+            return resolved;
+        }
+
+        Map<String, Profile> cached = twoTierCache.getAll(TwoTierCache.Region.AVATARS,
+            distinct.stream().map(value -> keyPrefix + value).toList(), Profile.class);
+        List<String> missing = new ArrayList<>();
+        for (String value : distinct) {
+            Profile profile = cached.get(keyPrefix + value);
+            if (profile != null) {
+                resolved.put(value, profile);
+            } else {
+                missing.add(value);
+            }
+        }
+        if (missing.isEmpty()) {
+            return resolved;
+        }
+
+        long loadStamp = twoTierCache.loadStamp(TwoTierCache.Region.AVATARS);
+        Query query = new Query(Criteria.where(field).in(missing));
+        query.fields().include("userName", "profilePic");
+        Map<String, Profile> loaded = new HashMap<>();
+        for (User user : mongoTemplate.find(query, User.class)) {
+            Profile profile = new Profile(user.getId(), user.getUserName(), user.getProfilePic());
+            resolved.put(keyOf.apply(profile), profile);
+            loaded.put(NAME_KEY + profile.userName(), profile);
+            loaded.put(ID_KEY + profile.id(), profile);
+        }
+        if (!loaded.isEmpty()) {
+            twoTierCache.putAll(TwoTierCache.Region.AVATARS, loaded, loadStamp);
+        }
+        return resolved;
+    }
+}
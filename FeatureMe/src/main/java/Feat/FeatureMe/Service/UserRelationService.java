@@ -1,10 +1,13 @@
 package Feat.FeatureMe.Service;
 
+import Feat.FeatureMe.Dto.FriendSuggestionDTO;
 import Feat.FeatureMe.Dto.NotificationsDTO;
 import Feat.FeatureMe.Dto.UserRelationDTO;
 import Feat.FeatureMe.Dto.UserRelationSummaryDTO;
 import Feat.FeatureMe.Entity.User;
 import Feat.FeatureMe.Entity.UserRelation;
+import Feat.FeatureMe.Repository.PartialUpdate;
+import Feat.FeatureMe.Repository.UserFields;
 import Feat.FeatureMe.Repository.UserRelationRepository;
 import Feat.FeatureMe.Repository.UserRepository;
 import org.springframework.data.domain.Page;
@@ -13,21 +16,38 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PagedModel;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 public class UserRelationService {
     
+    // Suggestions are computed (and cached) this deep once; requests take a prefix
+    private static final int MAX_SUGGESTIONS = 50;
+    
     private final UserRelationRepository userRelationRepository;
     private final UserRepository userRepository;
+    private final NotificationService notificationService;
+    private final TwoTierCache twoTierCache;
+    private final SocialGraphIndex socialGraphIndex;
+    private final UserProfileResolver userProfileResolver;
+    private final TimelineService timelineService;
     
-    public UserRelationService(UserRelationRepository userRelationRepository, UserRepository userRepository) {
+    public UserRelationService(UserRelationRepository userRelationRepository, UserRepository userRepository,
+                               NotificationService notificationService, TwoTierCache twoTierCache,
+                               SocialGraphIndex socialGraphIndex, UserProfileResolver userProfileResolver,
+                               TimelineService timelineService) {
         this.userRelationRepository = userRelationRepository;
         this.userRepository = userRepository;
+        this.notificationService = notificationService;
+        this.twoTierCache = twoTierCache;
+        this.socialGraphIndex = socialGraphIndex;
+        this.userProfileResolver = userProfileResolver;
+        this.timelineService = timelineService;
     }
     
     /**
@@ -53,15 +73,19 @@ public class UserRelationService {
             userRelationRepository.deleteByFollowerUserNameAndFollowingUserNameAndStatus(
                 followerUserName, followingUserName, UserRelation.RelationStatus.ACTIVE);
             
-            // Update counters
-            following.setFollowersCount(Math.max(0, following.getFollowersCount() - 1));
-            follower.setFollowingCount(Math.max(0, follower.getFollowingCount() - 1));
-            userRepository.save(following);
-            userRepository.save(follower);
+            // Update counters atomically; the precondition keeps them from going negative
+            userRepository.updateUser(followingUserName, PartialUpdate.user()
+                .requireAtLeast(UserFields.FOLLOWERS_COUNT, 1)
+                .inc(UserFields.FOLLOWERS_COUNT, -1));
+            userRepository.updateUser(followerUserName, PartialUpdate.user()
+                .requireAtLeast(UserFields.FOLLOWING_COUNT, 1)
+                .inc(UserFields.FOLLOWING_COUNT, -1));
             
             // Remove notification
             removeFollowNotification(following, followerUserName);
-            
+            twoTierCache.evict(TwoTierCache.Region.SUGGESTIONS, followerUserName);
+            timelineService.invalidate(followerUserName);
+                        
             return "Unfollowed";
         } else {
             // Follow
@@ -76,15 +100,15 @@ public class UserRelationService {
             
             userRelationRepository.save(newRelation);
             
-            // Update counters
-            following.setFollowersCount(following.getFollowersCount() + 1);
-            follower.setFollowingCount(follower.getFollowingCount() + 1);
-            userRepository.save(following);
-            userRepository.save(follower);
+            // Update counters atomically
+            userRepository.updateUser(followingUserName, PartialUpdate.user().inc(UserFields.FOLLOWERS_COUNT, 1));
+            userRepository.updateUser(followerUserName, PartialUpdate.user().inc(UserFields.FOLLOWING_COUNT, 1));
             
             // Add notification
             addFollowNotification(following, followerUserName);
-            
+            twoTierCache.evict(TwoTierCache.Region.SUGGESTIONS, followerUserName);
+            timelineService.invalidate(followerUserName);
+                        
             return "Followed";
         }
     }
@@ -106,11 +130,12 @@ public class UserRelationService {
             .findByFollowingUserNameAndStatusOrderByCreatedAtDesc(
                 userName, UserRelation.RelationStatus.ACTIVE, pageable);
         
+        // Current profile pictures for the whole page in one lookup instead of using the stored ones
+        Map<String, UserProfileResolver.Profile> profiles = userProfileResolver.byUserNames(
+            relations.map(UserRelation::getFollowerUserName).getContent());
+        
         Page<UserRelationDTO> relationDTOPage = relations.map(relation -> {
-            // Fetch current profile picture from User entity instead of using stored one
-            String currentProfilePic = userRepository.findByUserName(relation.getFollowerUserName())
-                .map(User::getProfilePic)
-                .orElse(relation.getFollowerProfilePic()); // Fallback to stored if user not found
+            String currentProfilePic = currentProfilePic(profiles, relation.getFollowerUserName(), relation.getFollowerProfilePic());
             
             return UserRelationDTO.fromFollower(
                 relation.getId(),
@@ -134,11 +159,12 @@ public class UserRelationService {
             .findByFollowerUserNameAndStatusOrderByCreatedAtDesc(
                 userName, UserRelation.RelationStatus.ACTIVE, pageable);
         
+        // Current profile pictures for the whole page in one lookup instead of using the stored ones
+        Map<String, UserProfileResolver.Profile> profiles = userProfileResolver.byUserNames(
+            relations.map(UserRelation::getFollowingUserName).getContent());
+        
         Page<UserRelationDTO> relationDTOPage = relations.map(relation -> {
-            // Fetch current profile picture from User entity instead of using stored one
-            String currentProfilePic = userRepository.findByUserName(relation.getFollowingUserName())
-                .map(User::getProfilePic)
-                .orElse(relation.getFollowingProfilePic()); // Fallback to stored if user not found
+            String currentProfilePic = currentProfilePic(profiles, relation.getFollowingUserName(), relation.getFollowingProfilePic());
             
             return UserRelationDTO.fromFollowing(
                 relation.getId(),
@@ -177,19 +203,25 @@ public class UserRelationService {
             .findTop10ByFollowingUserNameAndStatusOrderByCreatedAtDesc(
                 userName, UserRelation.RelationStatus.ACTIVE);
         
+        Map<String, UserProfileResolver.Profile> profiles = userProfileResolver.byUserNames(
+            recentFollowers.stream().map(UserRelation::getFollowerUserName).toList());
+        
         List<UserRelationDTO> recentFollowerDTOs = recentFollowers.stream()
             .map(relation -> UserRelationDTO.fromFollower(
                 relation.getId(),
                 relation.getFollowerUserName(),
-                relation.getFollowerProfilePic(),
+                currentProfilePic(profiles, relation.getFollowerUserName(), relation.getFollowerProfilePic()),
                 relation.getCreatedAt(),
                 relation.getRelationType().toString(),
                 relation.getStatus().toString()
             ))
             .collect(Collectors.toList());
         
-        // TODO: Implement mutual followers logic
+        // People the current user follows who also follow this user (from the in-memory graph)
         List<String> mutualFollowers = new ArrayList<>();
+        if (currentUserName != null && !currentUserName.equals(userName) && socialGraphIndex.isReady()) {
+            mutualFollowers = socialGraphIndex.followedByFollowing(currentUserName, userName, 10);
+        }
         
         return new UserRelationSummaryDTO(
             followersCount,
@@ -224,79 +256,68 @@ public class UserRelationService {
     }
     
     /**
-     * Get friend suggestions based on mutual connections
+     * Get friend suggestions based on mutual connections: accounts followed by the most
+     * people this user follows. Walked in the in-memory social graph once it has loaded,
+     * otherwise ranked and joined with profile pictures in one aggregation.
+     * Cached per user for a couple of minutes; following someone drops the cached list.
      */
-    public List<UserRelationDTO> getFriendSuggestions(String userName, int limit) {
-        // Get users that the current user follows
-        List<String> following = getFollowingUserNames(userName);
+    public List<FriendSuggestionDTO> getFriendSuggestions(String userName, int limit) {
+        FriendSuggestionDTO[] suggestions = twoTierCache.getOrLoad(
+            TwoTierCache.Region.SUGGESTIONS, userName, FriendSuggestionDTO[].class, () -> {
+                if (socialGraphIndex.isReady()) {
+                    return suggestFromGraph(userName);
+                }
+                // Get users that the current user follows
+                List<String> following = getFollowingUserNames(userName);
+                if (following.isEmpty()) {
+                    return new FriendSuggestionDTO[0];
+                }
+                return userRelationRepository.findFriendSuggestions(userName, following, MAX_SUGGESTIONS)
+                    .toArray(FriendSuggestionDTO[]::new);
+            });
         
-        if (following.isEmpty()) {
-            return new ArrayList<>();
-        }
-        
-        // Find suggestions
-        List<UserRelation> suggestions = userRelationRepository
-            .findFriendSuggestions(following, userName, following, UserRelation.RelationStatus.ACTIVE);
-        
-        return suggestions.stream()
-            .limit(limit)
-            .map(relation -> {
-                // Fetch current profile picture from User entity instead of using stored one
-                String currentProfilePic = userRepository.findByUserName(relation.getFollowingUserName())
-                    .map(User::getProfilePic)
-                    .orElse(relation.getFollowingProfilePic()); // Fallback to stored if user not found
-                
-                return UserRelationDTO.fromFollowing(
-                    relation.getId(),
-                    relation.getFollowingUserName(),
-                    currentProfilePic,
-                    relation.getCreatedAt(),
-                    relation.getRelationType().toString(),
-                    relation.getStatus().toString()
-                );
-            })
+        return Arrays.stream(suggestions)
+            .limit(Math.max(0, limit))
             .collect(Collectors.toList());
     }
     
     /**
-     * Add follow notification
+     * Two-hop walk in the in-memory graph, then one batch lookup for the candidates' ids and pictures
      */
-    private void addFollowNotification(User following, String followerUserName) {
-        NotificationsDTO notification = new NotificationsDTO(
-            null, followerUserName, "Started Following You!", Instant.now(), NotificationsDTO.NotiType.PROFILE);
-        
-        if (following.getNotifications() == null) {
-            following.setNotifications(new ArrayList<>());
+    private FriendSuggestionDTO[] suggestFromGraph(String userName) {
+        List<SocialGraphIndex.Candidate> candidates = socialGraphIndex.suggest(userName, MAX_SUGGESTIONS);
+        if (candidates.isEmpty()) {
+            return new FriendSuggestionDTO[0];
         }
+        Map<String, UserProfileResolver.Profile> profiles = userProfileResolver.byUserNames(
+            candidates.stream().map(SocialGraphIndex.Candidate::userName).toList());
         
-        following.getNotifications().add(notification);
-        cleanupNotifications(following);
-        userRepository.save(following);
+        return candidates.stream()
+            .filter(candidate -> profiles.containsKey(candidate.userName())) // Deleted since the graph was loaded
+            .map(candidate -> {
+                UserProfileResolver.Profile profile = profiles.get(candidate.userName());
+                return new FriendSuggestionDTO(profile.id(), profile.userName(), profile.profilePic(), candidate.mutualCount());
+            })
+            .toArray(FriendSuggestionDTO[]::new);
+    }
+    
+    // Fallback to the picture stored on the relation if the user wasn't found
+    private static String currentProfilePic(Map<String, UserProfileResolver.Profile> profiles, String userName, String stored) {
+        UserProfileResolver.Profile profile = profiles.get(userName);
+        return profile != null ? profile.profilePic() : stored;
     }
     
     /**
-     * Remove follow notification
+     * Add follow notification
      */
-    private void removeFollowNotification(User following, String followerUserName) {
-        if (following.getNotifications() != null) {
-            following.getNotifications().removeIf(notification ->
-                notification.userName().equals(followerUserName) &&
-                notification.noti().equals("Started Following You!")
-            );
-            userRepository.save(following);
-        }
+    private void addFollowNotification(User following, String followerUserName) {
+        notificationService.notify(following.getUserName(), null, followerUserName, "Started Following You!", NotificationsDTO.NotiType.PROFILE);
     }
     
-    
-    
     /**
-     * Cleanup notifications if they exceed 30
+     * Remove follow notification
      */
-    private void cleanupNotifications(User user) {
-        List<NotificationsDTO> notifications = user.getNotifications();
-        if (notifications != null && notifications.size() > 30) {
-            notifications.sort((n1, n2) -> n1.time().compareTo(n2.time()));
-            notifications.subList(0, notifications.size() - 30).clear();
-        }
+    private void removeFollowNotification(User following, String followerUserName) {
+        notificationService.remove(following.getUserName(), null, followerUserName, "Started Following You!");
     }
 }
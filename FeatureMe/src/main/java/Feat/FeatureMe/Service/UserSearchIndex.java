@@ -0,0 +1,282 @@
+package Feat.FeatureMe.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import Feat.FeatureMe.Entity.User;
+import Feat.FeatureMe.Repository.UserUpdatedEvent;
+
+/**
+ * In-memory username index for user search and autocomplete.
+ *
+ * Lowercased usernames are kept in a sorted map for prefix lookups and in a trigram
+ * posting list for substring lookups, so a keystroke in the search box is answered
+ * without touching Mongo. Matches are ranked exact name first, then by follower count.
+ *
+ * Saves and deletes of users on this instance update the index through Mongo lifecycle
+ * events (and UserUpdatedEvent for partial updates); a periodic reload picks up writes
+ * from other instances.
+ */
+@Service
+public class UserSearchIndex extends AbstractMongoEventListener<User> {
+
+    private static final int GRAM = 3;
+
+    private static final Comparator<Entry> RANKING = Comparator
+        .comparingInt(Entry::followersCount).reversed()
+        .thenComparing(Entry::lowerName);
+
+    private final MongoTemplate mongoTemplate;
+    private volatile Snapshot current = new Snapshot();
+    private volatile Snapshot rebuilding;
+    private volatile boolean ready;
+
+    public UserSearchIndex(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public record Entry(String id, String userName, String lowerName, String profilePic, String role, int followersCount) {
+
+        static Entry from(User user) {
+            return new Entry(
+                user.getId(),
+                user.getUserName(),
+                user.getUserName().toLowerCase(Locale.ROOT),
+                user.getProfilePic(),
+                user.getRole(),
+                user.getFollowersCount()
+            );
+        }
+    }
+
+    /**
+     * Whether the initial load has finished; callers fall back to Mongo until it has
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * All users whose name contains the term, best match first.
+     * Terms shorter than a trigram match as a prefix.
+     */
+    public List<Entry> search(String term) {
+        String needle = normalize(term);
+        if (needle.isEmpty()) {
+            return List.of();
+        }
+        Snapshot snapshot = current;
+        List<Entry> matches = new ArrayList<>();
+        if (needle.length() < GRAM) {
+            for (String id : snapshot.byName.subMap(needle, true, needle + Character.MAX_VALUE, false).values()) {
+                Entry entry = snapshot.byId.get(id);
+                if (entry != null && entry.lowerName().startsWith(needle)) {
+                    matches.add(entry);
+                }
+            }
+        } else {
+            // Walk the smallest posting list and verify candidates against the full term
+            Set<String> smallest = null;
+            for (int i = 0; i + GRAM <= needle.length(); i++) {
+                Set<String> postings = snapshot.grams.get(needle.substring(i, i + GRAM));
+                if (postings == null) {
+                    return List.of();
+                }
+                if (smallest == null || postings.size() < smallest.size()) {
+                    smallest = postings;
+                }
+            }
+            for (String id : smallest) {
+                Entry entry = snapshot.byId.get(id);
+                if (entry != null && entry.lowerName().contains(needle)) {
+                    matches.add(entry);
+                }
+            }
+        }
+        matches.sort(Comparator.comparing((Entry e) -> !e.lowerName().equals(needle)).thenComparing(RANKING));
+        return matches;
+    }
+
+    /**
+     * Top suggestions for the search box
+     */
+    public List<Entry> suggest(String term, int limit) {
+        List<Entry> matches = search(term);
+        return matches.size() > limit ? matches.subList(0, limit) : matches;
+    }
+
+    public void put(User user) {
+        if (user == null || user.getId() == null || user.getUserName() == null) {
+            return;
+        }
+        Entry entry = Entry.from(user);
+        current.put(entry);
+        Snapshot next = rebuilding;
+        if (next != null) {
+            next.put(entry);
+        }
+    }
+
+    public void remove(String userId) {
+        if (userId == null) {
+            return;
+        }
+        current.remove(userId);
+        Snapshot next = rebuilding;
+        if (next != null) {
+            next.remove(userId);
+        }
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<User> event) {
+        put(event.getSource());
+    }
+
+    // Partial updates (follower counts, role) carry the projected fields; list-only updates have no id and are skipped
+    @EventListener
+    public void onUserUpdated(UserUpdatedEvent event) {
+        put(event.user());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<User> event) {
+        Document filter = event.getSource();
+        Object id = filter != null ? filter.get("_id") : null;
+        if (id instanceof Document in && in.get("$in") instanceof List<?> ids) {
+            ids.forEach(each -> remove(String.valueOf(each)));
+        } else if (id != null && !(id instanceof Document)) {
+            remove(String.valueOf(id));
+        }
+        // Deletes by other criteria are picked up by the next reload
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    @Scheduled(initialDelayString = "${featureme.user-search.reload-interval-ms:300000}",
+               fixedDelayString = "${featureme.user-search.reload-interval-ms:300000}")
+    public void scheduledReload() {
+        reload();
+    }
+
+    /**
+     * Rebuild the index from a projected scan of the user collection and swap it in.
+     * Saves that land during the scan are applied to both the old and new index.
+     */
+    public synchronized void reload() {
+        try {
+            long start = System.currentTimeMillis();
+            Snapshot next = new Snapshot();
+            rebuilding = next;
+            Query query = new Query();
+            query.fields().include("userName", "profilePic", "role", "followersCount");
+            try (Stream<User> users = mongoTemplate.stream(query, User.class)) {
+                users.forEach(user -> {
+                    if (user.getUserName() != null) {
+                        next.putIfAbsent(Entry.from(user));
+                    }
+                });
+            }
+            current = next;
+            ready = true;
+            System.out.println("Loaded user search index: " + next.byId.size() + " users in "
+                + (System.currentTimeMillis() - start) + " ms");
+        } catch (Exception e) {
+            System.err.println("Error loading user search index: " + e.getMessage());
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    private static String normalize(String term) {
+        return term == null ? "" : term.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> gramsOf(String lowerName) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= lowerName.length(); i++) {
+            grams.add(lowerName.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    /**
+     * One generation of the index. Reads are lock-free; writers are serialized per snapshot,
+     * and readers re-check every candidate so a half-applied write is never returned.
+     */
+    private static final class Snapshot {
+        private final ConcurrentHashMap<String, Entry> byId = new ConcurrentHashMap<>();
+        // lowerName + '\0' + id -> id: names that differ only in case get a key each, still in name order
+        private final ConcurrentSkipListMap<String, String> byName = new ConcurrentSkipListMap<>();
+        private final ConcurrentHashMap<String, Set<String>> grams = new ConcurrentHashMap<>();
+
+        synchronized void put(Entry entry) {
+            Entry previous = byId.put(entry.id(), entry);
+            if (previous != null && !previous.lowerName().equals(entry.lowerName())) {
+                unlink(previous);
+            }
+            link(entry);
+        }
+
+        // Scan results must not overwrite a newer entry written by an event during the reload
+        synchronized void putIfAbsent(Entry entry) {
+            if (byId.putIfAbsent(entry.id(), entry) == null) {
+                link(entry);
+            }
+        }
+
+        synchronized void remove(String id) {
+            Entry previous = byId.remove(id);
+            if (previous != null) {
+                unlink(previous);
+            }
+        }
+
+        private void link(Entry entry) {
+            byName.put(nameKey(entry), entry.id());
+            for (String gram : gramsOf(entry.lowerName())) {
+                grams.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(entry.id());
+            }
+        }
+
+        private static String nameKey(Entry entry) {
+            return entry.lowerName() + '\0' + entry.id();
+        }
+
+        private void unlink(Entry entry) {
+            byName.remove(nameKey(entry), entry.id());
+            for (String gram : gramsOf(entry.lowerName())) {
+                Set<String> postings = grams.get(gram);
+                if (postings != null) {
+                    postings.remove(entry.id());
+                    if (postings.isEmpty()) {
+                        grams.remove(gram, postings);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -1,12 +1,15 @@
 package Feat.FeatureMe.Service;
 
 
-import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PagedModel;
@@ -16,16 +19,21 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import Feat.FeatureMe.Dto.CommentedOnDTO;
+import Feat.FeatureMe.Dto.CursorPageDTO;
 import Feat.FeatureMe.Dto.NotificationsDTO;
+import Feat.FeatureMe.Dto.PostsDTO;
+import Feat.FeatureMe.Dto.UserAutocompleteDTO;
 import Feat.FeatureMe.Dto.UserDTO;
+import Feat.FeatureMe.Dto.UserProfileDTO;
 import Feat.FeatureMe.Dto.UserSearchDTO;
+import Feat.FeatureMe.Entity.Posts;
 import Feat.FeatureMe.Entity.User;
+import Feat.FeatureMe.Repository.PartialUpdate;
+import Feat.FeatureMe.Repository.UserFields;
 import Feat.FeatureMe.Repository.UserRepository;
 import Feat.FeatureMe.Repository.PostsRepository;
 import Feat.FeatureMe.Repository.DemoRepository;
 import Feat.FeatureMe.Repository.PostLikeRepository;
-import Feat.FeatureMe.Repository.PostCommentRepository;
-import Feat.FeatureMe.Repository.PostViewRepository;
 import Feat.FeatureMe.Repository.PostDownloadRepository;
 import Feat.FeatureMe.Repository.UserRelationRepository;
 import Feat.FeatureMe.Repository.ChatsRepository;
@@ -39,43 +47,66 @@ public class UserService {
     private final PostsRepository postsRepository;
     private final DemoRepository demoRepository;
     private final PostLikeRepository postLikeRepository;
-    private final PostCommentRepository postCommentRepository;
-    private final PostViewRepository postViewRepository;
     private final PostDownloadRepository postDownloadRepository;
     private final UserRelationRepository userRelationRepository;
     private final ChatsRepository chatsRepository;
     private final PasswordEncoder passwordEncoder;
     private final S3Service s3Service;
+    private final AuthorSnapshotService authorSnapshotService;
+    private final UserSearchIndex userSearchIndex;
+    private final TwoTierCache twoTierCache;
+    private final NotificationService notificationService;
+    private final UserActivityService userActivityService;
+    private final PostsService postsService;
 
     public UserService(UserRepository userRepository, UserRelationService userRelationService, 
                       PostsRepository postsRepository, DemoRepository demoRepository,
-                      PostLikeRepository postLikeRepository, PostCommentRepository postCommentRepository,
-                      PostViewRepository postViewRepository, PostDownloadRepository postDownloadRepository,
+                      PostLikeRepository postLikeRepository, PostDownloadRepository postDownloadRepository,
                       UserRelationRepository userRelationRepository, ChatsRepository chatsRepository,
-                      PasswordEncoder passwordEncoder, S3Service s3Service) {
+                      PasswordEncoder passwordEncoder, S3Service s3Service,
+                      AuthorSnapshotService authorSnapshotService, UserSearchIndex userSearchIndex,
+                      TwoTierCache twoTierCache, NotificationService notificationService,
+                      UserActivityService userActivityService, PostsService postsService) {
         this.userRepository = userRepository;
         this.userRelationService = userRelationService;
         this.postsRepository = postsRepository;
         this.demoRepository = demoRepository;
         this.postLikeRepository = postLikeRepository;
-        this.postCommentRepository = postCommentRepository;
-        this.postViewRepository = postViewRepository;
         this.postDownloadRepository = postDownloadRepository;
         this.userRelationRepository = userRelationRepository;
         this.chatsRepository = chatsRepository;
         this.passwordEncoder = passwordEncoder;
         this.s3Service = s3Service;
+        this.authorSnapshotService = authorSnapshotService;
+        this.userSearchIndex = userSearchIndex;
+        this.twoTierCache = twoTierCache;
+        this.notificationService = notificationService;
+        this.userActivityService = userActivityService;
+        this.postsService = postsService;
     }
 
-    public void saveUser(User user){
-        userRepository.save(user);
+    /**
+     * Persist the subscription fields of a user loaded and changed by a billing flow
+     * (Stripe / App Store). Only those fields are written, so a concurrent profile edit or
+     * follow isn't overwritten with the copy the webhook loaded.
+     */
+    public void saveSubscription(User user){
+        // Role is mirrored on the user's posts; only matches (and propagates) when it actually changes
+        boolean roleChanged = userRepository.updateUserById(user.getId(), PartialUpdate.user()
+            .requireNot(UserFields.ROLE, user.getRole())
+            .set(UserFields.ROLE, user.getRole()));
+        userRepository.updateUserById(user.getId(), PartialUpdate.user()
+            .set(UserFields.SUBSCRIPTION_STATUS, user.getSubscriptionStatus())
+            .set(UserFields.STRIPE_CUSTOMER_ID, user.getStripeCustomerId())
+            .set(UserFields.STRIPE_SUBSCRIPTION_ID, user.getStripeSubscriptionId())
+            .set(UserFields.APPLE_ORIGINAL_TRANSACTION_ID, user.getAppleOriginalTransactionId()));
+        if (roleChanged) {
+            authorSnapshotService.propagateAuthorSnapshot(user.getId());
+        }
     }
 
     public void clearNotifications(User user) {
-        if (user.getNotifications() != null && !user.getNotifications().isEmpty()) {
-            user.setNotifications(new java.util.ArrayList<>());
-            userRepository.save(user);
-        }
+        notificationService.clear(user.getUserName());
     }
 
     public User createUser(User user) {
@@ -101,77 +132,85 @@ public class UserService {
         }
         
         // Update password with new encoded password
-        user.setPassword(passwordEncoder.encode(newPassword));
-        userRepository.save(user);
+        userRepository.updateUserById(userId, PartialUpdate.user().set(UserFields.PASSWORD, passwordEncoder.encode(newPassword)));
         return true;
     }
 
     public void updateUser(String id, User updatedUser) {
         User user = userRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("User not found"));
 
-        user = new User(
-            user.getId(),
-            updatedUser.getUserName() != null && !updatedUser.getUserName().isBlank() ? updatedUser.getUserName() : user.getUserName(),
-            updatedUser.getPassword() != null && !updatedUser.getPassword().isBlank() ? passwordEncoder.encode(updatedUser.getPassword()) : user.getPassword(),
-            updatedUser.getEmail() != null && !updatedUser.getEmail().isBlank() ? updatedUser.getEmail() : user.getEmail(),
-            updatedUser.getRole() != null && !updatedUser.getRole().isBlank() ? updatedUser.getRole() : user.getRole(),
-            updatedUser.getBio() != null && !updatedUser.getBio().isBlank() ? updatedUser.getBio() : user.getBio(),
-            updatedUser.getAbout() != null && !updatedUser.getAbout().isBlank() ? updatedUser.getAbout() : user.getAbout(),
-            updatedUser.getProfilePic() != null && !updatedUser.getProfilePic().isBlank() ? updatedUser.getProfilePic() : user.getProfilePic(),
-            updatedUser.getBanner() != null && !updatedUser.getBanner().isBlank() ? updatedUser.getBanner() : user.getBanner(),
-            updatedUser.getLocation() != null && !updatedUser.getLocation().isBlank() ? updatedUser.getLocation() : user.getLocation(),
-            updatedUser.getSocialMedia() != null && !updatedUser.getSocialMedia().isEmpty() ? updatedUser.getSocialMedia() : user.getSocialMedia(),
-            updatedUser.getBadges() != null && !updatedUser.getBadges().isEmpty() ? updatedUser.getBadges() : user.getBadges(),
-            updatedUser.getDemo() != null && !updatedUser.getDemo().isEmpty() ? updatedUser.getDemo() : user.getDemo(),
-            updatedUser.getFeaturedOn() != null && !updatedUser.getFeaturedOn().isEmpty() ? updatedUser.getFeaturedOn() : user.getFeaturedOn(),
-            updatedUser.getLikedPosts() != null && !updatedUser.getLikedPosts().isEmpty() ? updatedUser.getLikedPosts() : user.getLikedPosts(),
-            updatedUser.getPosts() != null && !updatedUser.getPosts().isEmpty() ? updatedUser.getPosts() : user.getPosts(),
-            updatedUser.getChats() != null && !updatedUser.getChats().isEmpty() ? updatedUser.getChats() : user.getChats(),
-            updatedUser.getNotifications() != null && !updatedUser.getNotifications().isEmpty() ? updatedUser.getNotifications() : user.getNotifications(),
-            updatedUser.getComments() != null && !updatedUser.getComments().isEmpty() ? updatedUser.getComments() : user.getComments()
-        );
-        userRepository.save(user);
+        // $set only the fields that were sent; counters, subscription and notifications are left as they are
+        PartialUpdate<User> update = PartialUpdate.user();
+        setIfPresent(update, UserFields.USER_NAME, updatedUser.getUserName());
+        if (updatedUser.getPassword() != null && !updatedUser.getPassword().isBlank()) {
+            update.set(UserFields.PASSWORD, passwordEncoder.encode(updatedUser.getPassword()));
+        }
+        setIfPresent(update, UserFields.EMAIL, updatedUser.getEmail());
+        setIfPresent(update, UserFields.ROLE, updatedUser.getRole());
+        setIfPresent(update, UserFields.BIO, updatedUser.getBio());
+        setIfPresent(update, UserFields.ABOUT, updatedUser.getAbout());
+        setIfPresent(update, UserFields.PROFILE_PIC, updatedUser.getProfilePic());
+        setIfPresent(update, UserFields.BANNER, updatedUser.getBanner());
+        setIfPresent(update, UserFields.LOCATION, updatedUser.getLocation());
+        setAllIfPresent(update, UserFields.SOCIAL_MEDIA, updatedUser.getSocialMedia());
+        setAllIfPresent(update, UserFields.BADGES, updatedUser.getBadges());
+        setAllIfPresent(update, UserFields.DEMO, updatedUser.getDemo());
+        if (update.isEmpty()) {
+            return;
+        }
+        userRepository.updateUserById(id, update);
+
+        // The update event evicts the profile under the new name; a rename also leaves one under the old name
+        if (update.touches(UserFields.USER_NAME) && !updatedUser.getUserName().equals(user.getUserName())) {
+            twoTierCache.evict(TwoTierCache.Region.USERS, user.getUserName());
+            twoTierCache.evict(TwoTierCache.Region.PROFILES, user.getUserName());
+            twoTierCache.evict(TwoTierCache.Region.AVATARS, UserProfileResolver.NAME_KEY + user.getUserName());
+        }
         
+        // Refresh the embedded author snapshot on this user's posts in the background, only if it changed
+        if (changesAuthorSnapshot(update, user, updatedUser)) {
+            authorSnapshotService.propagateAuthorSnapshot(id);
+        }
+    }
+
+    // Posts embed the author's name, picture, banner, role, location and bio (AuthorSnapshot)
+    private static boolean changesAuthorSnapshot(PartialUpdate<User> update, User before, User after) {
+        return changed(update, UserFields.USER_NAME, before.getUserName(), after.getUserName())
+            || changed(update, UserFields.PROFILE_PIC, before.getProfilePic(), after.getProfilePic())
+            || changed(update, UserFields.BANNER, before.getBanner(), after.getBanner())
+            || changed(update, UserFields.ROLE, before.getRole(), after.getRole())
+            || changed(update, UserFields.LOCATION, before.getLocation(), after.getLocation())
+            || changed(update, UserFields.BIO, before.getBio(), after.getBio());
+    }
+
+    private static boolean changed(PartialUpdate<User> update, PartialUpdate.Field<User, String> field, String before, String after) {
+        return update.touches(field) && !Objects.equals(before, after);
     }
+
+    private static void setIfPresent(PartialUpdate<User> update, PartialUpdate.Field<User, String> field, String value) {
+        if (value != null && !value.isBlank()) {
+            update.set(field, value);
+        }
+    }
+
+    private static <V> void setAllIfPresent(PartialUpdate<User> update, PartialUpdate.ListField<User, V> field, List<V> values) {
+        if (values != null && !values.isEmpty()) {
+            update.setAll(field, values);
+        }
+    }
+
     public List<UserDTO> getAllUsers() {
-        return userRepository.findAll()
+        List<User> users = userRepository.findAll();
+        // Notifications for every user in one query, newest first
+        Map<String, List<NotificationsDTO>> notificationsByUser = notificationService.getRecentFor(
+            users.stream().map(User::getUserName).filter(Objects::nonNull).toList());
+        // Posts, features, likes, comments and chats for every user, one query per collection
+        Map<String, UserActivityService.Activity> activities = userActivityService.activitiesOf(users);
+        return users
         .stream()
         .map(u -> {
-            // Sort notifications by time in descending order (newest first)
-            List<NotificationsDTO> sortedNotifications = u.getNotifications();
-            if (sortedNotifications != null) {
-                sortedNotifications = new ArrayList<>(sortedNotifications); // Create a copy to avoid modifying original
-                sortedNotifications.sort((n1, n2) -> n2.time().compareTo(n1.time()));
-            }
-            
-            // Sort posts by ID (assuming newer posts have higher IDs)
-            List<String> sortedPosts = u.getPosts();
-            if (sortedPosts != null) {
-                sortedPosts = new ArrayList<>(sortedPosts);
-                Collections.reverse(sortedPosts);
-            }
-            
-            // Sort featuredOn by ID (assuming newer features have higher IDs)
-            List<String> sortedFeaturedOn = u.getFeaturedOn();
-            if (sortedFeaturedOn != null) {
-                sortedFeaturedOn = new ArrayList<>(sortedFeaturedOn);
-                Collections.reverse(sortedFeaturedOn);
-            }
-            
-            // Sort likedPosts by ID (assuming newer likes have higher IDs)
-            // Reverse to show newest likes first (since we add to the end)
-            List<String> sortedLikedPosts = u.getLikedPosts();
-            if (sortedLikedPosts != null) {
-                sortedLikedPosts = new ArrayList<>(sortedLikedPosts);
-                Collections.reverse(sortedLikedPosts);
-            }
-            
-            // Sort comments by time in descending order (newest first)
-            List<CommentedOnDTO> sortedComments = u.getComments();
-            if (sortedComments != null) {
-                sortedComments = new ArrayList<>(sortedComments);
-                sortedComments.sort((c1, c2) -> c2.time().compareTo(c1.time()));
-            }
+            List<NotificationsDTO> sortedNotifications = notificationsByUser.getOrDefault(u.getUserName(), List.of());
+            UserActivityService.Activity activity = activities.get(u.getId());
             
             return new UserDTO(
                 u.getId(),
@@ -185,11 +224,11 @@ public class UserService {
                 u.getLocation(),
                 u.getSocialMedia(),
                 u.getBadges(),
-                sortedFeaturedOn,
-                sortedPosts,
-                u.getChats(),
-                sortedLikedPosts,
-                sortedComments,
+                activity.featuredOn(),
+                activity.posts(),
+                activity.chats(),
+                activity.likedPosts(),
+                activity.comments(),
                 sortedNotifications,
                 u.getFollowersCount(),
                 u.getFollowingCount()
@@ -202,43 +241,12 @@ public class UserService {
         User user = userRepository.findById(id)
         .orElseThrow(() -> new IllegalArgumentException("User not found"));
         
-        // Sort notifications by time in descending order (newest first)
-        List<NotificationsDTO> sortedNotifications = user.getNotifications();
-        if (sortedNotifications != null) {
-            sortedNotifications = new ArrayList<>(sortedNotifications);
-            sortedNotifications.sort((n1, n2) -> n2.time().compareTo(n1.time()));
-        }
-        
-        // Sort posts by ID (assuming newer posts have higher IDs or you can sort by creation time)
-        List<String> sortedPosts = user.getPosts();
-        if (sortedPosts != null) {
-            sortedPosts = new ArrayList<>(sortedPosts);
-            // Reverse to show newest posts first (assuming newer posts are added to the end)
-            Collections.reverse(sortedPosts);
-        }
-        
-        // Sort featuredOn by ID (assuming newer features have higher IDs)
-        List<String> sortedFeaturedOn = user.getFeaturedOn();
-        if (sortedFeaturedOn != null) {
-            sortedFeaturedOn = new ArrayList<>(sortedFeaturedOn);
-            // Reverse to show newest features first
-            Collections.reverse(sortedFeaturedOn);
-        }
-        
-        // Sort likedPosts by ID (assuming newer likes have higher IDs)
-        List<String> sortedLikedPosts = user.getLikedPosts();
-        if (sortedLikedPosts != null) {
-            sortedLikedPosts = new ArrayList<>(sortedLikedPosts);
-            Collections.reverse(sortedLikedPosts);
-        }
-        
-        // Sort comments by time in descending order (newest first)
-        List<CommentedOnDTO> sortedComments = user.getComments();
-        if (sortedComments != null) {
-            sortedComments = new ArrayList<>(sortedComments);
-            sortedComments.sort((c1, c2) -> c2.time().compareTo(c1.time()));
-        }
+        // Newest first
+        List<NotificationsDTO> sortedNotifications = notificationService.getRecent(user.getUserName());
         
+        // Posts, features, likes, comments and chats from their own collections, newest first
+        UserActivityService.Activity activity = userActivityService.activityOf(user);
+                
         return new UserDTO(
             user.getId(),
             user.getUserName(),
@@ -251,11 +259,11 @@ public class UserService {
             user.getLocation(),
             user.getSocialMedia(),
             user.getBadges(),
-            sortedFeaturedOn,
-            sortedPosts,
-            user.getChats(),
-            sortedLikedPosts,
-            sortedComments,
+            activity.featuredOn(),
+            activity.posts(),
+            activity.chats(),
+            activity.likedPosts(),
+            activity.comments(),
             sortedNotifications,
             user.getFollowersCount(),
             user.getFollowingCount()
@@ -264,7 +272,7 @@ public class UserService {
     public PagedModel<UserPostsDTO> getUserByName(String userName, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
        
-        Page<User> users = userRepository.findByUserNameContainingIgnoreCase(userName, pageable);
+        Page<User> users = searchUsersByName(userName, pageable);
         
         Page<UserPostsDTO> usersDTO = users.map(u -> {
             return new UserPostsDTO(
@@ -284,7 +292,9 @@ public class UserService {
     public PagedModel<UserSearchDTO> getUserByNameEnhanced(String userName, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
        
-        Page<User> users = userRepository.findByUserNameContainingIgnoreCase(userName, pageable);
+        Page<User> users = searchUsersByName(userName, pageable);
+        // Post counts for the whole page in one aggregation
+        Map<String, Long> postCounts = userActivityService.countPostsOf(users.getContent().stream().map(User::getId).toList());
        
         Page<UserSearchDTO> usersDTO = users.map(u -> {
             return new UserSearchDTO(
@@ -300,11 +310,44 @@ public class UserService {
                 u.getSocialMedia() != null ? u.getSocialMedia() : Collections.emptyList(),
                 u.getFollowersCount(),
                 u.getFollowingCount(),
-                u.getPosts() != null ? u.getPosts().size() : 0
+                postCounts.getOrDefault(u.getId(), 0L).intValue()
             );
         });
         return new PagedModel<UserSearchDTO>(usersDTO);
     }
+    /**
+     * Search box suggestions, answered from the in-memory username index
+     */
+    public List<UserAutocompleteDTO> autocompleteUsers(String term, int limit) {
+        if (!userSearchIndex.isReady()) {
+            return userRepository.findByUserNameContainingIgnoreCase(term, PageRequest.of(0, limit)).stream()
+                .map(u -> new UserAutocompleteDTO(u.getId(), u.getUserName(), u.getProfilePic(), u.getRole(), u.getFollowersCount()))
+                .toList();
+        }
+        return userSearchIndex.suggest(term, limit).stream()
+            .map(e -> new UserAutocompleteDTO(e.id(), e.userName(), e.profilePic(), e.role(), e.followersCount()))
+            .toList();
+    }
+
+    /**
+     * Page of users whose name contains the term, ranked by the username index (exact match, then followers).
+     * Only the page is loaded from Mongo, by id. Falls back to the regex query until the index has loaded.
+     */
+    private Page<User> searchUsersByName(String userName, Pageable pageable) {
+        if (!userSearchIndex.isReady()) {
+            return userRepository.findByUserNameContainingIgnoreCase(userName, pageable);
+        }
+        List<UserSearchIndex.Entry> matches = userSearchIndex.search(userName);
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + pageable.getPageSize(), matches.size());
+        List<String> ids = matches.subList(from, to).stream().map(UserSearchIndex.Entry::id).toList();
+
+        Map<String, User> byId = new HashMap<>();
+        userRepository.findAllById(ids).forEach(u -> byId.put(u.getId(), u));
+        List<User> users = ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+        return new PageImpl<>(users, pageable, matches.size());
+    }
+
     /**
      * Comprehensive user deletion that removes all user-related data while preserving chats
      * @param id User ID to delete
@@ -315,50 +358,15 @@ public class UserService {
         
         String userName = user.getUserName();
         
-        // 1. Delete all posts created by the user
-        if (user.getPosts() != null && !user.getPosts().isEmpty()) {
-            for (String postId : user.getPosts()) {
-                // Get post details to access music file URL and cleanup featuredOn references
-                postsRepository.findById(postId).ifPresent(post -> {
-                    // 1) Remove this post ID from all featured users' featuredOn lists
-                    try {
-                        List<String> featureUsernames = post.getFeatures();
-                        if (featureUsernames != null && !featureUsernames.isEmpty()) {
-                            List<User> featuredUsers = userRepository.findByUserNameIn(featureUsernames);
-                            for (User featuredUser : featuredUsers) {
-                                List<String> featuredOn = featuredUser.getFeaturedOn();
-                                if (featuredOn != null && featuredOn.remove(post.getId())) {
-                                    userRepository.save(featuredUser);
-                                }
-                            }
-                        }
-                    } catch (Exception e) {
-                        System.err.println("Failed to clean up featuredOn references for post " + postId + ": " + e.getMessage());
-                    }
-
-                    // 2) Delete music file from S3 if it exists and is not a default file
-                    if (post.getMusic() != null && !post.getMusic().isEmpty() && 
-                        !post.getMusic().startsWith("/") && post.getMusic().contains("amazonaws.com")) {
-                        try {
-                            // Extract S3 key from full URL
-                            String s3Key = extractS3KeyFromUrl(post.getMusic());
-                            if (s3Key != null) {
-                                s3Service.deleteFile(s3Key);
-                            }
-                        } catch (Exception e) {
-                            System.err.println("Failed to delete music file from S3: " + post.getMusic() + " - " + e.getMessage());
-                        }
-                    }
-                });
-                
-                // Delete all related data for each post
-                postLikeRepository.deleteByPostId(postId);
-                postCommentRepository.deleteByPostId(postId);
-                postViewRepository.deleteByPostId(postId);
-                postDownloadRepository.deleteByPostId(postId);
-                
-                // Delete the post itself
-                postsRepository.deleteById(postId);
+        // 1. Delete all posts created by the user through PostsService, which also drops them from the
+        //    feed sets and card cache and discards their buffered views (featured users' featuredOn lists are queried from posts)
+        List<String> postIds = userActivityService.postIds(user.getId(), Pageable.unpaged());
+        for (String postId : postIds) {
+            postDownloadRepository.deleteByPostId(postId);
+            try {
+                postsService.deletePost(postId);
+            } catch (IllegalArgumentException e) {
+                // Already deleted concurrently
             }
         }
         
@@ -390,23 +398,19 @@ public class UserService {
         
         // 4. Friends no longer supported
         
-        // 5. Remove user from all posts' features lists (where they are featured)
+        // 5. Remove user from all posts' features lists (where they are featured); their cards show the features
+        List<Posts> featuredOn = postsRepository.findIdsByFeatures(userName);
         postsRepository.removeUserFromAllPostsFeatures(userName);
+        featuredOn.forEach(post -> twoTierCache.evict(TwoTierCache.Region.POSTS, post.getId()));
         
         // 6. Remove user from liked posts (clean up likes by this user)
-        if (user.getLikedPosts() != null && !user.getLikedPosts().isEmpty()) {
-            for (String likedPostId : user.getLikedPosts()) {
-                postLikeRepository.deleteByPostIdAndUserName(likedPostId, userName);
-            }
-        }
+        postLikeRepository.deleteByUserName(userName);
         
         // 7. Delete user relations (follow relationships)
         userRelationRepository.deleteByFollowerUserNameOrFollowingUserName(userName, userName);
         
         // 8. Remove user from all chat rooms they're part of
-        if (user.getChats() != null && !user.getChats().isEmpty()) {
-            chatsRepository.removeUserFromAllChats(userName);
-        }
+        chatsRepository.removeUserFromAllChats(userName);
         
         // 9. Delete user's profile picture and banner from S3
         if (user.getProfilePic() != null && !user.getProfilePic().isEmpty() && 
@@ -437,6 +441,11 @@ public class UserService {
         
         // 10. Finally, delete the user profile
         userRepository.deleteById(id);
+        twoTierCache.evict(TwoTierCache.Region.USERS, userName);
+        twoTierCache.evict(TwoTierCache.Region.PROFILES, userName);
+        twoTierCache.evict(TwoTierCache.Region.AVATARS, UserProfileResolver.NAME_KEY + userName);
+        twoTierCache.evict(TwoTierCache.Region.AVATARS, UserProfileResolver.ID_KEY + id);
+        notificationService.clear(userName);
     }
     
     public User authenticateUser(String usernameOrEmail, String password) {
@@ -477,44 +486,22 @@ public class UserService {
             .build();
     }
     public UserDTO getAUser(String userName) {
-        User user = userRepository.findByUserName(userName)
-        .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        
-        // Sort notifications by time in descending order (newest first)
-        List<NotificationsDTO> sortedNotifications = user.getNotifications();
-        if (sortedNotifications != null) {
-            sortedNotifications = new ArrayList<>(sortedNotifications);
-            sortedNotifications.sort((n1, n2) -> n2.time().compareTo(n1.time()));
-        }
-        
-        // Sort posts by ID (assuming newer posts have higher IDs)
-        List<String> sortedPosts = user.getPosts();
-        if (sortedPosts != null) {
-            sortedPosts = new ArrayList<>(sortedPosts);
-            Collections.reverse(sortedPosts);
-        }
-        
-        // Sort featuredOn by ID (assuming newer features have higher IDs)
-        List<String> sortedFeaturedOn = user.getFeaturedOn();
-        if (sortedFeaturedOn != null) {
-            sortedFeaturedOn = new ArrayList<>(sortedFeaturedOn);
-            Collections.reverse(sortedFeaturedOn);
-        }
-        
-        // Sort likedPosts by ID (assuming newer likes have higher IDs)
-        List<String> sortedLikedPosts = user.getLikedPosts();
-        if (sortedLikedPosts != null) {
-            sortedLikedPosts = new ArrayList<>(sortedLikedPosts);
-            Collections.reverse(sortedLikedPosts);
-        }
-        
-        // Sort comments by time in descending order (newest first)
-        List<CommentedOnDTO> sortedComments = user.getComments();
-        if (sortedComments != null) {
-            sortedComments = new ArrayList<>(sortedComments);
-            sortedComments.sort((c1, c2) -> c2.time().compareTo(c1.time()));
-        }
+        // Profiles are cached in-process and in Redis; saves of the user evict them (UserProfileCacheListener).
+        // Notifications change far more often, so they're read fresh and attached to the cached profile.
+        UserDTO profile = twoTierCache.getOrLoad(TwoTierCache.Region.USERS, userName, UserDTO.class, () -> {
+            User user = userRepository.findByUserName(userName)
+            .orElseThrow(() -> new IllegalArgumentException("User not found"));
+            return toUserDTO(user);
+        });
+        return profile.withNotifications(notificationService.getRecent(userName));
+    }
+
+    // Profile without notifications (see getAUser)
+    private UserDTO toUserDTO(User user) {
         
+        // Posts, features, likes, comments and chats from their own collections, newest first
+        UserActivityService.Activity activity = userActivityService.activityOf(user);
+                
         return new UserDTO(
             user.getId(),
             user.getUserName(),
@@ -527,27 +514,84 @@ public class UserService {
             user.getLocation(),
             user.getSocialMedia(),
             user.getBadges(),
-            sortedFeaturedOn,
-            sortedPosts,
-            user.getChats(),
-            sortedLikedPosts,
-            sortedComments,
-            sortedNotifications,
+            activity.featuredOn(),
+            activity.posts(),
+            activity.chats(),
+            activity.likedPosts(),
+            activity.comments(),
+            null,
             user.getFollowersCount(),
             user.getFollowingCount()
         );
     }
 
+    /**
+     * Slim profile for the profile page: header fields and list sizes, constant size however
+     * much the user has posted, liked or commented. Cached like getAUser.
+     */
+    public UserProfileDTO getProfile(String userName) {
+        return twoTierCache.getOrLoad(TwoTierCache.Region.PROFILES, userName, UserProfileDTO.class, () -> {
+            User user = userRepository.findByUserName(userName)
+            .orElseThrow(() -> new IllegalArgumentException("User not found"));
+            UserActivityService.Counts counts = userActivityService.countsOf(user.getId(), userName);
+            return new UserProfileDTO(
+                user.getId(),
+                user.getUserName(),
+                user.getProfilePic(),
+                user.getBanner(),
+                user.getRole(),
+                user.getBio(),
+                user.getAbout(),
+                user.getDemo(),
+                user.getLocation(),
+                user.getSocialMedia(),
+                user.getBadges(),
+                user.getFollowersCount(),
+                user.getFollowingCount(),
+                counts.posts(),
+                counts.featuredOn(),
+                counts.likedPosts(),
+                counts.comments()
+            );
+        });
+    }
+
+    // The profile's lists, one cursor page at a time, newest first
+    public CursorPageDTO<PostsDTO> getProfilePosts(String userName, String cursor, int size) {
+        return withPostCards(userActivityService.postIds(getProfile(userName).id(), cursor, size));
+    }
+
+    public CursorPageDTO<PostsDTO> getProfileFeaturedOn(String userName, String cursor, int size) {
+        return withPostCards(userActivityService.featuredOnIds(userName, cursor, size));
+    }
+
+    public CursorPageDTO<PostsDTO> getProfileLikes(String userName, String cursor, int size) {
+        return withPostCards(userActivityService.likedPostIds(userName, cursor, size));
+    }
+
+    public CursorPageDTO<CommentedOnDTO> getProfileComments(String userName, String cursor, int size) {
+        return userActivityService.comments(userName, cursor, size);
+    }
+
+    private CursorPageDTO<PostsDTO> withPostCards(CursorPageDTO<String> ids) {
+        return new CursorPageDTO<>(postsService.getPostCards(ids.content()), ids.nextCursor(), ids.hasNext());
+    }
+
+    // Newest first, read from the notifications collection without loading the user
     public List<NotificationsDTO> getNoti(String userName){
-        Optional<User> user = userRepository.findByUserName(userName);
-        List<NotificationsDTO> notifications = user.get().getNotifications();
-        
-        // Sort notifications by time in descending order (newest first)
-        if (notifications != null) {
-            notifications.sort((n1, n2) -> n2.time().compareTo(n1.time()));
-        }
-        
-        return notifications;
+        return notificationService.getRecent(userName);
+    }
+
+    public PagedModel<NotificationsDTO> getNotiPaged(String userName, int page, int size) {
+        return notificationService.getPage(userName, page, size);
+    }
+
+    public long getUnreadNotificationCount(String userName) {
+        return notificationService.countUnread(userName);
+    }
+
+    public void markNotificationsRead(String userName) {
+        notificationService.markAllRead(userName);
     }
     
 
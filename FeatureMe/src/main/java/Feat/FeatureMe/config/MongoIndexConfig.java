@@ -5,6 +5,9 @@ import org.springframework.data.mongodb.config.EnableMongoAuditing;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.index.Index;
 import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.annotation.Order;
@@ -64,6 +67,9 @@ public class MongoIndexConfig implements CommandLineRunner {
         // Demo Collection Indexes
         createDemoIndexes();
         
+        // Notifications Collection Indexes
+        createNotificationIndexes();
+        
         System.out.println("MongoDB indexes created successfully!");
     }
 
@@ -81,6 +87,30 @@ public class MongoIndexConfig implements CommandLineRunner {
                                             .on("time", org.springframework.data.domain.Sort.Direction.DESC)
                                             .named("status_likes_time_idx"));
             
+            // Keyset (cursor) pagination: _id tie-break keeps the seek + sort fully indexed
+            indexOps.ensureIndex(new Index().on("status", org.springframework.data.domain.Sort.Direction.ASC)
+                                            .on("time", org.springframework.data.domain.Sort.Direction.DESC)
+                                            .on("_id", org.springframework.data.domain.Sort.Direction.DESC)
+                                            .named("status_time_id_idx"));
+            
+            indexOps.ensureIndex(new Index().on("status", org.springframework.data.domain.Sort.Direction.ASC)
+                                            .on("totalLikes", org.springframework.data.domain.Sort.Direction.DESC)
+                                            .on("time", org.springframework.data.domain.Sort.Direction.DESC)
+                                            .on("_id", org.springframework.data.domain.Sort.Direction.DESC)
+                                            .named("status_likes_time_id_idx"));
+            
+            // Most liked posts filtered by author role
+            indexOps.ensureIndex(new Index().on("status", org.springframework.data.domain.Sort.Direction.ASC)
+                                            .on("authorSnapshot.role", org.springframework.data.domain.Sort.Direction.ASC)
+                                            .on("totalLikes", org.springframework.data.domain.Sort.Direction.DESC)
+                                            .on("time", org.springframework.data.domain.Sort.Direction.DESC)
+                                            .named("status_role_likes_time_idx"));
+            
+            // Trending feed (time-decayed engagement score)
+            indexOps.ensureIndex(new Index().on("status", org.springframework.data.domain.Sort.Direction.ASC)
+                                            .on("trendingScore", org.springframework.data.domain.Sort.Direction.DESC)
+                                            .named("status_trending_idx"));
+            
             // Genre-based queries
             indexOps.ensureIndex(new Index().on("genre", org.springframework.data.domain.Sort.Direction.ASC)
                                             .on("status", org.springframework.data.domain.Sort.Direction.ASC)
@@ -102,6 +132,13 @@ public class MongoIndexConfig implements CommandLineRunner {
             indexOps.ensureIndex(new Index().on("features", org.springframework.data.domain.Sort.Direction.ASC)
                                             .named("features_idx"));
             
+            // Posts a user is featured on, newest first; _id tie-break keeps the keyset page fully indexed
+            indexOps.ensureIndex(new Index().on("features", org.springframework.data.domain.Sort.Direction.ASC)
+                                            .on("time", org.springframework.data.domain.Sort.Direction.DESC)
+                                            .on("_id", org.springframework.data.domain.Sort.Direction.DESC)
+                                            .named("features_time_id_idx"));
+            dropIndexIfPresent(indexOps, "features_time_idx");
+            
             // Pending features array queries
             indexOps.ensureIndex(new Index().on("pendingFeatures", org.springframework.data.domain.Sort.Direction.ASC)
                                             .named("pending_features_idx"));
@@ -125,6 +162,13 @@ public class MongoIndexConfig implements CommandLineRunner {
                                             .on("time", org.springframework.data.domain.Sort.Direction.DESC)
                                             .named("author_status_time_idx"));
             
+            // A user's posts of any status, newest first; _id tie-break keeps the keyset page fully indexed
+            indexOps.ensureIndex(new Index().on("author.$id", org.springframework.data.domain.Sort.Direction.ASC)
+                                            .on("time", org.springframework.data.domain.Sort.Direction.DESC)
+                                            .on("_id", org.springframework.data.domain.Sort.Direction.DESC)
+                                            .named("author_time_id_idx"));
+            dropIndexIfPresent(indexOps, "author_time_idx");
+            
             // Performance metrics indexes
             indexOps.ensureIndex(new Index().on("totalViews", org.springframework.data.domain.Sort.Direction.DESC)
                                             .on("time", org.springframework.data.domain.Sort.Direction.DESC)
@@ -144,6 +188,18 @@ public class MongoIndexConfig implements CommandLineRunner {
         } catch (Exception e) {
             System.err.println("Error creating posts indexes: " + e.getMessage());
         }
+        
+        // Weighted full-text index for post search (only one text index is allowed per collection,
+        // so it gets its own try block and can't stop the other posts indexes from being created)
+        try {
+            indexOps.ensureIndex(new TextIndexDefinition.TextIndexDefinitionBuilder()
+                                            .onField("title", 10F)
+                                            .onField("description", 2F)
+                                            .named("posts_text_idx")
+                                            .build());
+        } catch (Exception e) {
+            System.err.println("Error creating posts text index: " + e.getMessage());
+        }
     }
 
     private void createUserIndexes() {
@@ -167,17 +223,7 @@ public class MongoIndexConfig implements CommandLineRunner {
             
             // friends index removed
             
-            indexOps.ensureIndex(new Index().on("featuredOn", org.springframework.data.domain.Sort.Direction.ASC)
-                                            .named("featured_on_idx"));
-            
-            indexOps.ensureIndex(new Index().on("likedPosts", org.springframework.data.domain.Sort.Direction.ASC)
-                                            .named("liked_posts_idx"));
-            
-            indexOps.ensureIndex(new Index().on("posts", org.springframework.data.domain.Sort.Direction.ASC)
-                                            .named("user_posts_idx"));
-            
-            indexOps.ensureIndex(new Index().on("chats", org.springframework.data.domain.Sort.Direction.ASC)
-                                            .named("user_chats_idx"));
+            // featuredOn/likedPosts/posts/chats arrays removed; queried from posts, post_likes and chatRooms
             
             // Badge queries
             indexOps.ensureIndex(new Index().on("badges", org.springframework.data.domain.Sort.Direction.ASC)
@@ -225,20 +271,20 @@ public class MongoIndexConfig implements CommandLineRunner {
                                             .on("time", org.springframework.data.domain.Sort.Direction.DESC)
                                             .named("post_time_idx"));
             
-            // User comments index
+            // User comments index; _id tie-break keeps the keyset page fully indexed
             indexOps.ensureIndex(new Index().on("userName", org.springframework.data.domain.Sort.Direction.ASC)
                                             .on("time", org.springframework.data.domain.Sort.Direction.DESC)
-                                            .named("user_time_idx"));
+                                            .on("_id", org.springframework.data.domain.Sort.Direction.DESC)
+                                            .named("user_time_id_idx"));
+            dropIndexIfPresent(indexOps, "user_time_idx");
             
             // Compound index for user-post uniqueness (if needed)
             indexOps.ensureIndex(new Index().on("postId", org.springframework.data.domain.Sort.Direction.ASC)
                                             .on("userName", org.springframework.data.domain.Sort.Direction.ASC)
                                             .named("post_user_idx"));
             
-            // Time-based cleanup index (TTL - 1 year)
-            indexOps.ensureIndex(new Index().on("time", org.springframework.data.domain.Sort.Direction.ASC)
-                                            .expire(365 * 24 * 60 * 60) // 1 year in seconds
-                                            .named("comment_ttl_idx"));
+            // No TTL: a user's comments are read from here (UserActivityService), so they must not expire
+            dropIndexIfPresent(indexOps, "comment_ttl_idx");
         } catch (Exception e) {
             System.err.println("Error creating post comment indexes: " + e.getMessage());
         }
@@ -253,20 +299,27 @@ public class MongoIndexConfig implements CommandLineRunner {
                                             .on("likedAt", org.springframework.data.domain.Sort.Direction.DESC)
                                             .named("post_liked_time_idx"));
             
-            // User likes index
+            // User likes index; _id tie-break keeps the keyset page fully indexed
             indexOps.ensureIndex(new Index().on("userName", org.springframework.data.domain.Sort.Direction.ASC)
                                             .on("likedAt", org.springframework.data.domain.Sort.Direction.DESC)
-                                            .named("user_liked_time_idx"));
+                                            .on("_id", org.springframework.data.domain.Sort.Direction.DESC)
+                                            .named("user_liked_time_id_idx"));
+            dropIndexIfPresent(indexOps, "user_liked_time_idx");
             
-            // Time-based cleanup index (TTL - 2 years)
-            indexOps.ensureIndex(new Index().on("likedAt", org.springframework.data.domain.Sort.Direction.ASC)
-                                            .expire(2 * 365 * 24 * 60 * 60) // 2 years in seconds
-                                            .named("like_ttl_idx"));
+            // No TTL: a user's likes are read from here (UserActivityService), so they must not expire
+            dropIndexIfPresent(indexOps, "like_ttl_idx");
         } catch (Exception e) {
             System.err.println("Error creating post like indexes: " + e.getMessage());
         }
     }
 
+    private static void dropIndexIfPresent(IndexOperations indexOps, String name) {
+        if (indexOps.getIndexInfo().stream().anyMatch(index -> name.equals(index.getName()))) {
+            indexOps.dropIndex(name);
+            System.out.println("Dropped index " + name);
+        }
+    }
+
     private void createPostViewIndexes() {
         IndexOperations indexOps = mongoTemplate.indexOps("post_views");
         
@@ -428,4 +481,31 @@ public class MongoIndexConfig implements CommandLineRunner {
             System.err.println("Error creating demo indexes: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    private void createNotificationIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps("notifications");
+        
+        try {
+            // A user's notifications, newest first (paged reads and trimming to the cap)
+            indexOps.ensureIndex(new Index().on("recipient", org.springframework.data.domain.Sort.Direction.ASC)
+                                            .on("time", org.springframework.data.domain.Sort.Direction.DESC)
+                                            .named("recipient_time_idx"));
+            
+            // Removing the notifications about one post
+            indexOps.ensureIndex(new Index().on("recipient", org.springframework.data.domain.Sort.Direction.ASC)
+                                            .on("refId", org.springframework.data.domain.Sort.Direction.ASC)
+                                            .named("recipient_ref_idx"));
+            
+            // One like/comment aggregate per post and coalescing window, whichever instance upserts it
+            indexOps.ensureIndex(new Index().on("recipient", org.springframework.data.domain.Sort.Direction.ASC)
+                                            .on("refId", org.springframework.data.domain.Sort.Direction.ASC)
+                                            .on("noti", org.springframework.data.domain.Sort.Direction.ASC)
+                                            .on("bucket", org.springframework.data.domain.Sort.Direction.ASC)
+                                            .unique()
+                                            .partial(PartialIndexFilter.of(Criteria.where("bucket").exists(true)))
+                                            .named("aggregate_bucket_idx"));
+        } catch (Exception e) {
+            System.err.println("Error creating notification indexes: " + e.getMessage());
+        }
+    }
+}
@@ -4,9 +4,16 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import Feat.FeatureMe.Service.NotificationPushService;
+import Feat.FeatureMe.Service.SocialGraphIndex;
+import Feat.FeatureMe.Service.TrendingScoreService;
+import Feat.FeatureMe.Service.TwoTierCache;
+
 @Configuration
 public class RedisConfig {
 
@@ -26,4 +33,23 @@ public class RedisConfig {
         template.afterPropertiesSet();
         return template;
     }
+
+    // Cache invalidations published by any instance drop the local (L1) copies on this one;
+    // notification pushes are delivered to the recipient's sessions on whichever instance holds them;
+    // follow graph changes keep every instance's SocialGraphIndex current;
+    // a rebased trending epoch is picked up by every instance at once
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       TwoTierCache twoTierCache,
+                                                                       NotificationPushService notificationPushService,
+                                                                       SocialGraphIndex socialGraphIndex,
+                                                                       TrendingScoreService trendingScoreService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(twoTierCache, new ChannelTopic(TwoTierCache.INVALIDATION_CHANNEL));
+        container.addMessageListener(notificationPushService, new ChannelTopic(NotificationPushService.PUSH_CHANNEL));
+        container.addMessageListener(socialGraphIndex, new ChannelTopic(SocialGraphIndex.CHANGES_CHANNEL));
+        container.addMessageListener(trendingScoreService, new ChannelTopic(TrendingScoreService.EPOCH_CHANNEL));
+        return container;
+    }
 }
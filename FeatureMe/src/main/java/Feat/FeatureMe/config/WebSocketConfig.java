@@ -1,10 +1,27 @@
 package Feat.FeatureMe.config;
 
+import java.security.Principal;
+import java.util.Map;
+
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+import Feat.FeatureMe.Entity.User;
+import Feat.FeatureMe.Repository.UserRepository;
+import Feat.FeatureMe.Service.JwtService;
 
 
 
@@ -12,10 +29,20 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final JwtService jwtService;
+    private final UserRepository userRepository;
+
+    public WebSocketConfig(JwtService jwtService, UserRepository userRepository) {
+        this.jwtService = jwtService;
+        this.userRepository = userRepository;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
-        registry.enableSimpleBroker("/topic");
+        // /queue carries per-user destinations such as /user/queue/notifications
+        registry.enableSimpleBroker("/topic", "/queue");
         registry.setApplicationDestinationPrefixes("/app");
+        registry.setUserDestinationPrefix("/user");
     }
 
     @Override
@@ -23,6 +50,55 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
        // SockJS endpoint supports both web and mobile clients
        registry.addEndpoint("/ws")
        .setAllowedOriginPatterns("*")
+       .setHandshakeHandler(new UserNameHandshakeHandler())
        .withSockJS();
     }
+
+    /**
+     * Clients that can't send the session cookie with the handshake may pass the JWT
+     * as an Authorization header on the STOMP CONNECT frame instead
+     */
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+                if (accessor != null && StompCommand.CONNECT.equals(accessor.getCommand()) && accessor.getUser() == null) {
+                    String authHeader = accessor.getFirstNativeHeader("Authorization");
+                    if (authHeader != null && authHeader.startsWith("Bearer ")) {
+                        try {
+                            String jwt = authHeader.substring(7);
+                            if (!jwtService.isTokenExpired(jwt)) {
+                                accessor.setUser(userPrincipal(jwtService.extractUsername(jwt)));
+                            }
+                        } catch (Exception e) {
+                            // Invalid token: stay anonymous, public topics still work
+                        }
+                    }
+                }
+                return message;
+            }
+        });
+    }
+
+    /**
+     * The JWT subject is the user's email, but per-user destinations are addressed by userName
+     * (NotificationPushService sends to /user/{userName}/queue/notifications). Resolve it once per connection.
+     */
+    private Principal userPrincipal(String subject) {
+        String userName = userRepository.findUserNameByEmail(subject)
+            .map(User::getUserName)
+            .orElse(subject); // Older tokens carry the userName itself
+        return () -> userName;
+    }
+
+    private class UserNameHandshakeHandler extends DefaultHandshakeHandler {
+        @Override
+        protected Principal determineUser(ServerHttpRequest request, WebSocketHandler wsHandler, Map<String, Object> attributes) {
+            // Authenticated by the JWT filter from the session cookie on the handshake request
+            Principal authenticated = request.getPrincipal();
+            return authenticated != null ? userPrincipal(authenticated.getName()) : null;
+        }
+    }
 }
@@ -0,0 +1,173 @@
+package Feat.FeatureMe.Service;
+
+import Feat.FeatureMe.Dto.NotificationsDTO;
+import Feat.FeatureMe.Entity.Notification;
+import Feat.FeatureMe.Repository.NotificationRepository;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("NotificationService Unit Tests")
+class NotificationServiceTest {
+
+    private static final long WINDOW_MS = 3600000;
+    private static final String LIKED = "Liked Your Post!";
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private NotificationService notificationService;
+
+    @BeforeEach
+    void setUp() {
+        notificationService = new NotificationService(notificationRepository, mongoTemplate, eventPublisher, WINDOW_MS);
+    }
+
+    @Test
+    @DisplayName("Adds published before a removal are written before the removal runs")
+    void testApplyFlushesAddsBeforeRemoval() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Notification.class)).thenReturn(bulkOperations);
+
+        notificationService.apply("bob", List.of(
+            added("n1", "chat1", "alice", "Sent You a Message!", 1000),
+            NotificationEvent.removed("bob", "chat1", "alice", "Sent You a Message!")
+        ));
+
+        InOrder inOrder = inOrder(bulkOperations, notificationRepository);
+        inOrder.verify(bulkOperations).replaceOne(any(Query.class), any(Notification.class), any());
+        inOrder.verify(bulkOperations).execute();
+        inOrder.verify(notificationRepository).deleteByRecipientAndRefIdAndActorAndNoti("bob", "chat1", "alice", "Sent You a Message!");
+    }
+
+    @Test
+    @DisplayName("Likes on one post in the same window become one aggregate upsert")
+    void testApplyCoalescesLikesIntoOneUpsert() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(Notification.class)))
+            .thenReturn(UpdateResult.acknowledged(0, 0L, new BsonObjectId()));
+
+        notificationService.apply("bob", List.of(
+            added("n1", "post1", "alice", LIKED, 1000),
+            added("n2", "post1", "carol", LIKED, 2000)
+        ));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(1)).upsert(query.capture(), update.capture(), eq(Notification.class));
+        assertEquals(0L, query.getValue().getQueryObject().get("bucket"));
+        assertEquals(2, ((Document) update.getValue().getUpdateObject().get("$inc")).get("actorCount"));
+        // A new aggregate was created, so the recipient is trimmed
+        verify(mongoTemplate).findOne(any(Query.class), eq(Notification.class));
+    }
+
+    @Test
+    @DisplayName("Likes in different windows go to separate aggregates")
+    void testApplySplitsLikesByWindow() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(Notification.class)))
+            .thenReturn(UpdateResult.acknowledged(0, 0L, new BsonObjectId()));
+
+        notificationService.apply("bob", List.of(
+            added("n1", "post1", "alice", LIKED, 1000),
+            added("n2", "post1", "carol", LIKED, WINDOW_MS + 1000)
+        ));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).upsert(query.capture(), any(Update.class), eq(Notification.class));
+        assertEquals(0L, query.getAllValues().get(0).getQueryObject().get("bucket"));
+        assertEquals(1L, query.getAllValues().get(1).getQueryObject().get("bucket"));
+    }
+
+    @Test
+    @DisplayName("An upsert that loses the insert race retries into the existing aggregate")
+    void testApplyRetriesDuplicateKey() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(Notification.class)))
+            .thenThrow(new DuplicateKeyException("aggregate_bucket_idx"))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        notificationService.apply("bob", List.of(added("n1", "post1", "alice", LIKED, 1000)));
+
+        verify(mongoTemplate, times(2)).upsert(any(Query.class), any(Update.class), eq(Notification.class));
+        // Merged into an existing aggregate: nothing new to trim
+        verify(mongoTemplate, never()).findOne(any(Query.class), eq(Notification.class));
+    }
+
+    @Test
+    @DisplayName("A retried batch already merged into the aggregate is not applied again")
+    void testApplyIgnoresAlreadyAppliedBatch() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(Notification.class)))
+            .thenThrow(new DuplicateKeyException("aggregate_bucket_idx"));
+
+        assertDoesNotThrow(() -> notificationService.apply("bob", List.of(added("n1", "post1", "alice", LIKED, 1000))));
+
+        verify(mongoTemplate, times(2)).upsert(any(Query.class), any(Update.class), eq(Notification.class));
+    }
+
+    @Test
+    @DisplayName("An unlike takes the actor off the aggregate naming them")
+    void testApplyRemovalDecrementsAggregate() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Notification.class)))
+            .thenReturn(new Notification());
+
+        notificationService.apply("bob", List.of(NotificationEvent.removed("bob", "post1", "alice", LIKED)));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), update.capture(), eq(Notification.class));
+        assertEquals(-1, ((Document) update.getValue().getUpdateObject().get("$inc")).get("actorCount"));
+        verify(mongoTemplate).remove(any(Query.class), eq(Notification.class));
+    }
+
+    @Test
+    @DisplayName("Trim keeps notifications that share the cutoff's time but sort above it")
+    void testTrimBreaksTimeTiesById() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Notification.class)).thenReturn(bulkOperations);
+        Notification cutoff = new Notification();
+        cutoff.setId("n30");
+        cutoff.setTime(Instant.ofEpochMilli(5000));
+        when(mongoTemplate.findOne(any(Query.class), eq(Notification.class))).thenReturn(cutoff);
+
+        notificationService.apply("bob", List.of(added("n99", null, "alice", "Started Following You!", 9000)));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(query.capture(), eq(Notification.class));
+        @SuppressWarnings("unchecked")
+        List<Document> or = (List<Document>) query.getValue().getQueryObject().get("$or");
+        assertEquals(new Document("$lt", cutoff.getTime()), or.get(0).get("time"));
+        assertEquals(cutoff.getTime(), or.get(1).get("time"));
+        assertEquals(new Document("$lte", "n30"), or.get(1).get("_id"));
+    }
+
+    private static NotificationEvent added(String id, String refId, String actor, String noti, long time) {
+        return new NotificationEvent(NotificationEvent.Kind.ADD, id, "bob", refId, actor, noti,
+            Instant.ofEpochMilli(time), NotificationsDTO.NotiType.POST);
+    }
+}
@@ -0,0 +1,137 @@
+package Feat.FeatureMe.Service;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the old case-insensitive $regex post search against the $text search on posts_text_idx.
+ *
+ * Not part of the regular test run. Point it at a scratch MongoDB:
+ *   mvn test -Dtest=PostSearchBenchmark -Dbenchmark.mongo.uri=mongodb://localhost:27017
+ * Optional: -Dbenchmark.posts=1000000
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmark.mongo.uri", matches = ".+")
+@DisplayName("Post search benchmark")
+class PostSearchBenchmark {
+
+    private static final String DATABASE = "featureme_benchmark";
+    private static final int PAGE_SIZE = 6;
+    private static final int ITERATIONS = 30;
+    private static final String[] WORDS = {
+        "midnight", "drive", "summer", "trap", "soul", "lofi", "beat", "vocal", "remix", "sunset",
+        "city", "lights", "bass", "dream", "wave", "echo", "golden", "hour", "rain", "fire"
+    };
+    // A selective term (one title token out of a 100k vocabulary) and two common ones
+    private static final String[] QUERIES = {"track4242", "midnight", "golden hour"};
+
+    private MongoClient client;
+    private MongoCollection<Document> posts;
+
+    @BeforeAll
+    void seed() {
+        client = MongoClients.create(System.getProperty("benchmark.mongo.uri"));
+        posts = client.getDatabase(DATABASE).getCollection("posts");
+        posts.drop();
+
+        int total = Integer.getInteger("benchmark.posts", 1_000_000);
+        Random random = new Random(7);
+        long now = System.currentTimeMillis();
+        List<Document> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < total; i++) {
+            batch.add(new Document("status", "PUBLISHED")
+                .append("title", words(random, 2) + " track" + random.nextInt(100_000))
+                .append("description", words(random, 12))
+                .append("time", new Date(now - random.nextInt(Integer.MAX_VALUE))));
+            if (batch.size() == 10_000) {
+                posts.insertMany(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            posts.insertMany(batch);
+        }
+        // The indexes the old and new queries have available in production
+        posts.createIndex(Indexes.compoundIndex(Indexes.ascending("status"), Indexes.descending("time")),
+            new IndexOptions().name("status_time_idx"));
+        posts.createIndex(Indexes.ascending("title"), new IndexOptions().name("title_text_idx"));
+        posts.createIndex(Indexes.ascending("description"), new IndexOptions().name("description_text_idx"));
+        posts.createIndex(Indexes.compoundIndex(Indexes.text("title"), Indexes.text("description")),
+            new IndexOptions().name("posts_text_idx").weights(new Document("title", 10).append("description", 2)));
+    }
+
+    @AfterAll
+    void cleanUp() {
+        if (client != null) {
+            client.getDatabase(DATABASE).drop();
+            client.close();
+        }
+    }
+
+    @Test
+    @DisplayName("$regex vs $text search")
+    void compareSearch() {
+        for (String term : QUERIES) {
+            Document regex = new Document("status", "PUBLISHED").append("$or", List.of(
+                new Document("title", new Document("$regex", term).append("$options", "i")),
+                new Document("description", new Document("$regex", term).append("$options", "i"))));
+            Document text = new Document("status", "PUBLISHED").append("$text", new Document("$search", term));
+
+            report("regex '" + term + "'", regex);
+            report("text  '" + term + "'", text);
+        }
+    }
+
+    private void report(String label, Document filter) {
+        Document sort = new Document("time", -1);
+        for (int i = 0; i < 3; i++) {
+            search(filter, sort);
+        }
+        long[] nanos = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            search(filter, sort);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+
+        Document stats = posts.find(filter).sort(sort).limit(PAGE_SIZE).explain().get("executionStats", Document.class);
+        System.out.printf("%-22s p50 %8.2f ms, p95 %8.2f ms, keys examined %s, docs examined %s%n",
+            label, nanos[ITERATIONS / 2] / 1e6, nanos[(int) (ITERATIONS * 0.95)] / 1e6,
+            stats.get("totalKeysExamined"), stats.get("totalDocsExamined"));
+    }
+
+    // One search request: a page of results plus the total count, like PostsService.searchPosts
+    private void search(Document filter, Document sort) {
+        posts.find(filter).sort(sort).limit(PAGE_SIZE).into(new ArrayList<>());
+        posts.countDocuments(filter);
+    }
+
+    private String words(Random random, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+}
@@ -1,7 +1,10 @@
 package Feat.FeatureMe.Service;
 
+import Feat.FeatureMe.Dto.LikesDTO;
+import Feat.FeatureMe.Dto.NotificationsDTO;
 import Feat.FeatureMe.Dto.PostsDTO;
 import Feat.FeatureMe.Dto.UserPostsDTO;
+import Feat.FeatureMe.Entity.AuthorSnapshot;
 import Feat.FeatureMe.Entity.Posts;
 import Feat.FeatureMe.Entity.User;
 import Feat.FeatureMe.Repository.PostsRepository;
@@ -13,14 +16,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PagedModel;
 
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -48,6 +55,21 @@ class PostsServiceTest {
     @Mock
     private S3Service s3Service;
 
+    @Mock
+    private FeedCacheService feedCacheService;
+
+    @Mock
+    private TrendingScoreService trendingScoreService;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private TimelineService timelineService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private PostsService postsService;
 
@@ -88,6 +110,9 @@ class PostsServiceTest {
         lenient().when(postCommentService.getRecentComments(anyString(), anyInt())).thenReturn(List.of());
         lenient().when(postLikeService.getRecentLikes(anyString(), anyInt())).thenReturn(List.of());
         lenient().when(postViewService.getRecentViews(anyString(), anyInt())).thenReturn(List.of());
+        // Post card cache always misses: run the loader
+        lenient().when(feedCacheService.loadCard(anyString(), any()))
+            .thenAnswer(invocation -> invocation.<Supplier<PostsDTO>>getArgument(1).get());
     }
 
     @Test
@@ -111,7 +136,6 @@ class PostsServiceTest {
             }
             return post;
         });
-        when(userRepository.save(any(User.class))).thenReturn(mockUser);
 
         // Act
         Posts result = postsService.createPost("user123", inputPost);
@@ -121,7 +145,9 @@ class PostsServiceTest {
         assertEquals("post123", result.getId());
         assertEquals("Test Post", result.getTitle());
         verify(postsRepository, times(1)).insert(any(Posts.class));
-        verify(userRepository, times(1)).save(any(User.class));
+        // The author's posts list is queried from posts; the user document isn't touched
+        verify(userRepository, never()).updateUserById(anyString(), any());
+        verify(userRepository, never()).save(any(User.class));
     }
 
     @Test
@@ -172,9 +198,6 @@ class PostsServiceTest {
         // Arrange - Post has no features, so some mocks won't be used (use lenient)
         when(postsRepository.existsById("post123")).thenReturn(true);
         when(postsRepository.findById("post123")).thenReturn(Optional.of(mockPost));
-        when(userRepository.findById("user123")).thenReturn(Optional.of(mockUser));
-        lenient().when(userRepository.findByUserNameIn(anyList())).thenReturn(List.of());
-        when(userRepository.save(any(User.class))).thenReturn(mockUser);
         doNothing().when(postCommentService).deleteCommentsForPost(anyString());
         doNothing().when(postLikeService).deleteLikesForPost(anyString());
         doNothing().when(postViewService).deleteViewsForPost(anyString());
@@ -192,6 +215,9 @@ class PostsServiceTest {
         verify(postCommentService, times(1)).deleteCommentsForPost("post123");
         verify(postLikeService, times(1)).deleteLikesForPost("post123");
         verify(postViewService, times(1)).deleteViewsForPost("post123");
+        // The author's posts list is queried from posts; the user document isn't touched
+        verify(userRepository, never()).updateUserById(anyString(), any());
+        verify(userRepository, never()).save(any(User.class));
     }
 
     @Test
@@ -219,7 +245,7 @@ class PostsServiceTest {
         updatedPost.setDescription("Updated Description");
 
         when(postsRepository.findById("post123")).thenReturn(Optional.of(mockPost));
-        when(postsRepository.save(any(Posts.class))).thenReturn(updatedPost);
+        when(postsRepository.updatePost(eq("post123"), any())).thenReturn(updatedPost);
 
         // Act
         Posts result = postsService.updatePost("post123", updatedPost);
@@ -227,7 +253,8 @@ class PostsServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals("Updated Title", result.getTitle());
-        verify(postsRepository, times(1)).save(any(Posts.class));
+        verify(postsRepository, times(1)).updatePost(eq("post123"), any());
+        verify(postsRepository, never()).save(any(Posts.class));
     }
 
     @Test
@@ -246,5 +273,158 @@ class PostsServiceTest {
         assertTrue(result.getContent().isEmpty(), "Should return empty page");
         verify(postsRepository, times(1)).findByStatusOrderByTimeDesc(eq("PUBLISHED"), any(Pageable.class));
     }
-}
 
+    @Test
+    @DisplayName("Should enrich a feed page with one batch call per activity collection")
+    void testGetAllPagedPosts_BatchEnrichment() {
+        // Arrange - two posts on the page, only the first has likes
+        Posts secondPost = new Posts();
+        secondPost.setId("post456");
+        secondPost.setAuthor(mockUser);
+        secondPost.setTitle("Second Post");
+        secondPost.setStatus("PUBLISHED");
+        secondPost.setTime(Instant.now());
+
+        when(postsRepository.findByStatusOrderByTimeDesc(eq("PUBLISHED"), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(mockPost, secondPost)));
+        when(postLikeService.getRecentLikesForPosts(anyList(), eq(10)))
+                .thenReturn(Map.of("post123", List.of(new LikesDTO("fan", null, Instant.now()))));
+
+        // Act
+        PagedModel<PostsDTO> result = postsService.getAllPagedPosts(0, 6);
+
+        // Assert
+        assertEquals(2, result.getContent().size());
+        assertEquals(1, result.getContent().get(0).likes().size());
+        assertTrue(result.getContent().get(1).likes().isEmpty());
+        verify(postLikeService, times(1)).getRecentLikesForPosts(anyList(), eq(10));
+        verify(postCommentService, times(1)).getRecentCommentsForPosts(anyList(), eq(10));
+        verify(postViewService, times(1)).getRecentViewsForPosts(anyList(), eq(10));
+        verify(postLikeService, never()).getRecentLikes(anyString(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should buffer a view without loading or saving the post")
+    void testAddView_WriteBehind() {
+        // Arrange
+        when(postsRepository.existsById("post123")).thenReturn(true);
+
+        // Act
+        postsService.addView("post123", "testuser");
+
+        // Assert
+        verify(postViewService, times(1)).addView("post123", "testuser");
+        verify(postsRepository, never()).findById(anyString());
+        verify(postsRepository, never()).save(any(Posts.class));
+    }
+
+    @Test
+    @DisplayName("Should $inc the cached like count instead of counting and saving the post")
+    void testAddLike_AtomicCounter() {
+        // Arrange
+        Posts updated = new Posts();
+        updated.setId("post123");
+        updated.setTotalLikes(1);
+
+        when(postsRepository.findById("post123")).thenReturn(Optional.of(mockPost));
+        when(postLikeService.toggleLike("post123", "fan")).thenReturn(new PostLikeService.LikeToggle(true, 1, Instant.now()));
+        when(postsRepository.incrementCounter(eq("post123"), eq("totalLikes"), eq(1), any())).thenReturn(updated);
+
+        // Act
+        Optional<Posts> result = postsService.addLike("post123", "fan");
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(1, result.get().getTotalLikes());
+        verify(postLikeService, times(1)).toggleLike("post123", "fan");
+        verify(postsRepository, times(1)).incrementCounter(eq("post123"), eq("totalLikes"), eq(1), any());
+        verify(postLikeService, never()).getTotalLikes(anyString());
+        verify(postsRepository, never()).save(any(Posts.class));
+    }
+
+    @Test
+    @DisplayName("Should add a like notification without saving the author's user document")
+    void testAddLike_NotificationStore() {
+        // Arrange
+        when(postsRepository.findById("post123")).thenReturn(Optional.of(mockPost));
+        when(postLikeService.toggleLike("post123", "fan")).thenReturn(new PostLikeService.LikeToggle(true, 1, Instant.now()));
+
+        // Act
+        postsService.addLike("post123", "fan");
+
+        // Assert
+        verify(notificationService, times(1)).notify("testuser", "post123", "fan", "Liked Your Post!", NotificationsDTO.NotiType.POST);
+        // Liked posts are read from post_likes, so the liker's user document isn't written either
+        verify(userRepository, never()).updateUser(anyString(), any());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    @DisplayName("Should notify the author named in the snapshot without resolving the author reference")
+    void testAddLike_UsesAuthorSnapshot() {
+        // Arrange
+        User lazyAuthor = mock(User.class);
+        mockPost.setAuthor(lazyAuthor);
+        mockPost.setAuthorSnapshot(AuthorSnapshot.from(mockUser));
+        when(postsRepository.findById("post123")).thenReturn(Optional.of(mockPost));
+        when(postLikeService.toggleLike("post123", "fan")).thenReturn(new PostLikeService.LikeToggle(true, 1, Instant.now()));
+
+        // Act
+        postsService.addLike("post123", "fan");
+
+        // Assert
+        verify(notificationService, times(1)).notify("testuser", "post123", "fan", "Liked Your Post!", NotificationsDTO.NotiType.POST);
+        verifyNoInteractions(lazyAuthor);
+    }
+
+    @Test
+    @DisplayName("Should serve a cached feed page without querying Mongo when all cards are cached")
+    void testGetAllPagedPosts_FromFeedCache() {
+        // Arrange
+        PostsDTO card = new PostsDTO("post123", null, "Test Post", null, List.of(), List.of(), "PUBLISHED",
+                0, false, List.of("Hip-Hop"), null, List.of(), Instant.now(), List.of(), List.of(), 0, 0, 0);
+        when(feedCacheService.getPageIds(FeedCacheService.FeedSort.TIME, null, 0, 6)).thenReturn(Optional.of(List.of("post123")));
+        when(feedCacheService.getTotal(null)).thenReturn(Optional.of(1L));
+        when(feedCacheService.getCards(List.of("post123"))).thenReturn(Map.of("post123", card));
+
+        // Act
+        PagedModel<PostsDTO> result = postsService.getAllPagedPosts(0, 6);
+
+        // Assert
+        assertEquals(1, result.getContent().size());
+        assertEquals("post123", result.getContent().get(0).id());
+        verifyNoInteractions(postsRepository);
+    }
+
+    @Test
+    @DisplayName("Should page role-filtered most-liked posts with a single indexed query")
+    void testFindByUserRoleOrderByLikesDesc() {
+        // Arrange
+        when(postsRepository.findByStatusAndAuthorSnapshotRoleOrderByTotalLikesDescTimeDesc(eq("PUBLISHED"), eq("USERPLUS"), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(mockPost), org.springframework.data.domain.PageRequest.of(2, 5), 11));
+
+        // Act
+        PagedModel<PostsDTO> result = postsService.findByUserRoleOrderByLikesDesc("USERPLUS", 2, 5);
+
+        // Assert
+        assertEquals(1, result.getContent().size());
+        assertEquals(11, result.getMetadata().totalElements());
+        verify(postsRepository, never()).findByStatusOrderByTotalLikesDescTimeDesc(anyString(), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Should look up pending feature requests by index instead of scanning all posts")
+    void testGetPendingFeatureRequests() {
+        // Arrange
+        mockPost.setPendingFeatures(new ArrayList<>(List.of("testuser")));
+        when(postsRepository.findByPendingFeaturesOrderByTimeDesc("testuser")).thenReturn(List.of(mockPost));
+
+        // Act
+        List<PostsDTO> result = postsService.getPendingFeatureRequests("testuser");
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("post123", result.get(0).id());
+        verify(postsRepository, never()).findAll();
+    }
+}
@@ -0,0 +1,111 @@
+package Feat.FeatureMe.Service;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+/**
+ * Memory per edge and query latency of the in-memory social graph (SocialGraphIndex) on a
+ * generated follow graph with a skewed follower distribution (a few accounts followed by many).
+ *
+ * Not part of the regular test run, and needs no database:
+ *   mvn test -Dtest=SocialGraphBenchmark -Dbenchmark.social-graph=true
+ * Optional: -Dbenchmark.users=200000 -Dbenchmark.edges=1000000
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmark.social-graph", matches = "true")
+@DisplayName("Social graph benchmark")
+class SocialGraphBenchmark {
+
+    private static final int ITERATIONS = 10_000;
+
+    private int users;
+    private int edges;
+    private String[] names;
+    private SocialGraphIndex index;
+
+    @BeforeAll
+    void build() {
+        users = Integer.getInteger("benchmark.users", 200_000);
+        edges = Integer.getInteger("benchmark.edges", 1_000_000);
+        names = new String[users];
+        for (int i = 0; i < users; i++) {
+            names[i] = "user" + i;
+        }
+
+        // Names exist before the measurement; they're shared with the rest of the app in production too
+        long before = usedHeap();
+        SocialGraphIndex.Builder builder = new SocialGraphIndex.Builder();
+        Random random = new Random(11);
+        for (int i = 0; i < edges; i++) {
+            int follower = random.nextInt(users);
+            int followed = (int) (users * Math.pow(random.nextDouble(), 3)); // Skewed towards low ids
+            if (follower != followed) {
+                builder.add(names[follower], names[followed]);
+            }
+        }
+        SocialGraphIndex.Graph graph = builder.build();
+        builder = null;
+        long after = usedHeap();
+
+        index = new SocialGraphIndex(null, null, null);
+        index.install(graph);
+
+        long adjacency = 0;
+        for (int id = 0; id < graph.size(); id++) {
+            adjacency += arrayBytes(graph.following(id).length) + arrayBytes(graph.followers(graph.nameOf(id)).length);
+        }
+        double millions = edges / 1_000_000.0;
+        System.out.printf("%d users, %d follows: heap %.1f MB (%.1f MB per million edges), adjacency arrays %.1f MB (%.1f MB per million edges)%n",
+            graph.size(), edges,
+            (after - before) / 1e6, (after - before) / 1e6 / millions,
+            adjacency / 1e6, adjacency / 1e6 / millions);
+    }
+
+    @Test
+    @DisplayName("Intersections and two-hop suggestions")
+    void queries() {
+        Random random = new Random(3);
+        report("followed by people you follow", i ->
+            index.followedByFollowing(names[random.nextInt(users)], names[random.nextInt(users / 100)], 10));
+        report("mutual follower count        ", i ->
+            index.mutualFollowerCount(names[random.nextInt(users / 100)], names[random.nextInt(users / 100)]));
+        report("suggestions (top 50)         ", i ->
+            index.suggest(names[random.nextInt(users)], 50));
+    }
+
+    private void report(String label, IntConsumer query) {
+        // Warm up the JIT before timing
+        for (int i = 0; i < ITERATIONS; i++) {
+            query.accept(i);
+        }
+        long[] nanos = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            query.accept(i);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%s: p50 %.1f us, p99 %.1f us%n",
+            label, nanos[ITERATIONS / 2] / 1e3, nanos[(int) (ITERATIONS * 0.99)] / 1e3);
+    }
+
+    // int[] with a 16-byte header, padded to 8 bytes
+    private static long arrayBytes(int length) {
+        return (16 + 4L * length + 7) & ~7L;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,129 @@
+package Feat.FeatureMe.Service;
+
+import Feat.FeatureMe.Entity.UserRelation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("SocialGraphIndex Unit Tests")
+class SocialGraphIndexTest {
+
+    private SocialGraphIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SocialGraphIndex(null, null, null);
+        SocialGraphIndex.Builder builder = new SocialGraphIndex.Builder();
+        // alice follows bob, carol and dave
+        builder.add("alice", "bob");
+        builder.add("alice", "carol");
+        builder.add("alice", "dave");
+        // Their follows: erin is followed by all three, frank by two, gina by one
+        builder.add("bob", "erin");
+        builder.add("carol", "erin");
+        builder.add("dave", "erin");
+        builder.add("bob", "frank");
+        builder.add("carol", "frank");
+        builder.add("dave", "gina");
+        // Second hops back to alice and to someone she already follows
+        builder.add("bob", "alice");
+        builder.add("carol", "dave");
+        // A duplicate edge is stored once
+        builder.add("bob", "erin");
+        index.install(builder.build());
+    }
+
+    @Test
+    @DisplayName("Should intersect sorted arrays with either strategy and respect the limit")
+    void testIntersect() {
+        assertArrayEquals(new int[] { 3, 5 }, SocialGraphIndex.intersect(new int[] { 1, 3, 5, 7 }, new int[] { 2, 3, 4, 5 }, 10));
+        assertArrayEquals(new int[] { 3 }, SocialGraphIndex.intersect(new int[] { 1, 3, 5, 7 }, new int[] { 2, 3, 4, 5 }, 1));
+        assertArrayEquals(new int[0], SocialGraphIndex.intersect(new int[0], new int[] { 1, 2 }, 10));
+
+        // Far apart in size: binary search path
+        int[] large = new int[1000];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = i * 2;
+        }
+        assertArrayEquals(new int[] { 4, 998 }, SocialGraphIndex.intersect(new int[] { 3, 4, 998, 2001 }, large, 10));
+        assertEquals(2, SocialGraphIndex.intersectionSize(large, new int[] { 3, 4, 998, 2001 }));
+    }
+
+    @Test
+    @DisplayName("Should rank suggestions by mutual connections, then by name")
+    void testSuggestRanking() {
+        List<SocialGraphIndex.Candidate> suggestions = index.suggest("alice", 10);
+
+        assertEquals(List.of(
+            new SocialGraphIndex.Candidate("erin", 3),
+            new SocialGraphIndex.Candidate("frank", 2),
+            new SocialGraphIndex.Candidate("gina", 1)
+        ), suggestions);
+        assertEquals(2, index.suggest("alice", 2).size());
+    }
+
+    @Test
+    @DisplayName("Should never suggest the user or someone they already follow")
+    void testSuggestExclusions() {
+        List<String> names = index.suggest("alice", 10).stream().map(SocialGraphIndex.Candidate::userName).toList();
+
+        assertFalse(names.contains("alice"));
+        assertFalse(names.contains("dave"));
+        assertTrue(index.suggest("nobody", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should answer two-hop questions and follow incremental changes")
+    void testTwoHopAndUpdates() {
+        assertEquals(List.of("bob", "carol", "dave"), index.followedByFollowing("alice", "erin", 10));
+        assertEquals(2, index.mutualFollowerCount("erin", "frank"));
+
+        index.follow("alice", "erin");
+        index.unfollow("carol", "frank");
+        assertEquals(List.of("frank", "gina"),
+            index.suggest("alice", 10).stream().map(SocialGraphIndex.Candidate::userName).toList());
+        assertEquals(1, index.mutualFollowerCount("erin", "frank"));
+
+        index.removeUser("erin");
+        assertTrue(index.followedByFollowing("alice", "erin", 10).isEmpty());
+        assertEquals(0, index.mutualFollowerCount("erin", "frank"));
+    }
+
+    @Test
+    @DisplayName("Should replay follows and unfollows that land during a reload")
+    void testReloadReplaysConcurrentChanges() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        SocialGraphIndex reloading = new SocialGraphIndex(mongoTemplate, null, null);
+        List<UserRelation> stored = List.of(
+            new UserRelation("alice", "bob", UserRelation.RelationType.FOLLOW, UserRelation.RelationStatus.ACTIVE, null, null),
+            new UserRelation("bob", "carol", UserRelation.RelationType.FOLLOW, UserRelation.RelationStatus.ACTIVE, null, null)
+        );
+        AtomicBoolean changed = new AtomicBoolean();
+        when(mongoTemplate.stream(any(Query.class), eq(UserRelation.class))).thenAnswer(invocation ->
+            stored.stream().peek(relation -> {
+                // Writes that arrive after the scan has read the rows they affect
+                if (changed.compareAndSet(false, true)) {
+                    reloading.follow("alice", "carol");
+                    reloading.unfollow("bob", "carol");
+                }
+            }));
+
+        reloading.reload();
+
+        assertTrue(reloading.isReady());
+        // alice -> carol was replayed: bob and carol now share alice as a follower
+        assertEquals(1, reloading.mutualFollowerCount("bob", "carol"));
+        // bob -> carol was replayed too: alice is carol's only follower
+        assertEquals(1, reloading.mutualFollowerCount("carol", "carol"));
+        assertTrue(reloading.followedByFollowing("alice", "carol", 10).isEmpty());
+    }
+}
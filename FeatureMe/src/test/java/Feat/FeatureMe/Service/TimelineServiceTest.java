@@ -0,0 +1,140 @@
+package Feat.FeatureMe.Service;
+
+import Feat.FeatureMe.Dto.CursorPageDTO;
+import Feat.FeatureMe.Dto.PostCursor;
+import Feat.FeatureMe.Entity.Posts;
+import Feat.FeatureMe.Repository.UserRelationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Range;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TimelineService Unit Tests")
+class TimelineServiceTest {
+
+    private static final String TIMELINE_KEY = "timeline:reader";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOps;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private UserRelationRepository userRelationRepository;
+
+    @Mock
+    private TwoTierCache twoTierCache;
+
+    private TimelineService timelineService;
+
+    @BeforeEach
+    void setUp() {
+        timelineService = new TimelineService(redisTemplate, mongoTemplate, userRelationRepository, twoTierCache, 10000);
+    }
+
+    @Test
+    @DisplayName("Pushed and pulled posts are merged newest first, without duplicates")
+    void testGetTimelineMergesPushedAndPulled() {
+        following(List.of("small"), List.of("big"));
+        timelineHolds(5, tuple("p3", 3000), tuple("p1", 1000));
+        when(mongoTemplate.find(any(Query.class), eq(Posts.class))).thenReturn(List.of(post("p4", 4000), post("p3", 3000), post("p2", 2000)));
+
+        CursorPageDTO<String> page = timelineService.getTimeline("reader", null, 3);
+
+        assertEquals(List.of("p4", "p3", "p2"), page.content());
+        assertTrue(page.hasNext());
+        PostCursor next = PostCursor.decode(page.nextCursor());
+        assertEquals(Instant.ofEpochMilli(2000), next.time());
+        assertEquals("p2", next.id());
+    }
+
+    @Test
+    @DisplayName("Posts sharing the cursor's millisecond are skipped up to and including the cursor")
+    void testGetTimelineFiltersTiesAtCursor() {
+        following(List.of("small"), List.of());
+        // The score range is inclusive, so Redis returns the cursor's own millisecond again
+        timelineHolds(4, tuple("p6", 2000), tuple("p5", 2000), tuple("p4", 2000), tuple("p1", 1000));
+        String cursor = new PostCursor(null, Instant.ofEpochMilli(2000), "p5").encode();
+
+        CursorPageDTO<String> page = timelineService.getTimeline("reader", cursor, 10);
+
+        assertEquals(List.of("p4", "p1"), page.content());
+        assertFalse(page.hasNext());
+        assertNull(page.nextCursor());
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("Paging past what the capped timeline holds falls back to Mongo")
+    void testGetTimelineFallsBackPastCapacity() {
+        following(List.of("small"), List.of());
+        timelineHolds(TimelineService.TIMELINE_CAPACITY, tuple("p2", 2000));
+        when(mongoTemplate.find(any(Query.class), eq(Posts.class))).thenReturn(List.of(post("p2", 2000), post("p0", 500)));
+        String cursor = new PostCursor(null, Instant.ofEpochMilli(2500), "p3").encode();
+
+        CursorPageDTO<String> page = timelineService.getTimeline("reader", cursor, 10);
+
+        assertEquals(List.of("p2", "p0"), page.content());
+        verify(mongoTemplate).find(any(Query.class), eq(Posts.class));
+    }
+
+    @Test
+    @DisplayName("A short timeline below capacity is served from Redis alone")
+    void testGetTimelineStaysInRedisBelowCapacity() {
+        following(List.of("small"), List.of());
+        timelineHolds(1, tuple("p2", 2000));
+
+        CursorPageDTO<String> page = timelineService.getTimeline("reader", null, 10);
+
+        assertEquals(List.of("p2"), page.content());
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    private void following(List<String> pushedIds, List<String> pulledIds) {
+        when(twoTierCache.getOrLoad(eq(TwoTierCache.Region.TIMELINE_SOURCES), eq("reader"), eq(TimelineService.Following.class), any()))
+            .thenReturn(new TimelineService.Following(pushedIds, pulledIds));
+    }
+
+    @SuppressWarnings("unchecked")
+    @SafeVarargs
+    private void timelineHolds(long size, ZSetOperations.TypedTuple<String>... newestFirst) {
+        when(redisTemplate.hasKey(TIMELINE_KEY)).thenReturn(true);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOps);
+        when(zSetOps.reverseRangeByScoreWithScores(eq(TIMELINE_KEY), any(Range.class), any(Limit.class)))
+            .thenReturn(new LinkedHashSet<>(Arrays.asList(newestFirst)));
+        when(zSetOps.zCard(TIMELINE_KEY)).thenReturn(size);
+    }
+
+    private static ZSetOperations.TypedTuple<String> tuple(String id, long time) {
+        return ZSetOperations.TypedTuple.of(id, (double) time);
+    }
+
+    private static Posts post(String id, long time) {
+        Posts post = new Posts();
+        post.setId(id);
+        post.setTime(Instant.ofEpochMilli(time));
+        return post;
+    }
+}
@@ -0,0 +1,123 @@
+package Feat.FeatureMe.Service;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the trending feed read (status_trending_idx) against the current most-liked sort
+ * (status_likes_time_idx) on a generated 1M-post collection.
+ *
+ * Not part of the regular test run. Point it at a scratch MongoDB:
+ *   mvn test -Dtest=TrendingFeedBenchmark -Dbenchmark.mongo.uri=mongodb://localhost:27017
+ * Optional: -Dbenchmark.posts=1000000
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmark.mongo.uri", matches = ".+")
+@DisplayName("Trending feed benchmark")
+class TrendingFeedBenchmark {
+
+    private static final String DATABASE = "featureme_benchmark";
+    private static final int PAGE_SIZE = 6;
+    private static final int ITERATIONS = 200;
+    private static final int[] PAGES = {0, 10, 1000};
+
+    private MongoClient client;
+    private MongoCollection<Document> posts;
+
+    @BeforeAll
+    void seed() {
+        client = MongoClients.create(System.getProperty("benchmark.mongo.uri"));
+        posts = client.getDatabase(DATABASE).getCollection("posts");
+        posts.drop();
+
+        int total = Integer.getInteger("benchmark.posts", 1_000_000);
+        Random random = new Random(42);
+        long now = System.currentTimeMillis();
+        double lambdaPerMilli = Math.log(2) / (24 * 3600_000.0);
+        List<Document> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < total; i++) {
+            long time = now - (long) (random.nextDouble() * 365L * 24 * 3600_000);
+            // Heavy-tailed like counts, as in a real feed
+            int likes = (int) Math.min(100_000, Math.floor(Math.pow(random.nextDouble(), -1.5)) - 1);
+            batch.add(new Document("status", "PUBLISHED")
+                .append("title", "Post " + i)
+                .append("time", new Date(time))
+                .append("totalLikes", likes)
+                .append("trendingScore", (1 + likes) * Math.exp(lambdaPerMilli * (time - now))));
+            if (batch.size() == 10_000) {
+                posts.insertMany(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            posts.insertMany(batch);
+        }
+        posts.createIndex(Indexes.compoundIndex(Indexes.ascending("status"), Indexes.descending("totalLikes"), Indexes.descending("time")),
+            new IndexOptions().name("status_likes_time_idx"));
+        posts.createIndex(Indexes.compoundIndex(Indexes.ascending("status"), Indexes.descending("trendingScore")),
+            new IndexOptions().name("status_trending_idx"));
+    }
+
+    @AfterAll
+    void cleanUp() {
+        if (client != null) {
+            client.getDatabase(DATABASE).drop();
+            client.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Most-liked sort vs trending score")
+    void compareFeeds() {
+        Document filter = new Document("status", "PUBLISHED");
+        Document likesSort = new Document("totalLikes", -1).append("time", -1);
+        Document trendingSort = new Document("trendingScore", -1);
+
+        for (int page : PAGES) {
+            report("likesdesc", filter, likesSort, page);
+            report("trending ", filter, trendingSort, page);
+        }
+    }
+
+    private void report(String label, Document filter, Document sort, int page) {
+        // Warm up caches before timing
+        for (int i = 0; i < 20; i++) {
+            readPage(filter, sort, page);
+        }
+        long[] nanos = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            readPage(filter, sort, page);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+
+        Document stats = posts.find(filter).sort(sort).skip(page * PAGE_SIZE).limit(PAGE_SIZE)
+            .explain().get("executionStats", Document.class);
+        System.out.printf("%s page %4d: p50 %.2f ms, p99 %.2f ms, keys examined %s, docs examined %s%n",
+            label, page,
+            nanos[ITERATIONS / 2] / 1e6, nanos[(int) (ITERATIONS * 0.99)] / 1e6,
+            stats.get("totalKeysExamined"), stats.get("totalDocsExamined"));
+    }
+
+    private void readPage(Document filter, Document sort, int page) {
+        posts.find(filter).sort(sort).skip(page * PAGE_SIZE).limit(PAGE_SIZE).into(new ArrayList<>());
+    }
+}
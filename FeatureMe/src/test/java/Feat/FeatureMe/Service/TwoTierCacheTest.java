@@ -0,0 +1,116 @@
+package Feat.FeatureMe.Service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("TwoTierCache Unit Tests")
+class TwoTierCacheTest {
+
+    private TwoTierCache cache;
+    private ValueOperations<String, String> valueOps;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        // Redis always misses and the load lock is always free, so every miss runs the loader
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        valueOps = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        when(valueOps.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        // Pipelined writes run straight against the mocked template
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            ((SessionCallback<Object>) invocation.getArgument(0)).execute(redisTemplate);
+            return List.of();
+        });
+        cache = new TwoTierCache(redisTemplate, new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Eviction of another key during a load does not keep the loaded value out")
+    void testEvictionOfOtherKeyKeepsFill() {
+        AtomicInteger loads = new AtomicInteger();
+
+        String first = cache.getOrLoad(TwoTierCache.Region.POSTS, "a", String.class, () -> {
+            loads.incrementAndGet();
+            cache.evict(TwoTierCache.Region.POSTS, "b");
+            return "value-a";
+        });
+        String second = cache.getOrLoad(TwoTierCache.Region.POSTS, "a", String.class, () -> {
+            loads.incrementAndGet();
+            return "reloaded-a";
+        });
+
+        assertEquals("value-a", first);
+        assertEquals("value-a", second);
+        assertEquals(1, loads.get());
+        verify(valueOps).set(eq("post:card:a"), anyString(), any(Duration.class));
+    }
+
+    @Test
+    @DisplayName("Eviction of the same key during a load keeps the loaded value out")
+    void testEvictionOfSameKeyDropsFill() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getOrLoad(TwoTierCache.Region.POSTS, "a", String.class, () -> {
+            loads.incrementAndGet();
+            cache.evict(TwoTierCache.Region.POSTS, "a");
+            return "stale-a";
+        });
+        String second = cache.getOrLoad(TwoTierCache.Region.POSTS, "a", String.class, () -> {
+            loads.incrementAndGet();
+            return "fresh-a";
+        });
+
+        assertEquals("fresh-a", second);
+        assertEquals(2, loads.get());
+        verify(valueOps, never()).set(eq("post:card:a"), eq("\"stale-a\""), any(Duration.class));
+    }
+
+    @Test
+    @DisplayName("Eviction before a load does not affect it")
+    void testEarlierEvictionKeepsFill() {
+        cache.evict(TwoTierCache.Region.POSTS, "a");
+        cache.getOrLoad(TwoTierCache.Region.POSTS, "a", String.class, () -> "value-a");
+
+        String cached = cache.getOrLoad(TwoTierCache.Region.POSTS, "a", String.class, () -> {
+            throw new AssertionError("Expected an L1 hit");
+        });
+
+        assertEquals("value-a", cached);
+    }
+
+    @Test
+    @DisplayName("putAll drops values evicted after the load stamp and caches the rest")
+    void testPutAllRespectsLoadStamp() {
+        long loadStamp = cache.loadStamp(TwoTierCache.Region.POSTS);
+        cache.evict(TwoTierCache.Region.POSTS, "a");
+        cache.putAll(TwoTierCache.Region.POSTS, Map.of("a", "stale-a", "b", "value-b"), loadStamp);
+
+        String a = cache.getOrLoad(TwoTierCache.Region.POSTS, "a", String.class, () -> "fresh-a");
+        String b = cache.getOrLoad(TwoTierCache.Region.POSTS, "b", String.class, () -> {
+            throw new AssertionError("Expected an L1 hit");
+        });
+
+        assertEquals("fresh-a", a);
+        assertEquals("value-b", b);
+        verify(valueOps, never()).set(eq("post:card:a"), eq("\"stale-a\""), any(Duration.class));
+        verify(valueOps).set(eq("post:card:b"), eq("\"value-b\""), any(Duration.class));
+    }
+}
@@ -71,7 +71,9 @@ function FriendSuggestions({ limit = 5 }) {
                             />
                             <div className="suggestion-details">
                                 <span className="suggestion-username">{user.userName}</span>
-                                <span className="suggestion-reason">Suggested for you</span>
+                                <span className="suggestion-reason">
+                                    {user.mutualCount > 1 ? `Followed by ${user.mutualCount} people you follow` : 'Suggested for you'}
+                                </span>
                             </div>
                         </div>
                         <button 
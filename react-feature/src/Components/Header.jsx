@@ -2,20 +2,28 @@ import React, { useState, useEffect, useRef } from "react";
 import Notifications from "./Notifications";
 import "./Header.css";
 import api, { logout, getCurrentUserSafe } from "../services/AuthService";
-import { clearMyNotifications } from "../services/UserService";
+import { clearMyNotifications, getMyUnreadNotificationCount, markMyNotificationsRead } from "../services/UserService";
+import { ChatWebSocketService } from "../services/ChatService";
 
 function Header() {
   const [displayNoti, setDisplayNoti] = useState(false);
   const [displayUserMenu, setDisplayUserMenu] = useState(false);
   const [displayMobileMenu, setDisplayMobileMenu] = useState(false);
   const [noti, setNoti] = useState(null);
+  const [unread, setUnread] = useState(0);
   const [currentUser, setCurrentUser] = useState(null);
   
   const userMenuRef = useRef(null);
   const mobileMenuRef = useRef(null);
   const notiRef = useRef(null);
 
-  const showNoti = () => setDisplayNoti((v) => !v);
+  const showNoti = () => {
+    if (!displayNoti && unread > 0) {
+      setUnread(0);
+      markMyNotificationsRead().catch(err => console.error('Failed to mark notifications as read', err));
+    }
+    setDisplayNoti((v) => !v);
+  };
   const toggleUserMenu = () => setDisplayUserMenu((v) => !v);
   const toggleMobileMenu = () => {
     setDisplayMobileMenu((v) => !v);
@@ -30,6 +38,7 @@ function Header() {
     try {
       await clearMyNotifications();
       setNoti([]);
+      setUnread(0);
     } catch (e) {
       console.error("Failed to clear notifications", e);
     }
@@ -46,13 +55,35 @@ function Header() {
   
   useEffect(() => {
     if (currentUser && currentUser.userName) {
+      // One catch-up fetch; after that new notifications are pushed over the WebSocket
       api.get(`user/get/notifications/${currentUser.userName}`).then(res => {
         setNoti(res.data);
       }).catch(err => {
         console.error('Error fetching notifications:', err);
       });
+      getMyUnreadNotificationCount().then(res => {
+        setUnread(res.data.unread);
+      }).catch(err => {
+        console.error('Error fetching unread notification count:', err);
+      });
     }
   }, [currentUser]);
+
+  useEffect(() => {
+    if (!currentUser || !currentUser.userName) {
+      return;
+    }
+    const socket = new ChatWebSocketService();
+    socket.connect().then(() => {
+      socket.subscribeToNotifications(update => {
+        setNoti(update.notifications);
+        setUnread(update.unread);
+      });
+    }).catch(err => {
+      console.error('Notification push unavailable:', err);
+    });
+    return () => socket.disconnect();
+  }, [currentUser]);
   
   // Close menus when clicking outside
   useEffect(() => {
@@ -131,8 +162,8 @@ function Header() {
               aria-label="Notifications"
             >
               <span className="header-action-icon">🔔</span>
-              {noti && Array.isArray(noti) && noti.length > 0 && (
-                <span className="header-noti-badge">{noti.length}</span>
+              {unread > 0 && (
+                <span className="header-noti-badge">{unread}</span>
               )}
             </button>
             
@@ -35,12 +35,14 @@ export default function Profile() {
   const [demos, setDemos] = useState([]);
   const [showAddDemo, setShowAddDemo] = useState(false);
 
-  // Pagination
+  // Pagination (cursor-based: cursors[n] is the token that starts page n)
   const pageSize = 6;
   const [postsPage, setPostsPage] = useState(0);
   const [featPage, setFeatPage] = useState(0);
-  const [postsTotalPages, setPostsTotalPages] = useState(0);
-  const [featTotalPages, setFeatTotalPages] = useState(0);
+  const [postsCursors, setPostsCursors] = useState([null]);
+  const [featCursors, setFeatCursors] = useState([null]);
+  const [postsHasNext, setPostsHasNext] = useState(false);
+  const [featHasNext, setFeatHasNext] = useState(false);
 
   // Edit profile state (kept minimal to enable existing endpoint usage)
   const [isEditing, setIsEditing] = useState(false);
@@ -107,7 +109,7 @@ export default function Profile() {
       setLoading(true);
       setError(null);
       const [userRes, cu] = await Promise.all([
-        api.get(`/user/get/${username}`),
+        api.get(`/user/profile/${username}`),
         getCurrentUser()
       ]);
       setUser(userRes.data);
@@ -149,39 +151,53 @@ export default function Profile() {
     }
   };
 
+  // Fetch page n of a cursor-paged profile list and remember where page n + 1 starts
+  const fetchCursorPage = async (path, cursors, page) => {
+    const cursor = page === 0 ? null : cursors[page];
+    const query = `size=${pageSize}${cursor ? `&cursor=${encodeURIComponent(cursor)}` : ''}`;
+    const res = await api.get(`/user/profile/${username}/${path}?${query}`);
+    const nextCursors = page === 0 ? [null] : cursors.slice(0, page + 1);
+    if (res.data.hasNext) {
+      nextCursors[page + 1] = res.data.nextCursor;
+    }
+    return { content: res.data.content || [], hasNext: res.data.hasNext, cursors: nextCursors };
+  };
+
   const loadPosts = async (page = 0) => {
-    if (!user || !user.posts || user.posts.length === 0) {
+    if (!user || !user.postsCount) {
       setPosts([]);
-      setPostsTotalPages(0);
+      setPostsHasNext(false);
       return;
     }
     try {
-      const res = await api.get(`posts/get/all/id/${user.posts}/sorted?page=${page}&size=${pageSize}`);
-      setPosts(res.data.content || []);
-      setPostsTotalPages(res.data.page?.totalPages || 0);
+      const res = await fetchCursorPage('posts', postsCursors, page);
+      setPosts(res.content);
+      setPostsHasNext(res.hasNext);
+      setPostsCursors(res.cursors);
       setPostsPage(page);
     } catch (e) {
       console.error('posts load error', e);
       setPosts([]);
-      setPostsTotalPages(0);
+      setPostsHasNext(false);
     }
   };
 
   const loadFeatures = async (page = 0) => {
-    if (!user || !user.featuredOn || user.featuredOn.length === 0) {
+    if (!user || !user.featuredOnCount) {
       setFeatures([]);
-      setFeatTotalPages(0);
+      setFeatHasNext(false);
       return;
     }
     try {
-      const res = await api.get(`posts/get/all/featuredOn/${user.featuredOn}/sorted?page=${page}&size=${pageSize}`);
-      setFeatures(res.data.content || []);
-      setFeatTotalPages(res.data.page?.totalPages || 0);
+      const res = await fetchCursorPage('featured-on', featCursors, page);
+      setFeatures(res.content);
+      setFeatHasNext(res.hasNext);
+      setFeatCursors(res.cursors);
       setFeatPage(page);
     } catch (e) {
       console.error('features load error', e);
       setFeatures([]);
-      setFeatTotalPages(0);
+      setFeatHasNext(false);
     }
   };
 
@@ -480,7 +496,7 @@ export default function Profile() {
               {/* Compact stats */}
               <ul className="profile-stats" style={{ marginTop: 8 }}>
                 <li>
-                  <span className="profile-stat-value">{user.posts?.length || 0}</span>
+                  <span className="profile-stat-value">{user.postsCount || 0}</span>
                   <span className="profile-stat-label">Posts</span>
                 </li>
                 <li>
@@ -556,10 +572,10 @@ export default function Profile() {
                 ) : (
                   <p className="profile-paragraph">No posts yet</p>
                 )}
-                {postsTotalPages > 1 && (
+                {(postsPage > 0 || postsHasNext) && (
                   <div style={{ display: 'flex', gap: 8, marginTop: 12 }}>
                     <button className="profile-btn" disabled={postsPage === 0} onClick={() => loadPosts(postsPage - 1)}>Previous</button>
-                    <button className="profile-btn" disabled={postsPage >= postsTotalPages - 1} onClick={() => loadPosts(postsPage + 1)}>Next</button>
+                    <button className="profile-btn" disabled={!postsHasNext} onClick={() => loadPosts(postsPage + 1)}>Next</button>
                 </div>
             )}
           </div>
@@ -613,10 +629,10 @@ export default function Profile() {
                 ) : (
                   <p className="profile-paragraph">No features yet</p>
                 )}
-                {featTotalPages > 1 && (
+                {(featPage > 0 || featHasNext) && (
                   <div style={{ display: 'flex', gap: 8, marginTop: 12 }}>
                     <button className="profile-btn" disabled={featPage === 0} onClick={() => loadFeatures(featPage - 1)}>Previous</button>
-                    <button className="profile-btn" disabled={featPage >= featTotalPages - 1} onClick={() => loadFeatures(featPage + 1)}>Next</button>
+                    <button className="profile-btn" disabled={!featHasNext} onClick={() => loadFeatures(featPage + 1)}>Next</button>
               </div>
                 )}
           </div>
@@ -129,6 +129,24 @@ export class ChatWebSocketService {
         this.messageHandlers.set(chatRoomId, messageHandler);
     }
 
+    // Subscribe to the current user's notification pushes ({ notifications, unread }, full list)
+    subscribeToNotifications(handler) {
+        if (!this.isConnected || !this.stompClient) {
+            console.error('WebSocket not connected');
+            return;
+        }
+
+        const subscription = this.stompClient.subscribe('/user/queue/notifications', (message) => {
+            try {
+                handler(JSON.parse(message.body));
+            } catch (error) {
+                console.error('Error parsing notification push:', error);
+            }
+        });
+
+        this.subscriptions.set('notifications', subscription);
+    }
+
     // Unsubscribe from a chat room
     unsubscribeFromChat(chatRoomId) {
         const subscription = this.subscriptions.get(chatRoomId);
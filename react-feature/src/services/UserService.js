@@ -73,6 +73,14 @@ export const clearMyNotifications = () => {
     return api.post('/user/notifications/clear');
 };
 
+export const getMyUnreadNotificationCount = () => {
+    return api.get('/user/notifications/unread-count');
+};
+
+export const markMyNotificationsRead = () => {
+    return api.post('/user/notifications/read');
+};
+
 // Change password
 export const changePassword = (passwordData) => {
     return api.post('/user/change-password', passwordData);